@@ -0,0 +1,250 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.points.DefaultPointCalculator;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+/**
+ * Measures how many moves per second players make on a large board when
+ * they are moved from several threads at once, once with a single lock for
+ * the whole level and once with striped locking. Every thread moves players
+ * of its own in random directions, as the threads of a
+ * {@link PerNpcTickScheduler} do with their ghosts.
+ * After every run it checks that no pellet was eaten twice or lost.
+ * <p>
+ * Run it with <code>gradle benchmark</code>. Every configuration is run once
+ * to warm up before it is measured.
+ */
+public final class StripedLockingBenchmark {
+
+    /**
+     * The width and height of the board.
+     */
+    private static final int BOARD_SIZE = 200;
+
+    /**
+     * The distance between the start squares of the players.
+     */
+    private static final int START_SPACING = 20;
+
+    /**
+     * The amounts of threads to measure.
+     */
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+
+    /**
+     * The amount of players every thread moves.
+     */
+    private static final int PLAYERS_PER_THREAD = 4;
+
+    /**
+     * How long every configuration is measured, in milliseconds.
+     */
+    private static final long RUN_MILLIS = 2000L;
+
+    /**
+     * The points of a pellet, as handed out by the {@link LevelFactory}.
+     */
+    private static final int PELLET_VALUE = 10;
+
+    /**
+     * The amount of milliseconds in a second.
+     */
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    /**
+     * Sprites shared by all levels.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    private StripedLockingBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark and prints the moves per second of every
+     * configuration.
+     *
+     * @param args
+     *            Ignored.
+     * @throws InterruptedException
+     *             When the benchmark is interrupted.
+     * @throws ExecutionException
+     *             When a move failed.
+     */
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        StripedLockingBenchmark benchmark = new StripedLockingBenchmark();
+        System.out.printf("%d available processors%n",
+            Runtime.getRuntime().availableProcessors());
+        System.out.printf("%8s %12s %12s%n", "threads", "level lock", "striped");
+        for (int threads : THREAD_COUNTS) {
+            benchmark.measure(false, threads);
+            benchmark.measure(true, threads);
+            double global = benchmark.measure(false, threads);
+            double striped = benchmark.measure(true, threads);
+            System.out.printf("%8d %12.0f %12.0f%n", threads, global, striped);
+        }
+    }
+
+    /**
+     * Moves players from the given amount of threads for a while.
+     *
+     * @param striped
+     *            <code>true</code> to lock squares rather than the level.
+     * @param threads
+     *            The amount of threads moving players.
+     * @return The moves per second made by all threads together.
+     * @throws InterruptedException
+     *             When the benchmark is interrupted.
+     * @throws ExecutionException
+     *             When a move failed.
+     */
+    private double measure(boolean striped, int threads)
+        throws InterruptedException, ExecutionException {
+        Level level = makeLevel(striped);
+        int pellets = level.remainingPellets();
+        List<List<Player>> groups = register(level, threads);
+        level.start();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RUN_MILLIS);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            List<Player> players = groups.get(i);
+            long seed = i;
+            tasks.add(() -> moveUntil(level, players, deadline, seed));
+        }
+        long moves = 0L;
+        for (Future<Long> result : executor.invokeAll(tasks)) {
+            moves += result.get();
+        }
+        executor.shutdown();
+        level.stop();
+        verify(level, groups, pellets);
+        return moves * MILLIS_PER_SECOND / RUN_MILLIS;
+    }
+
+    /**
+     * Moves the players in random directions until the deadline passed.
+     *
+     * @param level
+     *            The level to move on.
+     * @param players
+     *            The players to move.
+     * @param deadline
+     *            The {@link System#nanoTime()} to stop at.
+     * @param seed
+     *            The seed of the directions.
+     * @return The amount of moves made.
+     */
+    private static long moveUntil(Level level, List<Player> players, long deadline, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Direction[] directions = Direction.all();
+        long moves = 0L;
+        while (System.nanoTime() < deadline) {
+            for (Player player : players) {
+                level.move(player, directions[random.nextInt(directions.length)]);
+                moves++;
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Checks that the points of the players add up to the pellets eaten.
+     *
+     * @param level
+     *            The level that was played.
+     * @param groups
+     *            The players of every thread.
+     * @param pellets
+     *            The amount of pellets before the run.
+     */
+    private static void verify(Level level, List<List<Player>> groups, int pellets) {
+        long score = 0L;
+        for (List<Player> players : groups) {
+            for (Player player : players) {
+                score += player.getScore();
+            }
+        }
+        long eaten = (long) (pellets - level.remainingPellets()) * PELLET_VALUE;
+        if (score != eaten) {
+            throw new IllegalStateException("Scored " + score + " for " + eaten + " points.");
+        }
+    }
+
+    /**
+     * Registers players for every thread.
+     *
+     * @param level
+     *            The level to register the players on.
+     * @param threads
+     *            The amount of threads moving players.
+     * @return The players of every thread.
+     */
+    private List<List<Player>> register(Level level, int threads) {
+        PlayerFactory playerFactory = new PlayerFactory(sprites);
+        List<List<Player>> groups = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            List<Player> players = new ArrayList<>();
+            for (int j = 0; j < PLAYERS_PER_THREAD; j++) {
+                Player player = playerFactory.createPacMan();
+                level.registerPlayer(player);
+                players.add(player);
+            }
+            groups.add(players);
+        }
+        return groups;
+    }
+
+    /**
+     * Creates a level with a pellet on every square within its outer walls,
+     * and start squares spread evenly over it.
+     *
+     * @param striped
+     *            <code>true</code> to lock squares rather than the level.
+     * @return The new level.
+     */
+    private Level makeLevel(boolean striped) {
+        LevelFactory levelFactory = new LevelFactory(sprites, new GhostFactory(sprites),
+            new DefaultPointCalculator());
+        levelFactory.setStripedLocking(striped);
+        MapParser parser = new MapParser(levelFactory, new BoardFactory(sprites));
+        List<String> map = new ArrayList<>();
+        for (int y = 0; y < BOARD_SIZE; y++) {
+            StringBuilder row = new StringBuilder();
+            for (int x = 0; x < BOARD_SIZE; x++) {
+                row.append(cellAt(x, y));
+            }
+            map.add(row.toString());
+        }
+        return parser.parseMap(map);
+    }
+
+    /**
+     * @param x
+     *            The column of the cell.
+     * @param y
+     *            The row of the cell.
+     * @return The map character of the cell.
+     */
+    private static char cellAt(int x, int y) {
+        if (x == 0 || y == 0 || x == BOARD_SIZE - 1 || y == BOARD_SIZE - 1) {
+            return '#';
+        }
+        if (x % START_SPACING == START_SPACING / 2 && y % START_SPACING == START_SPACING / 2) {
+            return 'P';
+        }
+        return '.';
+    }
+}
@@ -3,6 +3,7 @@ package nl.tudelft.jpacman.board;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import nl.tudelft.jpacman.sprite.PacManSprites;
+import nl.tudelft.jpacman.sprite.Sprite;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -91,4 +92,38 @@ class BoardFactoryTest {
         assertThat(s1.getSquareAt(Direction.SOUTH)).isEqualTo(s2);
         assertThat(s2.getSquareAt(Direction.SOUTH)).isEqualTo(s1);
     }
+
+    /**
+     * Verifies the topology only lets paths cross walkable squares, also when
+     * a square is closed off without being a wall.
+     */
+    @Test
+    void closedSquareNotWalkable() {
+        Square closed = new ClosedSquare();
+        Board board = factory.createBoard(new Square[][]{{s1, closed}});
+        assertThat(board.getTopology().isWalkable(s1.getIndex())).isTrue();
+        assertThat(board.getTopology().isWalkable(closed.getIndex())).isFalse();
+    }
+
+    /**
+     * A square that no unit may enter, other than a wall.
+     */
+    private static final class ClosedSquare extends Square {
+
+        @Override
+        public boolean isAccessibleTo(Unit unit) {
+            return false;
+        }
+
+        @Override
+        public boolean isWalkable() {
+            return false;
+        }
+
+        @Override
+        @SuppressWarnings("return.type.incompatible")
+        public Sprite getSprite() {
+            return null;
+        }
+    }
 }
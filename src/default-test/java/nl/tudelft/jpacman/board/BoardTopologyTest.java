@@ -0,0 +1,72 @@
+package nl.tudelft.jpacman.board;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the layout of boards created by the board factory.
+ */
+@SuppressWarnings("magicnumber")
+class BoardTopologyTest {
+
+    /**
+     * The factory creating the boards.
+     */
+    private BoardFactory factory;
+
+    /**
+     * Resets the factory.
+     */
+    @BeforeEach
+    void setUp() {
+        factory = new BoardFactory(mock(PacManSprites.class));
+    }
+
+    /**
+     * Verifies the neighbours of a square wrap around the edges of the board.
+     */
+    @Test
+    void neighboursWrapAround() {
+        Board board = factory.createBoard(new Square[][]{
+            {factory.createGround(), factory.createGround()},
+            {factory.createGround(), factory.createGround()},
+            {factory.createGround(), factory.createGround()}});
+        BoardTopology topology = board.getTopology();
+        int corner = topology.indexOf(0, 0);
+        assertThat(topology.neighbour(corner, Direction.WEST)).isEqualTo(topology.indexOf(2, 0));
+        assertThat(topology.neighbour(corner, Direction.NORTH)).isEqualTo(topology.indexOf(0, 1));
+        assertThat(topology.neighbour(corner, Direction.EAST)).isEqualTo(topology.indexOf(1, 0));
+    }
+
+    /**
+     * Verifies the neighbours in the layout are those of the squares.
+     */
+    @Test
+    void matchesSquares() {
+        Board board = factory.createBoard(new Square[][]{
+            {factory.createGround(), factory.createWall()},
+            {factory.createWall(), factory.createGround()}});
+        BoardTopology topology = board.getTopology();
+        Square square = board.squareAt(1, 0);
+        for (Direction direction : Direction.values()) {
+            assertThat(board.squareWithIndex(topology.neighbour(square.getIndex(), direction)))
+                .isEqualTo(square.getSquareAt(direction));
+        }
+    }
+
+    /**
+     * Verifies walls cannot be walked on, and ground can.
+     */
+    @Test
+    void wallsAreNotWalkable() {
+        Board board = factory.createBoard(new Square[][]{
+            {factory.createGround(), factory.createWall()}});
+        BoardTopology topology = board.getTopology();
+        assertThat(topology.isWalkable(topology.indexOf(0, 0))).isTrue();
+        assertThat(topology.isWalkable(topology.indexOf(0, 1))).isFalse();
+    }
+}
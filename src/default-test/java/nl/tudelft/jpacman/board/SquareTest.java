@@ -3,6 +3,8 @@ package nl.tudelft.jpacman.board;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
@@ -62,4 +64,53 @@ class SquareTest {
 
         assertThat(square.getOccupants()).containsSequence(o1, o2);
     }
+
+    /**
+     * Assert that the occupants handed out earlier do not change when units
+     * come or go, and that reading them twice does not copy them.
+     */
+    @Test
+    void testOccupantsAreSnapshot() {
+        Unit o1 = mock(Unit.class);
+        Unit o2 = mock(Unit.class);
+        square.put(o1);
+        List<Unit> before = square.getOccupants();
+        assertThat(square.getOccupants()).isSameAs(before);
+
+        square.put(o2);
+        square.remove(o1);
+
+        assertThat(before).containsExactly(o1);
+        assertThat(square.getOccupants()).containsExactly(o2);
+        assertThat(square.getOccupantCount()).isEqualTo(1);
+    }
+
+    /**
+     * Assert that the oldest occupant of a type is found.
+     */
+    @Test
+    void testFirstOccupantOf() {
+        Unit o1 = mock(Unit.class);
+        BasicUnit o2 = new BasicUnit();
+        square.put(o1);
+        square.put(o2);
+
+        assertThat(square.firstOccupantOf(Unit.class)).isSameAs(o1);
+        assertThat(square.firstOccupantOf(BasicUnit.class)).isSameAs(o2);
+        assertThat(square.hasOccupant(o2)).isTrue();
+    }
+
+    /**
+     * Assert that the square keeps track of the kinds of its occupants.
+     */
+    @Test
+    void testOccupantKinds() {
+        Unit occupant = new BasicUnit();
+        square.put(occupant);
+        assertThat(square.hasOccupantOfKind(UnitKind.OTHER)).isTrue();
+        assertThat(square.hasOccupantOfKind(UnitKind.PELLET)).isFalse();
+
+        square.remove(occupant);
+        assertThat(square.hasOccupantOfKind(UnitKind.OTHER)).isFalse();
+    }
 }
@@ -0,0 +1,113 @@
+package nl.tudelft.jpacman.game;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import nl.tudelft.jpacman.Launcher;
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.npc.Ghost;
+import nl.tudelft.jpacman.npc.ghost.NextHopTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests stepping several games of the default board in lockstep.
+ */
+@SuppressWarnings("magicnumber")
+class BatchedGameEnvironmentTest {
+
+    /**
+     * The environment under test.
+     */
+    private BatchedGameEnvironment environment;
+
+    /**
+     * Creates an environment of three games.
+     */
+    @BeforeEach
+    void setUp() {
+        environment = new Launcher().makeBatchedEnvironment(3);
+    }
+
+    /**
+     * Verifies that each game gets its own move, reward and observation.
+     */
+    @Test
+    void stepsGamesIndependently() {
+        environment.step(new Direction[] {Direction.EAST, null, Direction.EAST});
+
+        assertThat(environment.getRewards()).containsExactly(10, 0, 10);
+        assertThat(environment.getDone()).containsExactly(false, false, false);
+        assertThat(playerSquare(1)).isNotEqualTo(playerSquare(0));
+        assertThat(playerSquare(2)).isEqualTo(playerSquare(0));
+    }
+
+    /**
+     * Verifies that games that are over stay over until they are reset, and
+     * that all games share the table of shortest paths.
+     */
+    @Test
+    void resetReplacesFinishedGame() {
+        Direction[] idle = new Direction[3];
+        while (!environment.getDone()[0]) {
+            environment.step(idle);
+        }
+        environment.step(idle);
+        assertThat(environment.getDone()[0]).isTrue();
+
+        environment.reset(0);
+
+        assertThat(environment.getDone()[0]).isFalse();
+        assertThat(environment.getSimulation(0).getLevel().getNextHopTable())
+            .isNotNull()
+            .isSameAs(environment.getSimulation(1).getLevel().getNextHopTable());
+    }
+
+    /**
+     * Verifies that the shared table, which was built from a board of its
+     * own, covers the squares of every game, so the ghosts of all games take
+     * their steps from it rather than searching.
+     */
+    @Test
+    void ghostsStepFromSharedTable() {
+        environment.step(new Direction[3]);
+        NextHopTable table = environment.getSimulation(0).getLevel().getNextHopTable();
+        for (int game = 0; game < 3; game++) {
+            Board board = environment.getSimulation(game).getLevel().getBoard();
+            int covered = 0;
+            int ghosts = 0;
+            for (int index = 0; index < board.getWidth() * board.getHeight(); index++) {
+                Square square = board.squareWithIndex(index);
+                if (table.covers(square)) {
+                    covered++;
+                }
+                for (Unit occupant : square.getOccupants()) {
+                    if (occupant instanceof Ghost) {
+                        assertThat(table.covers(square)).isTrue();
+                        ghosts++;
+                    }
+                }
+            }
+            assertThat(covered).isEqualTo(table.getSquareCount());
+            assertThat(ghosts).isPositive();
+        }
+    }
+
+    /**
+     * @param game
+     *            The number of a game.
+     * @return The index of the square the player of the game is observed on.
+     */
+    private int playerSquare(int game) {
+        byte[] observations = environment.getObservations();
+        int squareCount = environment.getSquareCount();
+        for (int index = 0; index < squareCount; index++) {
+            if (observations[game * squareCount + index] == BatchedGameEnvironment.PLAYER) {
+                return index;
+            }
+        }
+        return -1;
+    }
+}
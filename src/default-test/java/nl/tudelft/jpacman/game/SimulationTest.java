@@ -0,0 +1,74 @@
+package nl.tudelft.jpacman.game;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import nl.tudelft.jpacman.Launcher;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.level.FixedStepTickScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests playing the default board headless, on virtual time.
+ */
+@SuppressWarnings("magicnumber")
+class SimulationTest {
+
+    /**
+     * The simulation under test.
+     */
+    private Simulation simulation;
+
+    /**
+     * Creates and starts a simulation of the default board.
+     */
+    @BeforeEach
+    void setUp() {
+        simulation = new Launcher().makeSimulation();
+        simulation.start();
+    }
+
+    /**
+     * Verifies that a step moves the player right away.
+     */
+    @Test
+    void stepMovesPlayer() {
+        assertThat(simulation.step(Direction.EAST)).isTrue();
+        assertThat(simulation.getPlayer().getScore()).isEqualTo(10);
+        assertThat(simulation.getSteps()).isEqualTo(1);
+        assertThat(simulation.getElapsedMillis())
+            .isEqualTo(FixedStepTickScheduler.DEFAULT_TICK_LENGTH);
+    }
+
+    /**
+     * Verifies that the ghosts catch a player standing still, without any
+     * real time passing, after which steps have no effect.
+     */
+    @Test
+    void ghostsCatchIdlePlayer() {
+        assertThat(simulation.idle(1_000_000L)).isFalse();
+        assertThat(simulation.isLost()).isTrue();
+        assertThat(simulation.isWon()).isFalse();
+
+        long steps = simulation.getSteps();
+        assertThat(simulation.step(Direction.EAST)).isFalse();
+        assertThat(simulation.getSteps()).isEqualTo(steps);
+    }
+
+    /**
+     * Verifies that games with the same seed play out the same.
+     */
+    @Test
+    void seededGamesAreReproducible() {
+        Simulation first = new Launcher().withSeed(42L).makeSimulation();
+        Simulation second = new Launcher().withSeed(42L).makeSimulation();
+        first.start();
+        second.start();
+
+        first.idle(1_000_000L);
+        second.idle(1_000_000L);
+
+        assertThat(first.isLost()).isTrue();
+        assertThat(second.getSteps()).isEqualTo(first.getSteps());
+    }
+}
@@ -0,0 +1,80 @@
+package nl.tudelft.jpacman.level;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.level.CollisionInteractionMap.CollisionHandler;
+import nl.tudelft.jpacman.npc.Ghost;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the dispatching of collisions to their handlers.
+ */
+class CollisionInteractionMapTest {
+
+    /**
+     * The map under test.
+     */
+    private CollisionInteractionMap map;
+
+    /**
+     * The player colliding.
+     */
+    private Player player;
+
+    /**
+     * The ghost collided with.
+     */
+    private Ghost ghost;
+
+    /**
+     * Resets the map under test.
+     */
+    @BeforeEach
+    void setUp() {
+        map = new CollisionInteractionMap();
+        player = mock(Player.class);
+        ghost = mock(Ghost.class);
+    }
+
+    /**
+     * Verifies that the handler of a superclass handles collisions of its
+     * subclasses, in both directions.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void handlesSubclasses() {
+        CollisionHandler<Player, Unit> handler = mock(CollisionHandler.class);
+        map.onCollision(Player.class, Unit.class, handler);
+
+        map.collide(player, ghost);
+        map.collide(ghost, player);
+
+        verify(handler, times(2)).handleCollision(player, ghost);
+    }
+
+    /**
+     * Verifies that a handler added after a collision was handled takes over
+     * from the less specific handler used before.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void newHandlerReplacesResolvedOne() {
+        CollisionHandler<Player, Unit> general = mock(CollisionHandler.class);
+        CollisionHandler<Player, Ghost> specific = mock(CollisionHandler.class);
+        map.onCollision(Player.class, Unit.class, false, general);
+        map.collide(player, ghost);
+
+        map.onCollision(Player.class, Ghost.class, false, specific);
+        map.collide(player, ghost);
+
+        verify(general).handleCollision(player, ghost);
+        verifyNoMoreInteractions(general);
+        verify(specific).handleCollision(player, ghost);
+    }
+}
@@ -0,0 +1,158 @@
+package nl.tudelft.jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.tudelft.jpacman.npc.Ghost;
+
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the timing of the {@link FixedStepTickScheduler}, stepping it
+ * manually.
+ */
+@SuppressWarnings("magicnumber")
+class FixedStepTickSchedulerTest {
+
+    /**
+     * The scheduler under test, with ticks of 10 ms.
+     */
+    private final FixedStepTickScheduler scheduler = new FixedStepTickScheduler(10L);
+
+    /**
+     * A ghost moving every 100 ms.
+     */
+    private final Ghost slow = mock(Ghost.class);
+
+    /**
+     * A ghost moving every 40 ms.
+     */
+    private final Ghost fast = mock(Ghost.class);
+
+    /**
+     * The ghosts in the order in which they moved.
+     */
+    private final List<Ghost> moves = new ArrayList<>();
+
+    /**
+     * Sets the intervals of the ghosts and puts them on the wheel.
+     */
+    @BeforeEach
+    void setUp() {
+        when(slow.getInterval()).thenReturn(100L);
+        when(fast.getInterval()).thenReturn(40L);
+        scheduler.reset(Lists.newArrayList(slow, fast), moves::add);
+    }
+
+    /**
+     * Verifies nothing moves before half an interval has passed.
+     */
+    @Test
+    void nothingDueInitially() {
+        tick(1);
+        assertThat(moves).isEmpty();
+    }
+
+    /**
+     * Verifies the first move happens after half an interval.
+     */
+    @Test
+    void firstMoveAfterHalfInterval() {
+        tick(2);
+        assertThat(moves).containsExactly(fast);
+    }
+
+    /**
+     * Verifies every ghost keeps to its own interval over several rounds of
+     * the wheel.
+     */
+    @Test
+    void movesFollowIntervals() {
+        tick(205);
+        assertThat(moves).filteredOn(g -> g == slow).hasSize(21);
+        assertThat(moves).filteredOn(g -> g == fast).hasSize(51);
+        assertThat(scheduler.getTickCount()).isEqualTo(205L);
+    }
+
+    /**
+     * Verifies ghosts that are due in the same tick move in the order in
+     * which they were scheduled.
+     */
+    @Test
+    void sameTickKeepsOrder() {
+        when(fast.getInterval()).thenReturn(100L);
+        scheduler.reset(Lists.newArrayList(slow, fast), moves::add);
+        tick(5);
+        assertThat(moves).containsExactly(slow, fast);
+    }
+
+    /**
+     * Verifies a move that throws is reported, and neither stops the other
+     * ghosts nor takes the failing ghost off the wheel.
+     */
+    @Test
+    void failingMoveIsReported() {
+        List<Throwable> reported = new ArrayList<>();
+        scheduler.reset(Lists.newArrayList(slow, fast), ghost -> {
+            moves.add(ghost);
+            if (ghost == slow) {
+                throw new IllegalStateException("slow ghost failed");
+            }
+        });
+        Thread thread = Thread.currentThread();
+        Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+        thread.setUncaughtExceptionHandler((t, e) -> reported.add(e));
+        try {
+            tick(205);
+        } finally {
+            thread.setUncaughtExceptionHandler(handler);
+        }
+        assertThat(moves).filteredOn(g -> g == slow).hasSize(21);
+        assertThat(moves).filteredOn(g -> g == fast).hasSize(51);
+        assertThat(reported).hasSize(21)
+            .allMatch(e -> e instanceof IllegalStateException);
+    }
+
+    /**
+     * Verifies a move can wait for another thread to reset the scheduler, as
+     * when the move ends the level while the game is restarted, and that the
+     * ghosts moving during the reset are only scheduled by the reset.
+     *
+     * @throws InterruptedException
+     *             When the test is interrupted.
+     */
+    @Test
+    void moveMayWaitForReset() throws InterruptedException {
+        List<Thread> resetters = new ArrayList<>();
+        scheduler.reset(Lists.newArrayList(slow, fast), ghost -> {
+            Thread resetter = new Thread(() ->
+                scheduler.reset(Lists.newArrayList(slow, fast), moves::add));
+            resetters.add(resetter);
+            resetter.start();
+            try {
+                resetter.join(5000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        tick(2);
+        assertThat(resetters).hasSize(1);
+        assertThat(resetters.get(0).isAlive()).isFalse();
+
+        tick(10);
+        assertThat(moves).filteredOn(g -> g == fast).hasSize(3);
+        assertThat(moves).filteredOn(g -> g == slow).hasSize(1);
+    }
+
+    private void tick(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            scheduler.tick();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package nl.tudelft.jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import nl.tudelft.jpacman.Launcher;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.game.Simulation;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.points.DefaultPointCalculator;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the snapshots a level hands to its readers.
+ */
+@SuppressWarnings("magicnumber")
+class FrameExchangeTest {
+
+    /**
+     * The game whose level publishes the snapshots.
+     */
+    private Simulation simulation;
+
+    /**
+     * The exchange under test.
+     */
+    private FrameExchange frames;
+
+    /**
+     * Starts a simulation of the default board.
+     */
+    @BeforeEach
+    void setUp() {
+        simulation = new Launcher().makeSimulation();
+        frames = simulation.getLevel().getFrames();
+        simulation.start();
+    }
+
+    /**
+     * Verifies that a snapshot shows the units and pellets on the board.
+     */
+    @Test
+    void showsBoard() {
+        FrameSnapshot frame = frames.acquire();
+
+        int pellets = 0;
+        for (int index = 0; index < frame.getWidth() * frame.getHeight(); index++) {
+            if (frame.hasPellet(index)) {
+                pellets++;
+            }
+        }
+        assertThat(pellets).isEqualTo(simulation.getLevel().remainingPellets());
+        assertThat(frame.getPlayerCount()).isEqualTo(1);
+        assertThat(frame.getUnitSquare(frame.getUnitCount() - 1))
+            .isEqualTo(simulation.getPlayer().getSquare().getIndex());
+    }
+
+    /**
+     * Verifies that a move of the player is published, and that a snapshot
+     * stays the same while it is held.
+     */
+    @Test
+    void publishesMoves() {
+        FrameSnapshot before = frames.acquire();
+        long sequence = before.getSequence();
+
+        simulation.step(Direction.EAST);
+        FrameSnapshot after = frames.acquire();
+
+        assertThat(before.getSequence()).isEqualTo(sequence);
+        assertThat(after.getSequence()).isGreaterThan(sequence);
+        assertThat(after.getScore(0)).isEqualTo(simulation.getPlayer().getScore());
+        assertThat(after.hasPellet(simulation.getPlayer().getSquare().getIndex())).isFalse();
+        assertThat(frames.acquire()).isSameAs(after);
+    }
+
+    /**
+     * Verifies that with striped locking, snapshots taken while players eat
+     * pellets on threads of their own never show a move half done: every
+     * pellet is either on the board or in a score.
+     *
+     * @throws InterruptedException
+     *             When the test is interrupted.
+     */
+    @Test
+    void stripedFramesShowWholeMoves() throws InterruptedException {
+        PacManSprites sprites = new PacManSprites();
+        LevelFactory levelFactory = new LevelFactory(sprites, new GhostFactory(sprites),
+            new DefaultPointCalculator());
+        levelFactory.setStripedLocking(true);
+        Level level = new MapParser(levelFactory, new BoardFactory(sprites)).parseMap(
+            Lists.newArrayList("##########", "#P.......#", "#P.......#", "#P.......#",
+                "##########"));
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Player player = new PlayerFactory(sprites).createPacMan();
+            level.registerPlayer(player);
+            players.add(player);
+        }
+        int pellets = level.remainingPellets();
+        int value = levelFactory.createPellet().getValue();
+        FrameExchange exchange = level.getFrames();
+        level.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (Player player : players) {
+            Thread thread = new Thread(() -> {
+                for (int step = 0; step < 7; step++) {
+                    level.move(player, Direction.EAST);
+                    Thread.yield();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        while (threads.stream().anyMatch(Thread::isAlive)) {
+            assertThat(eatenOrLeft(exchange.acquire(), value)).isEqualTo(pellets);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        level.stop();
+        FrameSnapshot last = exchange.acquire();
+        assertThat(eatenOrLeft(last, value)).isEqualTo(pellets);
+        assertThat(last.getScore(0)).isEqualTo(7 * value);
+    }
+
+    /**
+     * @param frame
+     *            A snapshot.
+     * @param value
+     *            The points a pellet is worth.
+     * @return The amount of pellets on the board plus those in the scores.
+     */
+    private static int eatenOrLeft(FrameSnapshot frame, int value) {
+        int pellets = 0;
+        for (int index = 0; index < frame.getWidth() * frame.getHeight(); index++) {
+            if (frame.hasPellet(index)) {
+                pellets++;
+            }
+        }
+        for (int player = 0; player < frame.getPlayerCount(); player++) {
+            pellets += frame.getScore(player) / value;
+        }
+        return pellets;
+    }
+}
@@ -0,0 +1,218 @@
+package nl.tudelft.jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Lists;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.points.DefaultPointCalculator;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that observers learn a level ended only once, on real levels with
+ * players moving on threads of their own.
+ */
+@SuppressWarnings("magicnumber")
+class LevelEndTest {
+
+    /**
+     * A row of players, each west of a pellet.
+     */
+    private static final List<String> MAP = Lists.newArrayList(
+        "##########",
+        "#P.P.P.P.#",
+        "##########");
+
+    /**
+     * The amount of players on the map.
+     */
+    private static final int PLAYERS = 4;
+
+    /**
+     * Sprites shared by all levels.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    /**
+     * Map parser used to construct levels.
+     */
+    private MapParser parser;
+
+    /**
+     * The amount of times a level was reported won.
+     */
+    private final AtomicInteger won = new AtomicInteger();
+
+    /**
+     * The amount of times a level was reported lost.
+     */
+    private final AtomicInteger lost = new AtomicInteger();
+
+    /**
+     * Sets up a parser making levels with striped locking.
+     */
+    @BeforeEach
+    void setUp() {
+        LevelFactory levelFactory = new LevelFactory(sprites, new GhostFactory(sprites),
+            new DefaultPointCalculator());
+        levelFactory.setStripedLocking(true);
+        parser = new MapParser(levelFactory, new BoardFactory(sprites));
+    }
+
+    /**
+     * Verifies that when all players eat the last pellets at the same time,
+     * the level is reported won exactly once, even though it is never
+     * stopped.
+     *
+     * @throws InterruptedException
+     *             When the test is interrupted.
+     */
+    @Test
+    void wonOnceWhenMovesEndTogether() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            won.set(0);
+            Level level = parser.parseMap(MAP);
+            List<Player> players = register(level);
+            level.start();
+            moveAtOnce(level, players, Direction.EAST);
+            moveAtOnce(level, players, Direction.WEST);
+
+            assertThat(level.remainingPellets()).isZero();
+            assertThat(won).hasValue(1);
+            level.stop();
+        }
+        assertThat(lost).hasValue(0);
+    }
+
+    /**
+     * Verifies a level is reported won again after it is restarted.
+     */
+    @Test
+    void wonAgainAfterRestart() {
+        Level level = parser.parseMap(MAP);
+        List<Player> players = register(level);
+        level.start();
+        for (Player player : players) {
+            level.move(player, Direction.EAST);
+        }
+        level.stop();
+        level.start();
+        level.stop();
+
+        assertThat(won).hasValue(2);
+    }
+
+    /**
+     * Verifies that observers are told the level ended after the lock of the
+     * moves is released, so another thread can stop the level, which
+     * publishes a frame under that lock, while they wait for it. The game
+     * does so when it is paused while its level ends.
+     *
+     * @throws InterruptedException
+     *             When the test is interrupted.
+     */
+    @Test
+    void observersMayWaitForStop() throws InterruptedException {
+        Level level = parser.parseMap(MAP);
+        level.setStripedLocking(false);
+        List<Player> players = register(level);
+        AtomicBoolean stopped = new AtomicBoolean();
+        level.addObserver(new Level.LevelObserver() {
+            @Override
+            public void levelWon() {
+                Thread stopper = new Thread(level::stop);
+                stopper.start();
+                try {
+                    stopper.join(TimeUnit.SECONDS.toMillis(5L));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                stopped.set(!stopper.isAlive());
+            }
+
+            @Override
+            public void levelLost() {
+            }
+        });
+        level.getFrames();
+        level.start();
+        for (Player player : players) {
+            level.move(player, Direction.EAST);
+        }
+
+        assertThat(stopped).isTrue();
+        assertThat(level.isInProgress()).isFalse();
+    }
+
+    /**
+     * Registers players on all start squares of a level and observes it.
+     *
+     * @param level
+     *            The level.
+     * @return The players.
+     */
+    private List<Player> register(Level level) {
+        level.addObserver(new Level.LevelObserver() {
+            @Override
+            public void levelWon() {
+                won.incrementAndGet();
+            }
+
+            @Override
+            public void levelLost() {
+                lost.incrementAndGet();
+            }
+        });
+        PlayerFactory playerFactory = new PlayerFactory(sprites);
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            Player player = playerFactory.createPacMan();
+            level.registerPlayer(player);
+            players.add(player);
+        }
+        return players;
+    }
+
+    /**
+     * Moves every player on a thread of its own, all starting at once.
+     *
+     * @param level
+     *            The level to move on.
+     * @param players
+     *            The players to move.
+     * @param direction
+     *            The direction to move them in.
+     * @throws InterruptedException
+     *             When the test is interrupted.
+     */
+    private static void moveAtOnce(Level level, List<Player> players, Direction direction)
+        throws InterruptedException {
+        CyclicBarrier barrier = new CyclicBarrier(players.size());
+        List<Thread> threads = new ArrayList<>();
+        for (Player player : players) {
+            Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+                level.move(player, direction);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
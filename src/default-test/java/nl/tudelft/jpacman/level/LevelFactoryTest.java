@@ -0,0 +1,135 @@
+package nl.tudelft.jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.npc.Ghost;
+import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.npc.ghost.HierarchicalPathfinder;
+import nl.tudelft.jpacman.points.DefaultPointCalculator;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the path lookups the {@link LevelFactory} builds for new levels.
+ */
+@SuppressWarnings("magicnumber")
+class LevelFactoryTest {
+
+    /**
+     * The width of the board.
+     */
+    private static final int WIDTH = 40;
+
+    /**
+     * The height of the board.
+     */
+    private static final int HEIGHT = 39;
+
+    /**
+     * Sprites shared by all levels.
+     */
+    private final PacManSprites sprites = new PacManSprites();
+
+    /**
+     * The factory under test.
+     */
+    private LevelFactory levelFactory;
+
+    /**
+     * Sets up a factory whose tables are too small for the board.
+     */
+    @BeforeEach
+    void setUp() {
+        levelFactory = new LevelFactory(sprites, new GhostFactory(sprites),
+            new DefaultPointCalculator());
+        levelFactory.setNextHopTableBudget(1L);
+    }
+
+    /**
+     * Verifies levels get no pathfinder unless a cluster size is set.
+     */
+    @Test
+    void noPathfinderByDefault() {
+        Level level = parse();
+        assertThat(level.getNextHopTable()).isNull();
+        assertThat(level.getHierarchicalPathfinder()).isNull();
+    }
+
+    /**
+     * Verifies that once a cluster size is set, a ghost on a board too large
+     * for a table follows the hierarchical pathfinder of its level all the
+     * way to the player.
+     */
+    @Test
+    void ghostsRouteThroughPathfinder() {
+        levelFactory.setHierarchicalClusterSize(8);
+        Level level = parse();
+        HierarchicalPathfinder pathfinder = level.getHierarchicalPathfinder();
+        assertThat(level.getNextHopTable()).isNull();
+        assertThat(pathfinder).isNotNull();
+        assertThat(pathfinder.getClusterSize()).isEqualTo(8);
+
+        Player player = new PlayerFactory(sprites).createPacMan();
+        level.registerPlayer(player);
+        Board board = level.getBoard();
+        Ghost ghost = (Ghost) board.squareAt(1, 1).getOccupants().get(0);
+        Square target = player.getSquare();
+        int steps = 0;
+        while (ghost.getSquare() != target) {
+            Direction step = ghost.nextAiMove().orElse(null);
+            assertThat(step).isEqualTo(pathfinder.firstStep(ghost.getSquare(), target));
+            ghost.occupy(ghost.getSquare().getSquareAt(step));
+            steps++;
+        }
+        assertThat(steps).isEqualTo(pathfinder.distance(board.squareAt(1, 1), target));
+    }
+
+    /**
+     * @return A level for a board of corridors that wind from the ghost in
+     *         the top left corner to the start square in the bottom left one.
+     */
+    private Level parse() {
+        List<String> map = new ArrayList<>();
+        for (int y = 0; y < HEIGHT; y++) {
+            StringBuilder row = new StringBuilder();
+            for (int x = 0; x < WIDTH; x++) {
+                row.append(cellAt(x, y));
+            }
+            map.add(row.toString());
+        }
+        return new MapParser(levelFactory, new BoardFactory(sprites)).parseMap(map);
+    }
+
+    /**
+     * @param x
+     *            The column of the cell.
+     * @param y
+     *            The row of the cell.
+     * @return The map character of the cell.
+     */
+    private static char cellAt(int x, int y) {
+        boolean edge = x == 0 || x == WIDTH - 1 || y == 0 || y == HEIGHT - 1;
+        int gap = 1;
+        if (y % 4 == 2) {
+            gap = WIDTH - 2;
+        }
+        if (edge || (y % 2 == 0 && x != gap)) {
+            return '#';
+        }
+        if (x == 1 && y == 1) {
+            return 'G';
+        }
+        if (x == 1 && y == HEIGHT - 2) {
+            return 'P';
+        }
+        return ' ';
+    }
+}
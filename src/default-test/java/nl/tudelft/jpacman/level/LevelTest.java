@@ -1,13 +1,16 @@
 package nl.tudelft.jpacman.level;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Direction;
 import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.Unit;
 import nl.tudelft.jpacman.npc.Ghost;
 
 import com.google.common.collect.Lists;
@@ -154,4 +157,59 @@ class LevelTest {
         level.registerPlayer(p3);
         verify(p3).occupy(square1);
     }
+
+    /**
+     * Verifies the pellets on the board are counted when the level is created.
+     */
+    @Test
+    void countsPelletsOnCreation() {
+        Level pelletLevel = levelWithOccupants(mock(Pellet.class), mock(Pellet.class));
+        assertThat(pelletLevel.remainingPellets()).isEqualTo(2);
+    }
+
+    /**
+     * Verifies that verifying the pellet count detects pellets that
+     * disappeared without the level noticing.
+     */
+    @Test
+    void verifyDetectsStaleCount() {
+        Level pelletLevel = levelWithOccupants(mock(Pellet.class));
+        when(square1.getOccupants()).thenReturn(Lists.<Unit>newArrayList());
+
+        pelletLevel.setVerifyPelletCount(true);
+        assertThatThrownBy(pelletLevel::remainingPellets)
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Verifies that with striped locking a move still occupies the
+     * destination and handles the collisions there.
+     */
+    @Test
+    void stripedMoveCollides() {
+        Unit mover = mock(Unit.class);
+        Unit occupant = mock(Unit.class);
+        when(mover.hasSquare()).thenReturn(true);
+        when(mover.getSquare()).thenReturn(square1);
+        when(square1.getSquareAt(Direction.EAST)).thenReturn(square2);
+        when(square2.isAccessibleTo(mover)).thenReturn(true);
+        when(square2.getOccupants()).thenReturn(Lists.newArrayList(occupant));
+
+        level.setStripedLocking(true);
+        level.start();
+        level.move(mover, Direction.EAST);
+
+        assertThat(level.isStripedLocking()).isTrue();
+        verify(mover).occupy(square2);
+        verify(collisions).collide(mover, occupant);
+    }
+
+    private Level levelWithOccupants(Unit... occupants) {
+        when(board.getWidth()).thenReturn(1);
+        when(board.getHeight()).thenReturn(1);
+        when(board.squareAt(0, 0)).thenReturn(square1);
+        when(square1.getOccupants()).thenReturn(Lists.newArrayList(occupants));
+        return new Level(board, Lists.newArrayList(ghost), Lists.newArrayList(
+            square1, square2), collisions);
+    }
 }
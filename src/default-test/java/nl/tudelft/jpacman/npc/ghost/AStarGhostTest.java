@@ -0,0 +1,113 @@
+package nl.tudelft.jpacman.npc.ghost;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.Lists;
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.level.Level;
+import nl.tudelft.jpacman.level.LevelFactory;
+import nl.tudelft.jpacman.level.MapParser;
+import nl.tudelft.jpacman.level.Player;
+import nl.tudelft.jpacman.level.PlayerFactory;
+import nl.tudelft.jpacman.npc.Ghost;
+import nl.tudelft.jpacman.points.DefaultPointCalculator;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the ghosts of levels made by a {@link LevelFactory} asked to
+ * give them A* searches chase the player with those searches.
+ */
+@SuppressWarnings("magicnumber")
+class AStarGhostTest {
+
+    /**
+     * Blinky, Inky and Pinky in a row, then Clyde, far from the player.
+     */
+    private static final String[] MAP = {
+        "####################",
+        "#GGG G          P  #",
+        "####################"};
+
+    /**
+     * The board of the level.
+     */
+    private Board board;
+
+    /**
+     * Creates a level whose ghosts have A* searches, and takes away the path
+     * to the player from their shared distances, so that only the searches
+     * can lead them there.
+     */
+    @BeforeEach
+    void setUp() {
+        PacManSprites sprites = new PacManSprites();
+        LevelFactory levelFactory = new LevelFactory(sprites, new GhostFactory(sprites),
+            new DefaultPointCalculator());
+        levelFactory.setAStarSearch(true);
+        Level level = new MapParser(levelFactory, new BoardFactory(sprites))
+            .parseMap(Lists.newArrayList(MAP));
+        Player player = new PlayerFactory(sprites).createPacMan();
+        level.registerPlayer(player);
+        board = level.getBoard();
+
+        DistanceField blind = new BlindField();
+        blind.register(player);
+        ghostAt(1).setDistanceField(blind);
+        ghostAt(5).setDistanceField(blind);
+    }
+
+    /**
+     * Verifies Blinky heads for the player.
+     */
+    @Test
+    void blinkyChases() {
+        Ghost blinky = ghostAt(1);
+        assertThat(blinky).isInstanceOf(Blinky.class);
+        assertThat(blinky.nextAiMove()).contains(Direction.EAST);
+    }
+
+    /**
+     * Verifies Clyde heads for the player while he is far away.
+     */
+    @Test
+    void clydeApproaches() {
+        Ghost clyde = ghostAt(5);
+        assertThat(clyde).isInstanceOf(Clyde.class);
+        assertThat(clyde.nextAiMove()).contains(Direction.EAST);
+    }
+
+    /**
+     * @param x
+     *            The column of the ghost on the second row.
+     * @return The ghost at that column.
+     */
+    private Ghost ghostAt(int x) {
+        return (Ghost) board.squareAt(x, 1).getOccupants().get(0);
+    }
+
+    /**
+     * Distances that know the players, but no path to any of them.
+     */
+    private static final class BlindField extends DistanceField {
+
+        @Override
+        public Player nearestPlayer(Unit traveller) {
+            return null;
+        }
+
+        @Override
+        public int distance(Player target, Unit traveller) {
+            return UNREACHABLE;
+        }
+
+        @Override
+        public Direction nextStep(Player target, Unit traveller) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package nl.tudelft.jpacman.npc.ghost;
+
+import com.google.common.collect.Lists;
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.level.LevelFactory;
+import nl.tudelft.jpacman.level.MapParser;
+import nl.tudelft.jpacman.points.PointCalculator;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests the {@link AStarSearch}.
+ */
+@SuppressWarnings("magicnumber")
+class AStarSearchTest {
+
+    /**
+     * Map parser used to construct boards.
+     */
+    private MapParser parser;
+
+    /**
+     * The unit travelling.
+     */
+    private final Unit traveller = mock(Unit.class);
+
+    /**
+     * Set up the map parser.
+     */
+    @BeforeEach
+    void setUp() {
+        PacManSprites sprites = new PacManSprites();
+        LevelFactory levelFactory = new LevelFactory(
+            sprites,
+            new GhostFactory(sprites),
+            mock(PointCalculator.class));
+        parser = new MapParser(levelFactory, new BoardFactory(sprites));
+    }
+
+    /**
+     * Verifies the path around a corner.
+     */
+    @Test
+    void testPathAroundCorner() {
+        Board b = parser.parseMap(Lists.newArrayList("####", "#  #", "## #", "####"))
+            .getBoard();
+        AStarSearch search = new AStarSearch(b);
+        assertThat(search.search(b.squareAt(1, 1), b.squareAt(2, 2), traveller))
+            .isEqualTo(2);
+        assertThat(search.path()).containsExactly(Direction.EAST, Direction.SOUTH);
+        assertThat(search.firstStep()).isEqualTo(Direction.EAST);
+    }
+
+    /**
+     * Verifies the search takes the way around the edge of the board when
+     * that is shorter.
+     */
+    @Test
+    void testWrapsAround() {
+        Board b = parser.parseMap(Lists.newArrayList("        ")).getBoard();
+        AStarSearch search = new AStarSearch(b);
+        assertThat(search.estimate(b.squareAt(0, 0), b.squareAt(7, 0))).isEqualTo(1);
+        assertThat(search.search(b.squareAt(0, 0), b.squareAt(7, 0), traveller))
+            .isEqualTo(1);
+        assertThat(search.firstStep()).isEqualTo(Direction.WEST);
+    }
+
+    /**
+     * Verifies there is no path between separated squares.
+     */
+    @Test
+    void testNoPath() {
+        Board b = parser.parseMap(Lists.newArrayList("#####", "# # #", "#####"))
+            .getBoard();
+        AStarSearch search = new AStarSearch(b);
+        assertThat(search.search(b.squareAt(1, 1), b.squareAt(3, 1), traveller))
+            .isEqualTo(AStarSearch.NO_PATH);
+        assertThat(search.path()).isNull();
+        assertThat(search.firstStep()).isNull();
+    }
+
+    /**
+     * Verifies that on an open board only the squares on the way are
+     * expanded.
+     */
+    @Test
+    void testExpandsFewSquaresOnOpenBoard() {
+        String row = String.join("", Collections.nCopies(30, " "));
+        Board b = parser.parseMap(Collections.nCopies(30, row)).getBoard();
+        AStarSearch search = new AStarSearch(b);
+        assertThat(search.search(b.squareAt(0, 0), b.squareAt(10, 10), traveller))
+            .isEqualTo(20);
+        assertThat(search.getExpandedCount()).isLessThan(100);
+    }
+}
@@ -0,0 +1,84 @@
+package nl.tudelft.jpacman.npc.ghost;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.Lists;
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.level.LevelFactory;
+import nl.tudelft.jpacman.level.MapParser;
+import nl.tudelft.jpacman.level.Player;
+import nl.tudelft.jpacman.level.PlayerFactory;
+import nl.tudelft.jpacman.npc.Ghost;
+import nl.tudelft.jpacman.points.DefaultPointCalculator;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests Clyde does not fail when the player cannot be reached.
+ */
+@SuppressWarnings("magicnumber")
+class ClydeUnreachableTest {
+
+    /**
+     * Verifies Clyde stands still rather than failing when the player can no
+     * longer be reached after its distance was taken, as happens when the
+     * player moves on another thread.
+     */
+    @Test
+    void playerUnreachableAfterDistance() {
+        PacManSprites sprites = new PacManSprites();
+        GhostFactory ghosts = new GhostFactory(sprites);
+        MapParser parser = new MapParser(
+            new LevelFactory(sprites, ghosts, new DefaultPointCalculator()),
+            new BoardFactory(sprites));
+        Board board = parser.parseMap(Lists.newArrayList("#######", "#     #", "#######"))
+            .getBoard();
+        Player player = new PlayerFactory(sprites).createPacMan();
+        player.occupy(board.squareAt(1, 1));
+        Ghost clyde = ghosts.createClyde();
+        clyde.occupy(board.squareAt(5, 1));
+        clyde.setDistanceField(new VanishingPlayerField(player));
+
+        assertThat(clyde.nextAiMove()).isEmpty();
+    }
+
+    /**
+     * A field in which the player is far away, but has no path leading to
+     * it.
+     */
+    private static final class VanishingPlayerField extends DistanceField {
+
+        /**
+         * The only player.
+         */
+        private final Player player;
+
+        /**
+         * Creates a new field.
+         *
+         * @param player
+         *            The only player.
+         */
+        VanishingPlayerField(Player player) {
+            this.player = player;
+        }
+
+        @Override
+        public Player nearestPlayer(Unit traveller) {
+            return player;
+        }
+
+        @Override
+        public int distance(Player target, Unit traveller) {
+            return 20;
+        }
+
+        @Override
+        public Direction nextStep(Player target, Unit traveller) {
+            return null;
+        }
+    }
+}
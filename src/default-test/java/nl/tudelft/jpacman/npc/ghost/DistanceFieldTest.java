@@ -0,0 +1,117 @@
+package nl.tudelft.jpacman.npc.ghost;
+
+import com.google.common.collect.Lists;
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.level.LevelFactory;
+import nl.tudelft.jpacman.level.MapParser;
+import nl.tudelft.jpacman.level.Player;
+import nl.tudelft.jpacman.level.PlayerFactory;
+import nl.tudelft.jpacman.npc.Ghost;
+import nl.tudelft.jpacman.points.PointCalculator;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests the distances kept by the {@link DistanceField}.
+ */
+@SuppressWarnings("magicnumber")
+class DistanceFieldTest {
+
+    /**
+     * The field under test.
+     */
+    private final DistanceField field = new DistanceField();
+
+    /**
+     * Map parser used to construct boards.
+     */
+    private MapParser parser;
+
+    /**
+     * The player the ghost is chasing.
+     */
+    private Player player;
+
+    /**
+     * The ghost chasing the player.
+     */
+    private Ghost ghost;
+
+    /**
+     * Set up the map parser, a player and a ghost.
+     */
+    @BeforeEach
+    void setUp() {
+        PacManSprites sprites = new PacManSprites();
+        LevelFactory levelFactory = new LevelFactory(
+            sprites,
+            new GhostFactory(sprites),
+            mock(PointCalculator.class));
+        parser = new MapParser(levelFactory, new BoardFactory(sprites));
+        player = new PlayerFactory(sprites).createPacMan();
+        ghost = new GhostFactory(sprites).createBlinky();
+        field.register(player);
+    }
+
+    /**
+     * Verifies the step and distance to a player around a corner.
+     */
+    @Test
+    void testStepAroundCorner() {
+        Board b = parser.parseMap(Lists.newArrayList("####", "#  #", "## #", "####"))
+            .getBoard();
+        ghost.occupy(b.squareAt(1, 1));
+        player.occupy(b.squareAt(2, 2));
+        assertThat(field.nextStep(player, ghost)).isEqualTo(Direction.EAST);
+        assertThat(field.distance(player, ghost)).isEqualTo(2);
+    }
+
+    /**
+     * Verifies the distances follow the player when it moves.
+     */
+    @Test
+    void testFollowsPlayer() {
+        Board b = parser.parseMap(Lists.newArrayList("####", "#  #", "## #", "####"))
+            .getBoard();
+        ghost.occupy(b.squareAt(2, 2));
+        player.occupy(b.squareAt(2, 1));
+        assertThat(field.nextStep(player, ghost)).isEqualTo(Direction.NORTH);
+        player.occupy(b.squareAt(1, 1));
+        assertThat(field.distance(player, ghost)).isEqualTo(2);
+    }
+
+    /**
+     * Verifies there is no step to a player that cannot be reached.
+     */
+    @Test
+    void testUnreachablePlayer() {
+        Board b = parser.parseMap(Lists.newArrayList("#####", "# # #", "#####"))
+            .getBoard();
+        ghost.occupy(b.squareAt(1, 1));
+        player.occupy(b.squareAt(3, 1));
+        assertThat(field.nextStep(player, ghost)).isNull();
+        assertThat(field.distance(player, ghost)).isEqualTo(DistanceField.UNREACHABLE);
+        assertThat(field.nearestPlayer(ghost)).isNull();
+    }
+
+    /**
+     * Verifies the nearest of two players is the closest one to walk to.
+     */
+    @Test
+    void testNearestPlayer() {
+        Board b = parser.parseMap(Lists.newArrayList("#######", "#     #", "#######"))
+            .getBoard();
+        Player other = new PlayerFactory(new PacManSprites()).createPacMan();
+        field.register(other);
+        ghost.occupy(b.squareAt(4, 1));
+        player.occupy(b.squareAt(1, 1));
+        other.occupy(b.squareAt(5, 1));
+        assertThat(field.nearestPlayer(ghost)).isEqualTo(other);
+    }
+}
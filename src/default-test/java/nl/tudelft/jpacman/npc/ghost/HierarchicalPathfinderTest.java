@@ -0,0 +1,111 @@
+package nl.tudelft.jpacman.npc.ghost;
+
+import com.google.common.collect.Lists;
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.level.LevelFactory;
+import nl.tudelft.jpacman.level.MapParser;
+import nl.tudelft.jpacman.points.PointCalculator;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests the {@link HierarchicalPathfinder}.
+ */
+@SuppressWarnings("magicnumber")
+class HierarchicalPathfinderTest {
+
+    /**
+     * Map parser used to construct boards.
+     */
+    private MapParser parser;
+
+    /**
+     * The unit the pathfinders are built for.
+     */
+    private final Unit traveller = mock(Unit.class);
+
+    /**
+     * Set up the map parser.
+     */
+    @BeforeEach
+    void setUp() {
+        PacManSprites sprites = new PacManSprites();
+        LevelFactory levelFactory = new LevelFactory(
+            sprites,
+            new GhostFactory(sprites),
+            mock(PointCalculator.class));
+        parser = new MapParser(levelFactory, new BoardFactory(sprites));
+    }
+
+    /**
+     * Verifies a path through several clusters follows the only corridor.
+     */
+    @Test
+    void testPathAcrossClusters() {
+        Board b = parser.parseMap(Lists.newArrayList(
+            "########",
+            "#      #",
+            "###### #",
+            "#      #",
+            "########")).getBoard();
+        HierarchicalPathfinder pathfinder = HierarchicalPathfinder.build(b, traveller, 2);
+        assertThat(pathfinder.getNodeCount()).isPositive();
+        assertThat(pathfinder.distance(b.squareAt(1, 1), b.squareAt(1, 3))).isEqualTo(12);
+        assertThat(pathfinder.firstStep(b.squareAt(1, 1), b.squareAt(1, 3)))
+            .isEqualTo(Direction.EAST);
+    }
+
+    /**
+     * Verifies the path leads to the destination, is as long as the distance
+     * and starts with the first step.
+     */
+    @Test
+    void testPathMatchesDistance() {
+        Board b = parser.parseMap(Lists.newArrayList(
+            "         ",
+            " ### ### ",
+            "   #   # ",
+            " # # #   ",
+            "         ")).getBoard();
+        HierarchicalPathfinder pathfinder = HierarchicalPathfinder.build(b, traveller, 3);
+        List<Direction> path = pathfinder.path(b.squareAt(2, 2), b.squareAt(6, 2));
+        assertThat(path).hasSize(pathfinder.distance(b.squareAt(2, 2), b.squareAt(6, 2)));
+        assertThat(path.get(0))
+            .isEqualTo(pathfinder.firstStep(b.squareAt(2, 2), b.squareAt(6, 2)));
+    }
+
+    /**
+     * Verifies the path to the same square is empty.
+     */
+    @Test
+    void testEmptyPath() {
+        Board b = parser.parseMap(Lists.newArrayList("   ")).getBoard();
+        HierarchicalPathfinder pathfinder = HierarchicalPathfinder.build(b, traveller);
+        assertThat(pathfinder.distance(b.squareAt(1, 0), b.squareAt(1, 0))).isEqualTo(0);
+        assertThat(pathfinder.firstStep(b.squareAt(1, 0), b.squareAt(1, 0))).isNull();
+        assertThat(pathfinder.path(b.squareAt(1, 0), b.squareAt(1, 0))).isEmpty();
+    }
+
+    /**
+     * Verifies there is no path between separated squares.
+     */
+    @Test
+    void testNoPath() {
+        Board b = parser.parseMap(Lists.newArrayList("#####", "# # #", "#####"))
+            .getBoard();
+        HierarchicalPathfinder pathfinder = HierarchicalPathfinder.build(b, traveller, 2);
+        assertThat(pathfinder.distance(b.squareAt(1, 1), b.squareAt(3, 1)))
+            .isEqualTo(HierarchicalPathfinder.NO_PATH);
+        assertThat(pathfinder.path(b.squareAt(1, 1), b.squareAt(3, 1))).isNull();
+        assertThat(pathfinder.firstStep(b.squareAt(1, 1), b.squareAt(3, 1))).isNull();
+    }
+}
@@ -12,6 +12,7 @@ import nl.tudelft.jpacman.level.Pellet;
 import nl.tudelft.jpacman.npc.Ghost;
 import nl.tudelft.jpacman.points.PointCalculator;
 import nl.tudelft.jpacman.sprite.PacManSprites;
+import nl.tudelft.jpacman.sprite.Sprite;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -104,6 +105,21 @@ class NavigationTest {
         assertThat(path).containsExactly(Direction.EAST);
     }
 
+    /**
+     * Verifies that the path can be found on the layout of the board alone.
+     */
+    @Test
+    void testCornerPathOnTopology() {
+        Board b = parser.parseMap(
+            Lists.newArrayList("####", "#  #", "## #", "####")).getBoard();
+        int s1 = b.squareAt(1, 1).getIndex();
+        int s2 = b.squareAt(2, 2).getIndex();
+        List<Direction> path = Navigation.shortestPath(b.getTopology(), s1, s2);
+        assertThat(path).containsExactly(Direction.EAST, Direction.SOUTH);
+        assertThat(Navigation.distance(b.getTopology(), s2, b.squareAt(0, 0).getIndex()))
+            .isEqualTo(BreadthFirstSearch.NO_PATH);
+    }
+
     /**
      * Verifies that the algorithm can find a path when it has to take corners.
      */
@@ -118,6 +134,32 @@ class NavigationTest {
         assertThat(path).containsExactly(Direction.EAST, Direction.SOUTH);
     }
 
+    /**
+     * Verifies that the first step follows the shortest path around corners.
+     */
+    @Test
+    void testFirstStepCornerPath() {
+        Board b = parser.parseMap(
+            Lists.newArrayList("####", "#  #", "## #", "####")).getBoard();
+        Square s1 = b.squareAt(1, 1);
+        Square s2 = b.squareAt(2, 2);
+        assertThat(Navigation.firstStep(s1, s2, mock(Unit.class)))
+            .isEqualTo(Direction.EAST);
+    }
+
+    /**
+     * Verifies that there is no first step if no path exists.
+     */
+    @Test
+    void testNoFirstStep() {
+        Board b = parser
+            .parseMap(Lists.newArrayList("#####", "# # #", "#####"))
+            .getBoard();
+        Square s1 = b.squareAt(1, 1);
+        Square s2 = b.squareAt(3, 1);
+        assertThat(Navigation.firstStep(s1, s2, mock(Unit.class))).isNull();
+    }
+
     /**
      * Verifies that the nearest object is detected.
      */
@@ -158,4 +200,41 @@ class NavigationTest {
             assertThat(unit).isNotNull();
         }
     }
+
+    /**
+     * Verifies that squares linked by hand, which are not on a board and so
+     * have no index, are still searched by following their links.
+     */
+    @Test
+    void testLinkedSquares() {
+        Square[] row = {new LinkedSquare(), new LinkedSquare(), new LinkedSquare()};
+        for (int i = 0; i < row.length; i++) {
+            row[i].link(row[i], Direction.NORTH);
+            row[i].link(row[i], Direction.SOUTH);
+            row[i].link(row[(i + 1) % row.length], Direction.EAST);
+            row[i].link(row[(i + row.length - 1) % row.length], Direction.WEST);
+        }
+        Unit traveller = mock(Unit.class);
+        assertThat(Navigation.shortestPath(row[0], row[2], traveller))
+            .containsExactly(Direction.WEST);
+        assertThat(Navigation.firstStep(row[0], row[1], traveller)).isEqualTo(Direction.EAST);
+        assertThat(Navigation.distance(row[0], row[2], traveller)).isEqualTo(1);
+        assertThat(Navigation.findNearest(Pellet.class, row[0])).isNull();
+    }
+
+    /**
+     * A square that is accessible to anyone and is not placed on a board.
+     */
+    private static final class LinkedSquare extends Square {
+
+        @Override
+        public boolean isAccessibleTo(Unit unit) {
+            return true;
+        }
+
+        @Override
+        public Sprite getSprite() {
+            return mock(Sprite.class);
+        }
+    }
 }
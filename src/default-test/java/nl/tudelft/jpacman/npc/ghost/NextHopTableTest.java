@@ -0,0 +1,131 @@
+package nl.tudelft.jpacman.npc.ghost;
+
+import com.google.common.collect.Lists;
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.level.Level;
+import nl.tudelft.jpacman.level.LevelFactory;
+import nl.tudelft.jpacman.level.MapParser;
+import nl.tudelft.jpacman.points.PointCalculator;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests the lookups of the {@link NextHopTable}.
+ */
+@SuppressWarnings("magicnumber")
+class NextHopTableTest {
+
+    /**
+     * Map parser used to construct boards.
+     */
+    private MapParser parser;
+
+    /**
+     * The unit the tables are built for.
+     */
+    private final Unit traveller = mock(Unit.class);
+
+    /**
+     * Set up the map parser.
+     */
+    @BeforeEach
+    void setUp() {
+        PacManSprites sprites = new PacManSprites();
+        LevelFactory levelFactory = new LevelFactory(
+            sprites,
+            new GhostFactory(sprites),
+            mock(PointCalculator.class));
+        parser = new MapParser(levelFactory, new BoardFactory(sprites));
+    }
+
+    /**
+     * Verifies the distance, first step and path around a corner.
+     */
+    @Test
+    void testPathAroundCorner() {
+        Board b = parser.parseMap(Lists.newArrayList("####", "#  #", "## #", "####"))
+            .getBoard();
+        NextHopTable table = NextHopTable.build(b, traveller);
+        assertThat(table.getSquareCount()).isEqualTo(3);
+        assertThat(table.distance(b.squareAt(1, 1), b.squareAt(2, 2))).isEqualTo(2);
+        assertThat(table.nextHop(b.squareAt(1, 1), b.squareAt(2, 2)))
+            .isEqualTo(Direction.EAST);
+        assertThat(table.path(b.squareAt(1, 1), b.squareAt(2, 2)))
+            .containsExactly(Direction.EAST, Direction.SOUTH);
+    }
+
+    /**
+     * Verifies the path to the same square is empty.
+     */
+    @Test
+    void testEmptyPath() {
+        Board b = parser.parseMap(Lists.newArrayList(" ")).getBoard();
+        NextHopTable table = NextHopTable.build(b, traveller);
+        assertThat(table.distance(b.squareAt(0, 0), b.squareAt(0, 0))).isEqualTo(0);
+        assertThat(table.nextHop(b.squareAt(0, 0), b.squareAt(0, 0))).isNull();
+        assertThat(table.path(b.squareAt(0, 0), b.squareAt(0, 0))).isEmpty();
+    }
+
+    /**
+     * Verifies there is no path between separated squares or into a wall.
+     */
+    @Test
+    void testNoPath() {
+        Board b = parser.parseMap(Lists.newArrayList("#####", "# # #", "#####"))
+            .getBoard();
+        NextHopTable table = NextHopTable.build(b, traveller);
+        assertThat(table.covers(b.squareAt(0, 0))).isFalse();
+        assertThat(table.distance(b.squareAt(1, 1), b.squareAt(3, 1)))
+            .isEqualTo(NextHopTable.NO_PATH);
+        assertThat(table.path(b.squareAt(1, 1), b.squareAt(2, 1))).isNull();
+    }
+
+    /**
+     * Verifies the estimated memory grows with the square of the board size.
+     */
+    @Test
+    void testEstimateIsQuadratic() {
+        long small = NextHopTable.estimateBytes(1000);
+        long large = NextHopTable.estimateBytes(2000);
+        assertThat(large).isGreaterThan(3 * small);
+    }
+
+    /**
+     * Verifies a table built for one board answers for another board with the
+     * same walls.
+     */
+    @Test
+    void testSharedBetweenEqualBoards() {
+        Board built = parser.parseMap(Lists.newArrayList("####", "#  #", "## #", "####"))
+            .getBoard();
+        Board other = parser.parseMap(Lists.newArrayList("####", "#  #", "## #", "####"))
+            .getBoard();
+        NextHopTable table = NextHopTable.build(built, traveller);
+        assertThat(table.fits(other)).isTrue();
+        assertThat(table.covers(other.squareAt(1, 1))).isTrue();
+        assertThat(table.nextHop(other.squareAt(1, 1), other.squareAt(2, 2)))
+            .isEqualTo(Direction.EAST);
+    }
+
+    /**
+     * Verifies a level refuses a table built for a board with other walls.
+     */
+    @Test
+    void testLevelRejectsOtherBoard() {
+        Board built = parser.parseMap(Lists.newArrayList("####", "#  #", "## #", "####"))
+            .getBoard();
+        Level other = parser.parseMap(Lists.newArrayList("####", "#  #", "#  #", "####"));
+        NextHopTable table = NextHopTable.build(built, traveller);
+        assertThat(table.fits(other.getBoard())).isFalse();
+        assertThatThrownBy(() -> other.setNextHopTable(table))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -3,10 +3,16 @@ package nl.tudelft.jpacman.sprite;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.awt.Color;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Verifies the loading of sprites.
@@ -63,6 +69,90 @@ public class SpriteTest {
             .isInstanceOf(IOException.class);
     }
 
+    /**
+     * Verifies that a preloaded sprite is the one loaded afterwards, and that
+     * its load was timed.
+     *
+     * @throws java.io.IOException
+     *      when the sprite could not be loaded.
+     */
+    @Test
+    public void preload() throws IOException {
+        SpriteStore fresh = new SpriteStore();
+        fresh.preload(Collections.singletonList("/sprite/64x64white.png"),
+            ForkJoinPool.commonPool()).join();
+
+        assertThat(fresh.getLoadNanos()).containsKey("/sprite/64x64white.png");
+        assertThat(fresh.loadSprite("/sprite/64x64white.png"))
+            .isSameAs(fresh.loadSprite("/sprite/64x64white.png"));
+    }
+
+    /**
+     * Verifies that a sprite written to a cache file is read back from it,
+     * without decoding its image again.
+     *
+     * @param directory
+     *      a directory for the cache file.
+     * @throws java.io.IOException
+     *      when the sprite or cache could not be loaded.
+     */
+    @Test
+    public void cacheRoundTrip(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("sprites.bin");
+        SpriteCache written = SpriteCache.open(file);
+        SpriteStore writer = new SpriteStore();
+        writer.setCache(written);
+        writer.loadSprite("/sprite/64x64white.png");
+        written.save();
+
+        SpriteCache read = SpriteCache.open(file);
+        SpriteStore reader = new SpriteStore();
+        reader.setCache(read);
+        Sprite cached = reader.loadSprite("/sprite/64x64white.png");
+        BufferedImage canvas = new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB);
+        cached.draw(canvas.getGraphics(), 0, 0, 64, 64);
+
+        assertThat(read.isDirty()).isFalse();
+        assertThat(canvas.getRGB(63, 63)).isEqualTo(Color.WHITE.getRGB());
+    }
+
+    /**
+     * Verifies a cache read from a file can be saved over that same file,
+     * keeping the sprites it read as well as those added.
+     *
+     * @param directory
+     *      a directory for the cache file.
+     * @throws java.io.IOException
+     *      when the sprites or cache could not be loaded.
+     */
+    @Test
+    public void cacheSavedOverItself(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("sprites.bin");
+        SpriteCache first = SpriteCache.open(file);
+        SpriteStore writer = new SpriteStore();
+        writer.setCache(first);
+        writer.loadSprite("/sprite/64x64white.png");
+        first.save();
+
+        SpriteCache second = SpriteCache.open(file);
+        SpriteStore reader = new SpriteStore();
+        reader.setCache(second);
+        reader.loadSprite("/sprite/64x64white.png");
+        reader.loadSprite("/sprite/pellet.png");
+        second.save();
+
+        SpriteCache third = SpriteCache.open(file);
+        SpriteStore checker = new SpriteStore();
+        checker.setCache(third);
+        Sprite white = checker.loadSprite("/sprite/64x64white.png");
+        checker.loadSprite("/sprite/pellet.png");
+        BufferedImage canvas = new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB);
+        white.draw(canvas.getGraphics(), 0, 0, 64, 64);
+
+        assertThat(third.isDirty()).isFalse();
+        assertThat(canvas.getRGB(63, 63)).isEqualTo(Color.WHITE.getRGB());
+    }
+
     /**
      * Verifies that an animated sprite is correctly cut from its base image.
      */
@@ -101,6 +191,21 @@ public class SpriteTest {
         assertThat(split.getHeight()).isEqualTo(13);
     }
 
+    /**
+     * Verifies that a split sprite draws the region it was cut from.
+     */
+    @Test
+    public void drawSplit() {
+        BufferedImage sheet = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB);
+        sheet.setRGB(12, 13, Color.RED.getRGB());
+        BufferedImage canvas = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+
+        new ImageSprite(sheet).split(10, 11, 4, 4).draw(canvas.getGraphics(), 0, 0, 4, 4);
+
+        assertThat(canvas.getRGB(2, 2)).isEqualTo(Color.RED.getRGB());
+        assertThat(canvas.getRGB(3, 3)).isZero();
+    }
+
     /**
      * Verifies that a split that isn't within the actual sprite returns an empty sprite.
      */
@@ -109,4 +214,56 @@ public class SpriteTest {
         Sprite split = sprite.split(10, 10, 64, 10);
         assertThat(split).isInstanceOf(EmptySprite.class);
     }
+
+    /**
+     * Verifies that a sprite drawn at another size, twice, covers exactly
+     * the area it is drawn on.
+     */
+    @Test
+    public void drawScaled() {
+        BufferedImage canvas = new BufferedImage(40, 40, BufferedImage.TYPE_INT_ARGB);
+
+        sprite.draw(canvas.getGraphics(), 5, 6, 20, 30);
+        sprite.draw(canvas.getGraphics(), 5, 6, 20, 30);
+
+        assertThat(canvas.getRGB(5, 6)).isEqualTo(Color.WHITE.getRGB());
+        assertThat(canvas.getRGB(24, 35)).isEqualTo(Color.WHITE.getRGB());
+        assertThat(canvas.getRGB(25, 35)).isZero();
+        assertThat(canvas.getRGB(24, 36)).isZero();
+    }
+
+    /**
+     * Verifies that an animation that does not loop ends after its last
+     * frame, computed from the clock however much time has passed.
+     */
+    @Test
+    public void animationEnds() {
+        AnimationClock clock = new AnimationClock();
+        AnimatedSprite animation = new SpriteStore(clock)
+            .createAnimatedSprite(sprite, 4, 100, false, true);
+
+        clock.setTime(300L);
+        assertThat(animation.getWidth()).isEqualTo(16);
+        clock.setTime(301L);
+        assertThat(animation.getWidth()).isZero();
+        clock.setTime(Long.MAX_VALUE / 2);
+        assertThat(animation.getWidth()).isZero();
+    }
+
+    /**
+     * Verifies that a stopped animation stays at its frame until restarted.
+     */
+    @Test
+    public void animationStopped() {
+        AnimationClock clock = new AnimationClock();
+        AnimatedSprite animation = new SpriteStore(clock)
+            .createAnimatedSprite(sprite, 4, 100, false, true);
+
+        animation.setAnimating(false);
+        clock.setTime(1000L);
+        assertThat(animation.getWidth()).isEqualTo(16);
+        animation.restart();
+        clock.setTime(1301L);
+        assertThat(animation.getWidth()).isZero();
+    }
 }
@@ -0,0 +1,107 @@
+package nl.tudelft.jpacman.ui;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Rectangle;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the squares the {@link BoardPanel} repaints between two frames, on a
+ * board ten squares high.
+ */
+@SuppressWarnings("magicnumber")
+class BoardPanelTest {
+
+    /**
+     * The height of the board, in squares.
+     */
+    private static final int HEIGHT = 10;
+
+    /**
+     * Verifies a unit that moved east repaints the square it left and the
+     * square it entered.
+     */
+    @Test
+    void unitMovedEast() {
+        int[] before = {square(3, 4)};
+        int[] after = {square(4, 4)};
+        assertThat(BoardPanel.dirtyCells(before, after, 1, HEIGHT))
+            .containsExactly(new Rectangle(3, 4, 2, 1));
+    }
+
+    /**
+     * Verifies a unit that stood still still repaints its square, as it may
+     * be animating.
+     */
+    @Test
+    void unitStoodStill() {
+        int[] squares = {square(7, 2)};
+        assertThat(BoardPanel.dirtyCells(squares, squares, 1, HEIGHT))
+            .containsExactly(new Rectangle(7, 2, 1, 1));
+    }
+
+    /**
+     * Verifies units far apart are repainted in ranges of their own, rather
+     * than in one range spanning the board between them.
+     */
+    @Test
+    void unitsApart() {
+        int[] before = {square(1, 8), square(6, 0)};
+        int[] after = {square(1, 9), square(5, 0)};
+        assertThat(BoardPanel.dirtyCells(before, after, 2, HEIGHT))
+            .containsExactly(new Rectangle(1, 8, 1, 2), new Rectangle(5, 0, 2, 1));
+    }
+
+    /**
+     * Verifies units on squares that touch, also diagonally, share a range.
+     */
+    @Test
+    void unitsTouching() {
+        int[] before = {square(4, 4), square(5, 5), square(8, 8)};
+        int[] after = {square(3, 4), square(6, 5), square(8, 8)};
+        assertThat(BoardPanel.dirtyCells(before, after, 3, HEIGHT))
+            .containsExactly(new Rectangle(3, 4, 4, 2), new Rectangle(8, 8, 1, 1));
+    }
+
+    /**
+     * Verifies a square joining two ranges merges them into one.
+     */
+    @Test
+    void squareJoinsRanges() {
+        int[] before = {square(2, 2), square(4, 2)};
+        int[] after = {square(2, 2), square(3, 2)};
+        assertThat(BoardPanel.dirtyCells(before, after, 2, HEIGHT))
+            .containsExactly(new Rectangle(2, 2, 3, 1));
+    }
+
+    /**
+     * Verifies only the given amount of units is looked at.
+     */
+    @Test
+    void unitsCounted() {
+        int[] before = {square(2, 2), square(9, 9)};
+        int[] after = {square(2, 3), square(0, 0)};
+        assertThat(BoardPanel.dirtyCells(before, after, 1, HEIGHT))
+            .containsExactly(new Rectangle(2, 2, 1, 2));
+    }
+
+    /**
+     * Verifies nothing is repainted without units.
+     */
+    @Test
+    void noUnits() {
+        assertThat(BoardPanel.dirtyCells(new int[0], new int[0], 0, HEIGHT)).isEmpty();
+    }
+
+    /**
+     * @param x
+     *            The column of a square.
+     * @param y
+     *            The row of a square.
+     * @return The index of the square.
+     */
+    private static int square(int x, int y) {
+        return x * HEIGHT + y;
+    }
+}
@@ -0,0 +1,93 @@
+package nl.tudelft.jpacman.ui;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+import nl.tudelft.jpacman.Launcher;
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.game.Simulation;
+import nl.tudelft.jpacman.level.FrameSnapshot;
+import nl.tudelft.jpacman.level.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests rendering snapshots of the default board into a frame buffer.
+ */
+@SuppressWarnings("magicnumber")
+class FrameBufferRendererTest {
+
+    /**
+     * The size of a square, in pixels.
+     */
+    private static final int TILE_SIZE = 16;
+
+    /**
+     * A simulation of the default board.
+     */
+    private Simulation simulation;
+
+    /**
+     * The renderer under test.
+     */
+    private FrameBufferRenderer renderer;
+
+    /**
+     * Creates a simulation and a renderer for its board.
+     */
+    @BeforeEach
+    void setUp() {
+        simulation = new Launcher().makeSimulation();
+        simulation.start();
+        renderer = new FrameBufferRenderer(simulation.getLevel().getBoard(), TILE_SIZE);
+    }
+
+    /**
+     * Verifies a frame covers the whole board.
+     */
+    @Test
+    void frameSize() {
+        Board board = simulation.getLevel().getBoard();
+        assertThat(renderer.getWidth()).isEqualTo(board.getWidth() * TILE_SIZE);
+        assertThat(renderer.getHeight()).isEqualTo(board.getHeight() * TILE_SIZE);
+        assertThat(renderer.render(simulation.getLevel().getFrames().acquire()))
+            .hasSize(renderer.getWidth() * renderer.getHeight());
+    }
+
+    /**
+     * Verifies the square of the player shows the same pixels as drawing its
+     * square and sprite on a black background.
+     */
+    @Test
+    void playerSquare() {
+        simulation.step(Direction.EAST);
+        FrameSnapshot frame = simulation.getLevel().getFrames().acquire();
+        int[] pixels = renderer.render(frame);
+
+        Player player = simulation.getPlayer();
+        Square square = player.getSquare();
+        BufferedImage expected = new BufferedImage(TILE_SIZE, TILE_SIZE,
+            BufferedImage.TYPE_INT_RGB);
+        Graphics graphics = expected.getGraphics();
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+        square.getSprite().draw(graphics, 0, 0, TILE_SIZE, TILE_SIZE);
+        player.getSprite().draw(graphics, 0, 0, TILE_SIZE, TILE_SIZE);
+        graphics.dispose();
+
+        int height = simulation.getLevel().getBoard().getHeight();
+        int left = square.getIndex() / height * TILE_SIZE;
+        int top = square.getIndex() % height * TILE_SIZE;
+        for (int y = 0; y < TILE_SIZE; y++) {
+            for (int x = 0; x < TILE_SIZE; x++) {
+                assertThat(pixels[(top + y) * renderer.getWidth() + left + x])
+                    .isEqualTo(expected.getRGB(x, y));
+            }
+        }
+    }
+}
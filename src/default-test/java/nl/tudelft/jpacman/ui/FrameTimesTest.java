@@ -0,0 +1,74 @@
+package nl.tudelft.jpacman.ui;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the statistics of {@link FrameTimes}.
+ */
+@SuppressWarnings("magicnumber")
+class FrameTimesTest {
+
+    /**
+     * The statistics under test.
+     */
+    private final FrameTimes times = new FrameTimes();
+
+    /**
+     * Verifies nothing is reported before any frame was drawn.
+     */
+    @Test
+    void emptyInitially() {
+        assertThat(times.getFrameCount()).isZero();
+        assertThat(times.getAverageNanos()).isZero();
+        assertThat(times.getPercentileMillis(0.99)).isZero();
+    }
+
+    /**
+     * Verifies frames end up in the bucket of their whole milliseconds, with
+     * frames that take too long in the last bucket.
+     */
+    @Test
+    void histogramBuckets() {
+        times.record(TimeUnit.MICROSECONDS.toNanos(500L));
+        times.record(TimeUnit.MICROSECONDS.toNanos(2500L));
+        times.record(TimeUnit.SECONDS.toNanos(1L));
+
+        long[] histogram = times.getHistogram();
+        assertThat(histogram[0]).isEqualTo(1L);
+        assertThat(histogram[2]).isEqualTo(1L);
+        assertThat(histogram[FrameTimes.BUCKETS - 1]).isEqualTo(1L);
+        assertThat(times.getFrameCount()).isEqualTo(3L);
+        assertThat(times.getMaxNanos()).isEqualTo(TimeUnit.SECONDS.toNanos(1L));
+    }
+
+    /**
+     * Verifies percentiles are taken from the histogram.
+     */
+    @Test
+    void percentiles() {
+        for (int i = 0; i < 9; i++) {
+            times.record(TimeUnit.MILLISECONDS.toNanos(3L));
+        }
+        times.record(TimeUnit.MILLISECONDS.toNanos(20L));
+
+        assertThat(times.getPercentileMillis(0.5)).isEqualTo(3);
+        assertThat(times.getPercentileMillis(0.9)).isEqualTo(3);
+        assertThat(times.getPercentileMillis(1.0)).isEqualTo(20);
+    }
+
+    /**
+     * Verifies skipped frames are counted apart from the frames drawn.
+     */
+    @Test
+    void skippedFrames() {
+        times.record(TimeUnit.MILLISECONDS.toNanos(90L));
+        times.skip(2L);
+
+        assertThat(times.getSkippedFrames()).isEqualTo(2L);
+        assertThat(times.getFrameCount()).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,40 @@
+package nl.tudelft.jpacman.ui;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+
+import javax.swing.JLabel;
+
+import nl.tudelft.jpacman.Launcher;
+import nl.tudelft.jpacman.game.Simulation;
+import nl.tudelft.jpacman.level.FrameSnapshot;
+import nl.tudelft.jpacman.level.Player;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests showing the scores of snapshots of a level.
+ */
+@SuppressWarnings("magicnumber")
+class ScorePanelTest {
+
+    /**
+     * Verifies the score shown is that of the snapshot, even when the player
+     * scored since it was taken.
+     */
+    @Test
+    void showsScoreOfSnapshot() {
+        Simulation simulation = new Launcher().makeSimulation();
+        simulation.start();
+        Player player = simulation.getPlayer();
+        FrameSnapshot frame = simulation.getLevel().getFrames().acquire();
+        player.addPoints(50);
+
+        ScorePanel panel = new ScorePanel(Collections.singletonList(player));
+        panel.refresh(frame);
+
+        assertThat(((JLabel) panel.getComponent(1)).getText())
+            .isEqualTo(ScorePanel.DEFAULT_SCORE_FORMATTER.format(player, frame.getScore(0)))
+            .isEqualTo("Score:   0");
+    }
+}
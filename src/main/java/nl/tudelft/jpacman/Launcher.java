@@ -2,21 +2,31 @@ package nl.tudelft.jpacman;
 
 import java.awt.event.KeyEvent;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 import nl.tudelft.jpacman.board.BoardFactory;
 import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.game.BatchedGameEnvironment;
 import nl.tudelft.jpacman.game.Game;
 import nl.tudelft.jpacman.game.GameFactory;
+import nl.tudelft.jpacman.game.Simulation;
 import nl.tudelft.jpacman.level.Level;
 import nl.tudelft.jpacman.level.LevelFactory;
 import nl.tudelft.jpacman.level.MapParser;
 import nl.tudelft.jpacman.level.Player;
 import nl.tudelft.jpacman.level.PlayerFactory;
+import nl.tudelft.jpacman.level.VirtualTimeTickScheduler;
 import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.npc.ghost.NextHopTable;
 import nl.tudelft.jpacman.points.PointCalculator;
 import nl.tudelft.jpacman.points.PointCalculatorLoader;
 import nl.tudelft.jpacman.sprite.PacManSprites;
+import nl.tudelft.jpacman.sprite.SpriteCache;
 import nl.tudelft.jpacman.ui.Action;
 import nl.tudelft.jpacman.ui.PacManUI;
 import nl.tudelft.jpacman.ui.PacManUiBuilder;
@@ -32,7 +42,20 @@ public class Launcher {
     private static final PacManSprites SPRITE_STORE = new PacManSprites();
 
     public static final String DEFAULT_MAP = "/board.txt";
+
+    /**
+     * The most memory the table of shortest paths of a simulated level may
+     * take, in bytes.
+     */
+    private static final long SIMULATION_TABLE_BUDGET = 16L * 1024 * 1024;
+
+    /**
+     * The amount of games of a batched environment stepped by a single task.
+     */
+    private static final int BATCH_CHUNK_SIZE = 16;
     private String levelMap = DEFAULT_MAP;
+    private OptionalLong seed = OptionalLong.empty();
+    private Path spriteCacheFile;
 
     private PacManUI pacManUI;
     private Game game;
@@ -66,6 +89,32 @@ public class Launcher {
         return this;
     }
 
+    /**
+     * Seeds the randomness of the levels this launcher creates, so that the
+     * ghosts move the same way every run.
+     *
+     * @param randomSeed
+     *            The seed, see {@link LevelFactory#setSeed(long)}.
+     * @return Launcher with the seed set.
+     */
+    public Launcher withSeed(long randomSeed) {
+        seed = OptionalLong.of(randomSeed);
+        return this;
+    }
+
+    /**
+     * Keeps the decoded sprites in a cache file when the game is launched,
+     * so later launches need not decode the sprite images again.
+     *
+     * @param file
+     *            The cache file, which is created if it does not exist.
+     * @return The launcher, for chaining.
+     */
+    public Launcher withSpriteCache(Path file) {
+        spriteCacheFile = file;
+        return this;
+    }
+
     /**
      * Creates a new game using the level from {@link #makeLevel()}.
      *
@@ -89,8 +138,81 @@ public class Launcher {
      * @return A new level.
      */
     public Level makeLevel() {
+        return parseLevel(getMapParser());
+    }
+
+    /**
+     * Creates a new game like {@link #makeGame()}, but on virtual time and
+     * without a user interface, to be played through the returned
+     * {@link Simulation}. The ghosts look up their paths in a table of all
+     * shortest paths if the board is small enough, as the table pays for
+     * itself within a few thousand steps.
+     *
+     * @return A new simulation of a single player game.
+     */
+    public Simulation makeSimulation() {
+        LevelFactory levelFactory = getLevelFactory();
+        levelFactory.setTickSchedulers(VirtualTimeTickScheduler::new);
+        levelFactory.setNextHopTableBudget(SIMULATION_TABLE_BUDGET);
+        Level level = parseLevel(new MapParser(levelFactory, getBoardFactory()));
+        game = getGameFactory().createSinglePlayerGame(level, loadPointCalculator());
+        return new Simulation(game);
+    }
+
+    /**
+     * Creates a number of simulations like {@link #makeSimulation()}, all of
+     * the same map, to be stepped together on the common fork-join pool. The
+     * map is read once, and a table of shortest paths is built once, before
+     * any game is created, for the environment to share with all games.
+     *
+     * @param size
+     *            The amount of games.
+     * @return A new environment of started games.
+     */
+    public BatchedGameEnvironment makeBatchedEnvironment(int size) {
+        LevelFactory levelFactory = getLevelFactory();
+        levelFactory.setTickSchedulers(VirtualTimeTickScheduler::new);
+        MapParser parser = new MapParser(levelFactory, getBoardFactory());
+        List<String> template;
+        try {
+            template = parser.readMap(getLevelMap());
+        } catch (IOException e) {
+            throw new PacmanConfigurationException(
+                    "Unable to create level, name = " + getLevelMap(), e);
+        }
+        PointCalculator pointCalculator = loadPointCalculator();
+        Supplier<Simulation> games = () -> new Simulation(getGameFactory()
+            .createSinglePlayerGame(parser.parseMap(template), pointCalculator));
+        return new BatchedGameEnvironment(size, games, buildNextHopTable(template),
+            ForkJoinPool.commonPool(), BATCH_CHUNK_SIZE);
+    }
+
+    /**
+     * Builds the table of shortest paths of a map, from a level parsed by a
+     * factory of its own, so the levels of other factories are not affected.
+     *
+     * @param map
+     *            The lines of the map.
+     * @return The table, or <code>null</code> if the board is too large or
+     *         has no ghosts.
+     */
+    private NextHopTable buildNextHopTable(List<String> map) {
+        LevelFactory tableFactory = getLevelFactory();
+        tableFactory.setNextHopTableBudget(SIMULATION_TABLE_BUDGET);
+        return new MapParser(tableFactory, getBoardFactory()).parseMap(map)
+            .getNextHopTable();
+    }
+
+    /**
+     * Parses the map of this launcher.
+     *
+     * @param parser
+     *            The parser to create the level with.
+     * @return A new level.
+     */
+    private Level parseLevel(MapParser parser) {
         try {
-            return getMapParser().parseMap(getLevelMap());
+            return parser.parseMap(getLevelMap());
         } catch (IOException e) {
             throw new PacmanConfigurationException(
                     "Unable to create level, name = " + getLevelMap(), e);
@@ -125,7 +247,10 @@ public class Launcher {
      *         and the ghosts from {@link #getGhostFactory()}.
      */
     protected LevelFactory getLevelFactory() {
-        return new LevelFactory(getSpriteStore(), getGhostFactory(), loadPointCalculator());
+        LevelFactory levelFactory =
+            new LevelFactory(getSpriteStore(), getGhostFactory(), loadPointCalculator());
+        seed.ifPresent(levelFactory::setSeed);
+        return levelFactory;
     }
 
     /**
@@ -178,14 +303,49 @@ public class Launcher {
     }
 
     /**
-     * Creates and starts a JPac-Man game.
+     * Creates and starts a JPac-Man game, loading all sprites in parallel
+     * while the game is built.
      */
     public void launch() {
+        SpriteCache spriteCache = null;
+        if (spriteCacheFile != null) {
+            spriteCache = SpriteCache.open(spriteCacheFile);
+            getSpriteStore().setCache(spriteCache);
+        }
+        CompletableFuture<Void> sprites = getSpriteStore().preload(ForkJoinPool.commonPool());
         makeGame();
         PacManUiBuilder builder = new PacManUiBuilder().withDefaultButtons();
         addSinglePlayerKeys(builder);
         pacManUI = builder.build(getGame());
         pacManUI.start();
+        if (spriteCache != null) {
+            saveSpriteCache(spriteCache, sprites);
+        }
+    }
+
+    /**
+     * Saves the sprite cache once all sprites are loaded, if any sprite had
+     * to be decoded. The game runs fine without the cache, so a cache that
+     * cannot be written is reported to the uncaught exception handler of the
+     * current thread, and the game goes on.
+     *
+     * @param spriteCache
+     *            The sprite cache.
+     * @param sprites
+     *            Completes when all sprites are loaded.
+     */
+    private void saveSpriteCache(SpriteCache spriteCache, CompletableFuture<Void> sprites) {
+        sprites.join();
+        if (spriteCache.isDirty()) {
+            try {
+                spriteCache.save();
+            } catch (IOException e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread,
+                    new PacmanConfigurationException(
+                        "Unable to write sprite cache: " + spriteCache.getFile(), e));
+            }
+        }
     }
 
     /**
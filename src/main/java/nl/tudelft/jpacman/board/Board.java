@@ -13,6 +13,11 @@ public class Board {
      */
     private final Square[][] board;
 
+    /**
+     * The compact layout of this board, or <code>null</code> if there is none.
+     */
+    private BoardTopology topology;
+
     /**
      * Creates a new board.
      * 创建一个网格
@@ -79,6 +84,58 @@ public class Board {
         return result;
     }
 
+    /**
+     * Returns the square with the given index, see {@link Square#getIndex()}.
+     *
+     * @param index
+     *            The index of the requested square.
+     * @return The square with the given index (never null).
+     */
+    public Square squareWithIndex(int index) {
+        int height = getHeight();
+        return squareAt(index / height, index % height);
+    }
+
+    /**
+     * Determines whether a unit of the given kind occupies the square at the
+     * given <code>x,y</code> position, see
+     * {@link Square#hasOccupantOfKind(UnitKind)}.
+     *
+     * @param x
+     *            The <code>x</code> position (column) of the square.
+     * @param y
+     *            The <code>y</code> position (row) of the square.
+     * @param kind
+     *            The kind of unit to look for.
+     * @return <code>true</code> iff a unit of the given kind occupies the
+     *         square.
+     */
+    public boolean hasOccupantOfKind(int x, int y, UnitKind kind) {
+        return squareAt(x, y).hasOccupantOfKind(kind);
+    }
+
+    /**
+     * Returns the compact layout of this board, which allows searching it
+     * without following references between squares.
+     *
+     * @return The layout of this board, or <code>null</code> if this board
+     *         was not created by a {@link BoardFactory}.
+     */
+    public BoardTopology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Sets the compact layout of this board.
+     *
+     * @param layout
+     *            The layout of this board.
+     */
+    void setTopology(BoardTopology layout) {
+        assert layout.getWidth() == getWidth() && layout.getHeight() == getHeight();
+        this.topology = layout;
+    }
+
     /**
      * Determines whether the given <code>x,y</code> position is on this board.
      *
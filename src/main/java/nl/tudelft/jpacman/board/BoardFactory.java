@@ -28,7 +28,9 @@ public class BoardFactory {
     }
 
     /**
-     * Creates a new board from a grid of cells and connects it.
+     * Creates a new board from a grid of cells and connects it. The board
+     * gets a {@link BoardTopology} in which the squares that are
+     * {@link Square#isWalkable() walkable} can be walked on.
      * 从单元格网格创建新的板并将其连接。
      * @param grid
      *            The square grid of cells, in which grid[x][y] corresponds to
@@ -42,9 +44,14 @@ public class BoardFactory {
 
         int width = board.getWidth();
         int height = board.getHeight();
+        BoardTopology topology = new BoardTopology(width, height);
         for (int x = 0; x < width; x++) {
             for (int y = 0; y < height; y++) {
                 Square square = grid[x][y];
+                square.setIndex(topology.indexOf(x, y));
+                if (square.isWalkable()) {
+                    topology.setWalkable(square.getIndex());
+                }
                 for (Direction dir : Direction.values()) {
                     int dirX = (width + x + dir.getDeltaX()) % width;
                     int dirY = (height + y + dir.getDeltaY()) % height;
@@ -53,6 +60,7 @@ public class BoardFactory {
                 }
             }
         }
+        board.setTopology(topology);
 
         return board;
     }
@@ -102,6 +110,11 @@ public class BoardFactory {
             return false;
         }
 
+        @Override
+        public boolean isWalkable() {
+            return false;
+        }
+
         @Override
         public Sprite getSprite() {
             return background;
@@ -0,0 +1,187 @@
+package nl.tudelft.jpacman.board;
+
+/**
+ * A compact view of the layout of a {@link Board}, in which squares are
+ * numbered rather than objects.
+ * <p>
+ * A square is identified by its index, see {@link Square#getIndex()}. The
+ * neighbours of all squares are kept in a single array with an entry per
+ * square and direction, in which the edges of the board already wrap around,
+ * and the squares units can walk on are kept in a bit set. Searches over this
+ * view touch a few primitive arrays rather than following references between
+ * squares, and a board of a million squares takes about 16 megabytes.
+ * <p>
+ * The view is created by the {@link BoardFactory} together with the board,
+ * and does not change afterwards.
+ */
+public final class BoardTopology {
+
+    /**
+     * The amount of directions, and so of neighbours per square.
+     */
+    private static final int DIRECTIONS = Direction.values().length;
+
+    /**
+     * The amount of bits in a word of the bit set.
+     */
+    private static final int WORD_BITS = Long.SIZE;
+
+    /**
+     * The amount of bits to shift an index to get its word.
+     */
+    private static final int WORD_SHIFT = Integer.numberOfTrailingZeros(WORD_BITS);
+
+    /**
+     * The width of the board.
+     */
+    private final int width;
+
+    /**
+     * The height of the board.
+     */
+    private final int height;
+
+    /**
+     * The index of the neighbour of each square in each direction, at
+     * <code>index * 4 + direction.ordinal()</code>.
+     */
+    private final int[] neighbours;
+
+    /**
+     * A bit per square, set iff units can walk on it.
+     */
+    private final long[] walkable;
+
+    /**
+     * Creates the layout of a board on which no square can be walked on yet.
+     *
+     * @param width
+     *            The width of the board.
+     * @param height
+     *            The height of the board.
+     */
+    BoardTopology(int width, int height) {
+        assert width > 0 && height > 0;
+        this.width = width;
+        this.height = height;
+        int size = width * height;
+        this.neighbours = new int[size * DIRECTIONS];
+        this.walkable = new long[(size + WORD_BITS - 1) >>> WORD_SHIFT];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                linkNeighbours(x, y);
+            }
+        }
+    }
+
+    /**
+     * Records the neighbours of a square, wrapping around the edges.
+     *
+     * @param x
+     *            The column of the square.
+     * @param y
+     *            The row of the square.
+     */
+    private void linkNeighbours(int x, int y) {
+        int base = indexOf(x, y) * DIRECTIONS;
+        for (Direction direction : Direction.values()) {
+            int nextX = (width + x + direction.getDeltaX()) % width;
+            int nextY = (height + y + direction.getDeltaY()) % height;
+            neighbours[base + direction.ordinal()] = indexOf(nextX, nextY);
+        }
+    }
+
+    /**
+     * Marks a square as one units can walk on.
+     *
+     * @param index
+     *            The index of the square.
+     */
+    void setWalkable(int index) {
+        walkable[index >>> WORD_SHIFT] |= 1L << index;
+    }
+
+    /**
+     * @return The width of the board.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return The height of the board.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return The amount of squares on the board.
+     */
+    public int getSquareCount() {
+        return width * height;
+    }
+
+    /**
+     * Returns the index of the square at the given position.
+     *
+     * @param x
+     *            The column of the square, within the width of the board.
+     * @param y
+     *            The row of the square, within the height of the board.
+     * @return The index of the square.
+     */
+    public int indexOf(int x, int y) {
+        assert x >= 0 && x < width && y >= 0 && y < height;
+        return x * height + y;
+    }
+
+    /**
+     * @param index
+     *            The index of a square.
+     * @return The column of the square.
+     */
+    public int columnOf(int index) {
+        return index / height;
+    }
+
+    /**
+     * @param index
+     *            The index of a square.
+     * @return The row of the square.
+     */
+    public int rowOf(int index) {
+        return index % height;
+    }
+
+    /**
+     * Returns the neighbour of a square.
+     *
+     * @param index
+     *            The index of the square.
+     * @param direction
+     *            The direction of the neighbour.
+     * @return The index of the neighbouring square.
+     */
+    public int neighbour(int index, Direction direction) {
+        return neighbours[index * DIRECTIONS + direction.ordinal()];
+    }
+
+    /**
+     * Determines whether units can walk on a square.
+     *
+     * @param index
+     *            The index of the square.
+     * @return <code>true</code> iff units can walk on the square.
+     */
+    public boolean isWalkable(int index) {
+        return (walkable[index >>> WORD_SHIFT] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return The amount of memory taken by this view, in bytes.
+     */
+    public long getMemoryBytes() {
+        return (long) neighbours.length * Integer.BYTES + (long) walkable.length * Long.BYTES;
+    }
+}
@@ -1,5 +1,7 @@
 package nl.tudelft.jpacman.board;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
 /**
  * An enumeration of possible directions on a two-dimensional square grid.
  *
@@ -27,6 +29,11 @@ public enum Direction {
      */
     EAST(1, 0);
 
+    /**
+     * All directions, in the order of their ordinals.
+     */
+    private static final Direction[] ALL = values();
+
     /**
      * The delta x (width difference) to an element in the direction in a grid
      * with 0,0 (x,y) as its top-left element.
@@ -69,4 +76,19 @@ public enum Direction {
     public int getDeltaY() {
         return deltaY;
     }
+
+    /**
+     * Returns all directions, in the order of their ordinals. Unlike
+     * {@link #values()}, this does not copy them, so the array returned is
+     * shared and must not be modified.
+     *
+     * @return All directions.
+     */
+    @SuppressFBWarnings(
+        value = "MS_EXPOSE_REP",
+        justification = "shared on purpose, so searches can step in all directions without copying"
+    )
+    public static Direction[] all() {
+        return ALL;
+    }
 }
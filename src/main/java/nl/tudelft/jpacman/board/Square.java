@@ -1,9 +1,9 @@
 package nl.tudelft.jpacman.board;
 
-import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import com.google.common.collect.ImmutableList;
 
@@ -16,11 +16,25 @@ import nl.tudelft.jpacman.sprite.Sprite;
  */
 public abstract class Square {
 
+    /**
+     * The index of a square that has not been placed on a board.
+     */
+    public static final int NO_INDEX = -1;
+
     /**
      * The units occupying this square, in order of appearance.
      * 占据这个方格的单位，按出现顺序排列。
+     * <p>
+     * The list is never changed but replaced as a whole when units come or
+     * go, so it can be handed out without copying and read while units move.
      */
-    private final List<Unit> occupants; //占领者
+    private volatile ImmutableList<Unit> occupants; //占领者
+
+    /**
+     * The kinds of units occupying this square, as a mask of
+     * {@link UnitKind#getMask()} bits.
+     */
+    private volatile int occupantKinds;
 
     /**
      * The collection of squares adjacent to this square.
@@ -28,16 +42,47 @@ public abstract class Square {
      */
     private final Map<Direction, Square> neighbours; //邻居
 
+    /**
+     * The position of this square on its board as a single number, or
+     * {@link #NO_INDEX} if it is not on a board.
+     */
+    private int index;
+
     /**
      * Creates a new, empty square.
      * 创建一个新的空方格
      */
     protected Square() {
-        this.occupants = new ArrayList<>();
+        this.occupants = ImmutableList.of();
         this.neighbours = new EnumMap<>(Direction.class);
+        this.index = NO_INDEX;
         assert invariant();
     }
 
+    /**
+     * Returns the position of this square on its board as a single number.
+     * Indices are dense: on a board of <code>n</code> squares they range from
+     * 0 to <code>n - 1</code>, which makes them suitable for indexing arrays.
+     * The square at <code>(x, y)</code> has index <code>x * height + y</code>.
+     *
+     * @return The index of this square, or {@link #NO_INDEX} if this square
+     *         was not placed on a board by a {@link BoardFactory}.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Sets the position of this square on its board.
+     *
+     * @param newIndex
+     *            The index of this square.
+     */
+    void setIndex(int newIndex) {
+        assert newIndex >= 0;
+        this.index = newIndex;
+    }
+
     /**
      * Returns the square adjacent to this square.
      * 返回指定方向的下一个方格
@@ -67,11 +112,89 @@ public abstract class Square {
      * Returns an immutable list of units occupying this square, in the order in
      * which they occupied this square (i.e. oldest first.)
      * 返回占据此方格的单位的不可变列表，按占据的的顺序排列
+     * <p>
+     * The list is not copied: it is a snapshot that stays the same when units
+     * later come or go, so it is safe to iterate while units are moved, even
+     * from another thread. Taking the list before moving a unit onto this
+     * square gives the units it is about to collide with.
+     *
      * @return An immutable list of units occupying this square, in the order in
      *         which they occupied this square (i.e. oldest first.)
      */
     public List<Unit> getOccupants() {
-        return ImmutableList.copyOf(occupants);
+        return occupants;
+    }
+
+    /**
+     * Returns the amount of units occupying this square.
+     *
+     * @return The amount of occupants.
+     */
+    public int getOccupantCount() {
+        return occupants.size();
+    }
+
+    /**
+     * Determines whether a unit occupies this square.
+     *
+     * @param unit
+     *            The unit to look for.
+     * @return <code>true</code> iff the unit occupies this square.
+     */
+    public boolean hasOccupant(Unit unit) {
+        return occupants.contains(unit);
+    }
+
+    /**
+     * Determines whether a unit of the given kind occupies this square,
+     * without looking at the occupants themselves.
+     *
+     * @param kind
+     *            The kind of unit to look for.
+     * @return <code>true</code> iff a unit of the given kind occupies this
+     *         square.
+     */
+    public boolean hasOccupantOfKind(UnitKind kind) {
+        return (occupantKinds & kind.getMask()) != 0;
+    }
+
+    /**
+     * @return The masks of the kinds of all units occupying this square,
+     *         combined, see {@link UnitKind#getMask()}.
+     */
+    public int getOccupantKinds() {
+        return occupantKinds;
+    }
+
+    /**
+     * Returns the oldest occupant of the given type.
+     *
+     * @param type
+     *            The type of unit to look for.
+     * @param <T>
+     *            The type of unit to look for.
+     * @return The oldest occupant of the given type, or <code>null</code> if
+     *         no such unit occupies this square.
+     */
+    public <T extends Unit> T firstOccupantOf(Class<T> type) {
+        for (Unit unit : occupants) {
+            if (type.isInstance(unit)) {
+                return type.cast(unit);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Performs an action for every unit occupying this square, oldest first.
+     * The action sees the occupants as they were when this method was called,
+     * see {@link #getOccupants()}.
+     *
+     * @param action
+     *            The action to perform.
+     */
+    public void forEachOccupant(Consumer<? super Unit> action) {
+        occupants.forEach(action);
     }
 
     /**
@@ -80,11 +203,15 @@ public abstract class Square {
      * @param occupant
      *            The unit to occupy this square.
      */
-    void put(Unit occupant) {
+    synchronized void put(Unit occupant) {
         assert occupant != null;
         assert !occupants.contains(occupant);
 
-        occupants.add(occupant);
+        occupants = ImmutableList.<Unit>builderWithExpectedSize(occupants.size() + 1)
+            .addAll(occupants)
+            .add(occupant)
+            .build();
+        occupantKinds = kindsOf(occupants);
     }
 
     /**
@@ -93,9 +220,34 @@ public abstract class Square {
      * @param occupant
      *            The unit to be removed from this square.
      */
-    void remove(Unit occupant) {
+    synchronized void remove(Unit occupant) {
         assert occupant != null;
-        occupants.remove(occupant);
+        int position = occupants.indexOf(occupant);
+        if (position < 0) {
+            return;
+        }
+        occupants = ImmutableList.<Unit>builderWithExpectedSize(occupants.size() - 1)
+            .addAll(occupants.subList(0, position))
+            .addAll(occupants.subList(position + 1, occupants.size()))
+            .build();
+        occupantKinds = kindsOf(occupants);
+    }
+
+    /**
+     * @param units
+     *            The units occupying a square.
+     * @return The mask of the kinds of the units. Units without a kind are
+     *         left out.
+     */
+    private static int kindsOf(List<Unit> units) {
+        int kinds = 0;
+        for (Unit unit : units) {
+            UnitKind kind = unit.getKind();
+            if (kind != null) {
+                kinds |= kind.getMask();
+            }
+        }
+        return kinds;
     }
 
     /**
@@ -123,6 +275,19 @@ public abstract class Square {
      */
     public abstract boolean isAccessibleTo(Unit unit);
 
+    /**
+     * Determines whether units walk on this square at all. This is what the
+     * {@link BoardTopology} of a board records, and what paths are searched
+     * over, so a square that is not accessible to the units following those
+     * paths should not be walkable either. Squares are walkable unless they
+     * say otherwise, as walls do.
+     *
+     * @return <code>true</code> iff paths may cross this square.
+     */
+    public boolean isWalkable() {
+        return true;
+    }
+
     /**
      * Returns the sprite of this square.
      * 返回此方块的幽灵
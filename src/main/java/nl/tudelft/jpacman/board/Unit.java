@@ -108,7 +108,7 @@ public abstract class Unit {
      *         not occupying any square.
      */
     protected boolean invariant() {
-        return square == null || square.getOccupants().contains(this);
+        return square == null || square.hasOccupant(this);
     }
 
     /**
@@ -118,6 +118,16 @@ public abstract class Unit {
      */
     public abstract Sprite getSprite();
 
+    /**
+     * Returns the kind of this unit, which squares keep track of to answer
+     * {@link Square#hasOccupantOfKind(UnitKind)} quickly.
+     *
+     * @return The kind of this unit.
+     */
+    public UnitKind getKind() {
+        return UnitKind.OTHER;
+    }
+
     /**
      * A utility method for implementing the ghost AI.
      * 一种实用的魔鬼实现方法。
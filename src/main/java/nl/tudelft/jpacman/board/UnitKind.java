@@ -0,0 +1,36 @@
+package nl.tudelft.jpacman.board;
+
+/**
+ * The kinds of units that can occupy a square. Squares keep track of which
+ * kinds of units occupy them, so asking whether a square holds, say, a pellet
+ * takes a single bit test.
+ */
+public enum UnitKind {
+
+    /**
+     * A player.
+     */
+    PLAYER,
+
+    /**
+     * A ghost.
+     */
+    GHOST,
+
+    /**
+     * A pellet.
+     */
+    PELLET,
+
+    /**
+     * Any other unit.
+     */
+    OTHER;
+
+    /**
+     * @return The bit of this kind in a mask of kinds.
+     */
+    public int getMask() {
+        return 1 << ordinal();
+    }
+}
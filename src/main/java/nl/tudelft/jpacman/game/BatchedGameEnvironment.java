@@ -0,0 +1,413 @@
+package nl.tudelft.jpacman.game;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardTopology;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.UnitKind;
+import nl.tudelft.jpacman.npc.ghost.NextHopTable;
+
+/**
+ * A number of independent {@link Simulation}s of the same map, stepped in
+ * lockstep.
+ * <p>
+ * Every call to {@link #step(Direction[])} advances all games by one tick,
+ * spreading them over a fork-join pool in chunks of consecutive games. The
+ * results are written to flat arrays that are allocated once and reused by
+ * every step: the points each player scored, whether each game is over, and
+ * an observation of every board with one byte per square, at
+ * <code>game * squareCount + square index</code>. Games that are over stay
+ * over until they are {@link #reset(int)}. The games themselves still
+ * allocate as they are played, for instance a new list of occupants for
+ * every square a unit enters or leaves, see
+ * {@link nl.tudelft.jpacman.board.Square#getOccupants()}.
+ * <p>
+ * All games can share a table of shortest paths, since the boards are the
+ * same. An environment is not thread safe.
+ */
+public class BatchedGameEnvironment {
+
+    /**
+     * The observation of a square without anything on it.
+     */
+    public static final byte EMPTY = 0;
+
+    /**
+     * The observation of a wall.
+     */
+    public static final byte WALL = 1;
+
+    /**
+     * The observation of a square with a pellet.
+     */
+    public static final byte PELLET = 2;
+
+    /**
+     * The observation of a square with a ghost, possibly on a pellet.
+     */
+    public static final byte GHOST = 3;
+
+    /**
+     * The observation of the square of the player.
+     */
+    public static final byte PLAYER = 4;
+
+    /**
+     * The observation of a walkable square by the mask of the kinds of units
+     * occupying it.
+     */
+    private static final byte[] OBSERVATIONS = observationsByKinds();
+
+    /**
+     * Creates the games.
+     */
+    private final Supplier<Simulation> games;
+
+    /**
+     * The games being played.
+     */
+    private final Simulation[] simulations;
+
+    /**
+     * The pool the games are stepped in.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The amount of squares on each board.
+     */
+    private final int squareCount;
+
+    /**
+     * The observation of every square of every board.
+     */
+    private final byte[] observations;
+
+    /**
+     * The points scored by each player in the last step.
+     */
+    private final int[] rewards;
+
+    /**
+     * Whether each game is over.
+     */
+    private final boolean[] done;
+
+    /**
+     * The task stepping all chunks of games.
+     */
+    private final StepTask step;
+
+    /**
+     * The moves of the players in the current step.
+     */
+    private Direction[] actions;
+
+    /**
+     * The shortest paths shared by all games, or <code>null</code>.
+     */
+    private final NextHopTable table;
+
+    /**
+     * Creates and starts a number of games.
+     *
+     * @param size
+     *            The amount of games.
+     * @param gameFactory
+     *            Creates a new game of the same map on every call.
+     * @param sharedTable
+     *            The shortest paths of the map, given to every game, or
+     *            <code>null</code> to leave the games as they are created.
+     *            It must {@link NextHopTable#fits fit} the boards of the
+     *            games.
+     * @param forkJoinPool
+     *            The pool to step the games in.
+     * @param chunkSize
+     *            The amount of consecutive games stepped by a single task.
+     */
+    public BatchedGameEnvironment(int size, Supplier<Simulation> gameFactory,
+                                  NextHopTable sharedTable, ForkJoinPool forkJoinPool,
+                                  int chunkSize) {
+        assert size > 0;
+        assert chunkSize > 0;
+        this.games = gameFactory;
+        this.table = sharedTable;
+        this.pool = forkJoinPool;
+        this.simulations = new Simulation[size];
+        this.rewards = new int[size];
+        this.done = new boolean[size];
+        for (int game = 0; game < size; game++) {
+            start(game);
+        }
+        Board board = simulations[0].getLevel().getBoard();
+        this.squareCount = board.getWidth() * board.getHeight();
+        this.observations = new byte[size * squareCount];
+        this.step = new StepTask(size, chunkSize);
+        for (int game = 0; game < size; game++) {
+            settle(game);
+        }
+    }
+
+    /**
+     * Replaces a game by a new one, which is started right away.
+     *
+     * @param game
+     *            The number of the game.
+     */
+    public void reset(int game) {
+        start(game);
+        settle(game);
+    }
+
+    /**
+     * Advances all games by one tick. Games that are over are left alone and
+     * score nothing.
+     *
+     * @param moves
+     *            The direction each player moves in, or <code>null</code> for
+     *            players that stand still, by game number.
+     */
+    public void step(Direction[] moves) {
+        assert moves.length == simulations.length;
+        this.actions = moves;
+        step.reinitialize();
+        if (step.isSingleChunk()) {
+            step.invoke();
+        } else {
+            pool.invoke(step);
+        }
+        this.actions = null;
+    }
+
+    /**
+     * @return The observations of all boards, see {@link #EMPTY},
+     *         {@link #WALL}, {@link #PELLET}, {@link #GHOST} and
+     *         {@link #PLAYER}. The array is updated by every step.
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "reused to avoid copies")
+    public byte[] getObservations() {
+        return observations;
+    }
+
+    /**
+     * @return The points each player scored in the last step. The array is
+     *         updated by every step.
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "reused to avoid copies")
+    public int[] getRewards() {
+        return rewards;
+    }
+
+    /**
+     * @return Whether each game is over. The array is updated by every step.
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "reused to avoid copies")
+    public boolean[] getDone() {
+        return done;
+    }
+
+    /**
+     * @return The amount of games.
+     */
+    public int getSize() {
+        return simulations.length;
+    }
+
+    /**
+     * @return The amount of squares on each board.
+     */
+    public int getSquareCount() {
+        return squareCount;
+    }
+
+    /**
+     * @param game
+     *            The number of the game.
+     * @return The simulation of the game.
+     */
+    public Simulation getSimulation(int game) {
+        return simulations[game];
+    }
+
+    /**
+     * Creates and starts a new game, giving it the shared table of shortest
+     * paths.
+     *
+     * @param game
+     *            The number of the game.
+     */
+    private void start(int game) {
+        Simulation simulation = games.get();
+        if (table != null) {
+            simulation.getLevel().setNextHopTable(table);
+        }
+        simulation.start();
+        simulations[game] = simulation;
+    }
+
+    /**
+     * Writes the state of a game that was just started.
+     *
+     * @param game
+     *            The number of the game.
+     */
+    private void settle(int game) {
+        rewards[game] = 0;
+        done[game] = !simulations[game].getGame().isInProgress();
+        observe(game);
+    }
+
+    /**
+     * Advances a single game by one tick.
+     *
+     * @param game
+     *            The number of the game.
+     */
+    private void stepGame(int game) {
+        if (done[game]) {
+            rewards[game] = 0;
+            return;
+        }
+        Simulation simulation = simulations[game];
+        int score = simulation.getPlayer().getScore();
+        done[game] = !simulation.step(actions[game]);
+        rewards[game] = simulation.getPlayer().getScore() - score;
+        observe(game);
+    }
+
+    /**
+     * Writes the observation of a board.
+     *
+     * @param game
+     *            The number of the game.
+     */
+    private void observe(int game) {
+        Board board = simulations[game].getLevel().getBoard();
+        BoardTopology topology = board.getTopology();
+        int offset = game * squareCount;
+        for (int index = 0; index < squareCount; index++) {
+            byte observation = WALL;
+            if (topology.isWalkable(index)) {
+                observation = OBSERVATIONS[board.squareWithIndex(index).getOccupantKinds()];
+            }
+            observations[offset + index] = observation;
+        }
+    }
+
+    /**
+     * @return The observation of a walkable square for every combination of
+     *         kinds of units occupying it, indexed by their mask.
+     */
+    private static byte[] observationsByKinds() {
+        byte[] result = new byte[1 << UnitKind.values().length];
+        for (int kinds = 0; kinds < result.length; kinds++) {
+            result[kinds] = EMPTY;
+            if ((kinds & UnitKind.PELLET.getMask()) != 0) {
+                result[kinds] = PELLET;
+            }
+            if ((kinds & UnitKind.GHOST.getMask()) != 0) {
+                result[kinds] = GHOST;
+            }
+            if ((kinds & UnitKind.PLAYER.getMask()) != 0) {
+                result[kinds] = PLAYER;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Steps all games, a chunk of consecutive games per task. The tasks are
+     * created once and reinitialized for every step.
+     */
+    @SuppressFBWarnings(
+        value = "SE_BAD_FIELD_INNER_CLASS",
+        justification = "tasks are never serialized"
+    )
+    private final class StepTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The tasks of the chunks.
+         */
+        private final ChunkTask[] chunks;
+
+        /**
+         * Creates the tasks for all games.
+         *
+         * @param size
+         *            The amount of games.
+         * @param chunkSize
+         *            The amount of games per chunk.
+         */
+        StepTask(int size, int chunkSize) {
+            chunks = new ChunkTask[(size + chunkSize - 1) / chunkSize];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = new ChunkTask(i * chunkSize, Math.min(size, (i + 1) * chunkSize));
+            }
+        }
+
+        /**
+         * @return <code>true</code> iff all games are in a single chunk, which
+         *         is better stepped on the calling thread than handed to the
+         *         pool.
+         */
+        boolean isSingleChunk() {
+            return chunks.length == 1;
+        }
+
+        @Override
+        protected void compute() {
+            for (ChunkTask chunk : chunks) {
+                chunk.reinitialize();
+            }
+            invokeAll(chunks);
+        }
+    }
+
+    /**
+     * Steps a chunk of consecutive games.
+     */
+    @SuppressFBWarnings(
+        value = "SE_BAD_FIELD_INNER_CLASS",
+        justification = "tasks are never serialized"
+    )
+    private final class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The first game of the chunk.
+         */
+        private final int start;
+
+        /**
+         * The game after the chunk.
+         */
+        private final int end;
+
+        /**
+         * Creates a task for a chunk of games.
+         *
+         * @param start
+         *            The first game of the chunk.
+         * @param end
+         *            The game after the chunk.
+         */
+        ChunkTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            for (int game = start; game < end; game++) {
+                stepGame(game);
+            }
+        }
+    }
+}
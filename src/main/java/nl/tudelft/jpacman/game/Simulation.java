@@ -0,0 +1,166 @@
+package nl.tudelft.jpacman.game;
+
+import java.util.List;
+
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.level.Level;
+import nl.tudelft.jpacman.level.Player;
+import nl.tudelft.jpacman.level.TickScheduler;
+import nl.tudelft.jpacman.level.VirtualTimeTickScheduler;
+
+/**
+ * A headless way of playing a single player {@link Game}, one tick at a time.
+ * <p>
+ * Every call to {@link #step(Direction)} makes the player's move, if any, and
+ * then lets the ghosts that are due make theirs, all on the calling thread.
+ * Time is virtual: a step stands for one tick of game time, regardless of how
+ * long it takes, so there are no threads, no sleeps and no user interface
+ * involved. This makes the game usable as an environment for agents that
+ * play many games as fast as possible.
+ * <p>
+ * The level of the game must be driven by a {@link VirtualTimeTickScheduler},
+ * see {@link nl.tudelft.jpacman.Launcher#makeSimulation()}. A simulation is
+ * not thread safe.
+ */
+public class Simulation {
+
+    /**
+     * The game being played.
+     */
+    private final Game game;
+
+    /**
+     * The player making the moves.
+     */
+    private final Player player;
+
+    /**
+     * The scheduler moving the ghosts of the level.
+     */
+    private final VirtualTimeTickScheduler scheduler;
+
+    /**
+     * The amount of steps taken so far.
+     */
+    private long steps;
+
+    /**
+     * Creates a new simulation of a game.
+     *
+     * @param game
+     *            The game to play, which must have a single player and a
+     *            level driven by a {@link VirtualTimeTickScheduler}.
+     */
+    public Simulation(Game game) {
+        assert game != null;
+        List<Player> players = game.getPlayers();
+        if (players.size() != 1) {
+            throw new IllegalArgumentException("Game has " + players.size() + " players.");
+        }
+        TickScheduler levelScheduler = game.getLevel().getScheduler();
+        if (!(levelScheduler instanceof VirtualTimeTickScheduler)) {
+            throw new IllegalArgumentException("Level does not run on virtual time.");
+        }
+        this.game = game;
+        this.player = players.get(0);
+        this.scheduler = (VirtualTimeTickScheduler) levelScheduler;
+    }
+
+    /**
+     * Starts or resumes the game. The ghosts are scheduled anew, as when the
+     * game is started in the user interface.
+     */
+    public void start() {
+        game.start();
+    }
+
+    /**
+     * Advances the game by a single tick: the player moves in the given
+     * direction, after which the ghosts that are due move. Nothing happens if
+     * the game is not in progress.
+     *
+     * @param action
+     *            The direction the player moves in, or <code>null</code> to
+     *            let the player stand still.
+     * @return <code>true</code> iff the game is still in progress after the
+     *         step.
+     */
+    public boolean step(Direction action) {
+        if (!game.isInProgress()) {
+            return false;
+        }
+        if (action != null) {
+            game.move(player, action);
+        }
+        scheduler.tick();
+        steps++;
+        return game.isInProgress();
+    }
+
+    /**
+     * Advances the game by the given amount of ticks, or until it ends,
+     * without moving the player.
+     *
+     * @param ticks
+     *            The amount of ticks to advance.
+     * @return <code>true</code> iff the game is still in progress afterwards.
+     */
+    public boolean idle(long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            if (!step(null)) {
+                return false;
+            }
+        }
+        return game.isInProgress();
+    }
+
+    /**
+     * @return The amount of steps taken so far.
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return The amount of game time that passed, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return steps * scheduler.getTickLength();
+    }
+
+    /**
+     * @return <code>true</code> iff the game ended with the player eating all
+     *         pellets.
+     */
+    public boolean isWon() {
+        return getLevel().remainingPellets() == 0;
+    }
+
+    /**
+     * @return <code>true</code> iff the game ended with the player dying.
+     */
+    public boolean isLost() {
+        return !getLevel().isAnyPlayerAlive();
+    }
+
+    /**
+     * @return The game being played.
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * @return The level being played.
+     */
+    public Level getLevel() {
+        return game.getLevel();
+    }
+
+    /**
+     * @return The player making the moves.
+     */
+    public Player getPlayer() {
+        return player;
+    }
+}
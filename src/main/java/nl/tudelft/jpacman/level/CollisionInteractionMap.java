@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import nl.tudelft.jpacman.board.Unit;
 
@@ -16,16 +17,25 @@ import nl.tudelft.jpacman.board.Unit;
 public class CollisionInteractionMap implements CollisionMap {
 
     /**
-     * The collection of collision handlers.
+     * The handler of collisions for which no handler is listed, which does
+     * nothing.
      */
-    private final Map<Class<? extends Unit>,
-        Map<Class<? extends Unit>, CollisionHandler<?, ?>>> handlers;
+    private static final CollisionHandler<Unit, Unit> NO_HANDLER = (collider, collidee) -> { };
+
+    /**
+     * The handlers listed so far, together with the handlers resolved from
+     * them. Adding a handler replaces it with a new snapshot, so collisions
+     * handled meanwhile on other threads see either all handlers of the old
+     * snapshot or all of the new one, and never a resolved handler that an
+     * added handler should have taken over from.
+     */
+    private volatile Handlers handlers;
 
     /**
      * Creates a new, empty collision map.
      */
     public CollisionInteractionMap() {
-        this.handlers = new HashMap<>();
+        this.handlers = new Handlers(new HashMap<>());
     }
 
     /**
@@ -68,18 +78,24 @@ public class CollisionInteractionMap implements CollisionMap {
      * @param handler
      *            The handler that handles the collision.
      */
-    public <C1 extends Unit, C2 extends Unit> void onCollision(
+    public synchronized <C1 extends Unit, C2 extends Unit> void onCollision(
         Class<C1> collider, Class<C2> collidee, boolean symetric,
         CollisionHandler<C1, C2> handler) {
-        addHandler(collider, collidee, handler);
+        Map<Class<? extends Unit>, Map<Class<? extends Unit>, CollisionHandler<?, ?>>> listed =
+            new HashMap<>();
+        handlers.listed.forEach((type, map) -> listed.put(type, new HashMap<>(map)));
+        addHandler(listed, collider, collidee, handler);
         if (symetric) {
-            addHandler(collidee, collider, new InverseCollisionHandler<>(handler));
+            addHandler(listed, collidee, collider, new InverseCollisionHandler<>(handler));
         }
+        handlers = new Handlers(listed);
     }
 
     /**
      * Adds the collision interaction..
      *
+     * @param listed
+     *            The handlers to add to.
      * @param collider
      *            The collider type.
      * @param collidee
@@ -87,13 +103,15 @@ public class CollisionInteractionMap implements CollisionMap {
      * @param handler
      *            The handler that handles the collision.
      */
-    private void addHandler(Class<? extends Unit> collider,
-                            Class<? extends Unit> collidee, CollisionHandler<?, ?> handler) {
-        if (!handlers.containsKey(collider)) {
-            handlers.put(collider, new HashMap<>());
+    private static void addHandler(
+        Map<Class<? extends Unit>, Map<Class<? extends Unit>, CollisionHandler<?, ?>>> listed,
+        Class<? extends Unit> collider, Class<? extends Unit> collidee,
+        CollisionHandler<?, ?> handler) {
+        if (!listed.containsKey(collider)) {
+            listed.put(collider, new HashMap<>());
         }
 
-        Map<Class<? extends Unit>, CollisionHandler<?, ?>> map = handlers.get(collider);
+        Map<Class<? extends Unit>, CollisionHandler<?, ?>> map = listed.get(collider);
         map.put(collidee, handler);
     }
 
@@ -115,23 +133,9 @@ public class CollisionInteractionMap implements CollisionMap {
     @Override
     public <C1 extends Unit, C2 extends Unit> void collide(C1 collider,
                                                            C2 collidee) {
-        Class<? extends Unit> colliderKey = getMostSpecificClass(handlers, collider.getClass());
-        if (colliderKey == null) {
-            return;
-        }
-
-        Map<Class<? extends Unit>, CollisionHandler<?, ?>> map = handlers.get(colliderKey);
-        Class<? extends Unit> collideeKey = getMostSpecificClass(map, collidee.getClass());
-        if (collideeKey == null) {
-            return;
-        }
-
-        CollisionHandler<C1, C2> collisionHandler = (CollisionHandler<C1, C2>) map.get(collideeKey);
-        if (collisionHandler == null) {
-            return;
-        }
-
-        collisionHandler.handleCollision(collider, collidee);
+        CollisionHandler<?, ?> handler =
+            handlers.resolve(collider.getClass(), collidee.getClass());
+        ((CollisionHandler<C1, C2>) handler).handleCollision(collider, collidee);
     }
 
     /**
@@ -144,7 +148,7 @@ public class CollisionInteractionMap implements CollisionMap {
      *            The class to search the most suitable key for.
      * @return The most specific class from the key collection.
      */
-    private Class<? extends Unit> getMostSpecificClass(
+    private static Class<? extends Unit> getMostSpecificClass(
         Map<Class<? extends Unit>, ?> map, Class<? extends Unit> key) {
         List<Class<? extends Unit>> collideeInheritance = getInheritance(key);
         for (Class<? extends Unit> pointer : collideeInheritance) {
@@ -164,7 +168,7 @@ public class CollisionInteractionMap implements CollisionMap {
      * @return A list of all classes and interfaces the class inherits.
      */
     @SuppressWarnings("unchecked")
-    private List<Class<? extends Unit>> getInheritance(
+    private static List<Class<? extends Unit>> getInheritance(
         Class<? extends Unit> clazz) {
         List<Class<? extends Unit>> found = new ArrayList<>();
         found.add(clazz);
@@ -187,6 +191,89 @@ public class CollisionInteractionMap implements CollisionMap {
         return found;
     }
 
+    /**
+     * The handlers listed at some point, which are never changed, and the
+     * handlers resolved from them for the pairs of classes that collided.
+     */
+    private static final class Handlers {
+
+        /**
+         * The collection of collision handlers.
+         */
+        private final Map<Class<? extends Unit>,
+            Map<Class<? extends Unit>, CollisionHandler<?, ?>>> listed;
+
+        /**
+         * The handler found for each pair of collider and collidee classes
+         * that collided so far, or {@link #NO_HANDLER} if there was none.
+         * Looking up the most specific handler walks the inheritance of both
+         * classes, so it is done only once per pair.
+         */
+        private final Map<Class<? extends Unit>,
+            Map<Class<? extends Unit>, CollisionHandler<?, ?>>> resolved =
+            new ConcurrentHashMap<>();
+
+        /**
+         * Creates a snapshot of handlers.
+         *
+         * @param listed
+         *            The handlers, which must no longer be changed.
+         */
+        Handlers(Map<Class<? extends Unit>,
+            Map<Class<? extends Unit>, CollisionHandler<?, ?>>> listed) {
+            this.listed = listed;
+        }
+
+        /**
+         * Returns the handler of two colliding classes, finding it only if
+         * they did not collide before.
+         *
+         * @param colliderType
+         *            The class of the collider.
+         * @param collideeType
+         *            The class of the collidee.
+         * @return The handler of the collision, or {@link #NO_HANDLER} if
+         *         none is listed.
+         */
+        CollisionHandler<?, ?> resolve(Class<? extends Unit> colliderType,
+                                       Class<? extends Unit> collideeType) {
+            return resolved
+                .computeIfAbsent(colliderType, type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(collideeType, type -> findHandler(colliderType, type));
+        }
+
+        /**
+         * Finds the handler listed for the most specific classes of two
+         * colliding parties.
+         *
+         * @param colliderType
+         *            The class of the collider.
+         * @param collideeType
+         *            The class of the collidee.
+         * @return The handler of the collision, or {@link #NO_HANDLER} if
+         *         none is listed.
+         */
+        private CollisionHandler<?, ?> findHandler(Class<? extends Unit> colliderType,
+                                                  Class<? extends Unit> collideeType) {
+            Class<? extends Unit> colliderKey = getMostSpecificClass(listed, colliderType);
+            if (colliderKey == null) {
+                return NO_HANDLER;
+            }
+
+            Map<Class<? extends Unit>, CollisionHandler<?, ?>> map = listed.get(colliderKey);
+            Class<? extends Unit> collideeKey = getMostSpecificClass(map, collideeType);
+            if (collideeKey == null) {
+                return NO_HANDLER;
+            }
+
+            CollisionHandler<?, ?> handler = map.get(collideeKey);
+            if (handler == null) {
+                return NO_HANDLER;
+            }
+            return handler;
+        }
+    }
+
     /**
      * Handles the collision between two colliding parties.
      *
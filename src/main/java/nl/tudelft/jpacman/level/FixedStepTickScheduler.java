@@ -0,0 +1,445 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import nl.tudelft.jpacman.npc.Ghost;
+
+/**
+ * A scheduler that advances all NPCs from a single thread in fixed time steps.
+ * <p>
+ * Due NPCs are kept on a hashed timing wheel: every NPC sits in the slot of
+ * the tick it is due in, so a tick only looks at the NPCs in one slot rather
+ * than at all of them. NPCs that are due in the same tick move in the order in
+ * which they were scheduled, which makes a run deterministic given the same
+ * intervals. The amount of threads is one, regardless of the number of NPCs.
+ * <p>
+ * A move that fails does not stop the other NPCs: its exception is handed to
+ * the uncaught exception handler of the ticking thread, and the NPC is
+ * rescheduled as if it had moved.
+ * <p>
+ * The wheel is locked only to take the NPCs that are due and to reschedule
+ * them, not while they move, since a move may stop or restart the level and
+ * so reset this scheduler from another thread. NPCs still moving when the
+ * scheduler is reset are not rescheduled, as the reset schedules them anew.
+ */
+public class FixedStepTickScheduler implements TickScheduler {
+
+    /**
+     * The default length of a tick in milliseconds.
+     */
+    public static final long DEFAULT_TICK_LENGTH = 10L;
+
+    /**
+     * The number of slots on the wheel, must be a power of two. NPCs that are
+     * due more than this many ticks ahead simply stay in their slot for an
+     * extra round.
+     */
+    private static final int WHEEL_SIZE = 64;
+
+    /**
+     * Mask to map a tick number onto a slot.
+     */
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    /**
+     * The length of a single tick in milliseconds.
+     */
+    private final long tickLength;
+
+    /**
+     * The first entry of every slot.
+     */
+    private final Entry[] heads = new Entry[WHEEL_SIZE];
+
+    /**
+     * The last entry of every slot, so entries can be appended in order.
+     */
+    private final Entry[] tails = new Entry[WHEEL_SIZE];
+
+    /**
+     * Guards the wheel and the statistics.
+     */
+    private final Object wheelLock = new Object();
+
+    /**
+     * The number of the tick that was executed last.
+     */
+    private long currentTick;
+
+    /**
+     * The amount of times the wheel was reset, so a tick can tell whether the
+     * NPCs it moved still belong on the wheel.
+     */
+    private long resets;
+
+    /**
+     * The callback making the NPC moves, <code>null</code> when not started.
+     */
+    private Consumer<Ghost> mover;
+
+    /**
+     * The service driving the ticks, <code>null</code> when not running.
+     */
+    private volatile ScheduledExecutorService service;
+
+    /**
+     * Invoked after every tick, or <code>null</code>.
+     */
+    private volatile Runnable tickListener;
+
+    /**
+     * The amount of ticks executed since the last start.
+     */
+    private long tickCount;
+
+    /**
+     * The total time spent executing ticks since the last start.
+     */
+    private long totalTickNanos;
+
+    /**
+     * The longest time a single tick took since the last start.
+     */
+    private long maxTickNanos;
+
+    /**
+     * Creates a new scheduler with ticks of {@value #DEFAULT_TICK_LENGTH} ms.
+     */
+    public FixedStepTickScheduler() {
+        this(DEFAULT_TICK_LENGTH);
+    }
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param tickLength
+     *            The length of a tick in milliseconds. NPC intervals are
+     *            rounded up to a whole number of ticks.
+     */
+    public FixedStepTickScheduler(long tickLength) {
+        assert tickLength > 0;
+        this.tickLength = tickLength;
+    }
+
+    @Override
+    public void start(Collection<Ghost> npcs, Consumer<Ghost> npcMover) {
+        reset(npcs, npcMover);
+        ScheduledExecutorService newService = Executors.newSingleThreadScheduledExecutor();
+        newService.scheduleAtFixedRate(this::tick, tickLength, tickLength,
+            TimeUnit.MILLISECONDS);
+        service = newService;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running = service;
+        if (running != null) {
+            running.shutdownNow();
+            service = null;
+        }
+    }
+
+    /**
+     * Empties the wheel and puts every NPC on it, due after half its interval.
+     * No ticks are executed until {@link #tick()} is called, either by the
+     * thread started in {@link #start(Collection, Consumer)} or manually.
+     *
+     * @param npcs
+     *            The NPCs to schedule.
+     * @param npcMover
+     *            The callback that lets a single NPC make its move.
+     */
+    public void reset(Collection<Ghost> npcs, Consumer<Ghost> npcMover) {
+        assert npcs != null;
+        assert npcMover != null;
+
+        synchronized (wheelLock) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                heads[i] = null;
+                tails[i] = null;
+            }
+            currentTick = 0L;
+            resets++;
+            tickCount = 0L;
+            totalTickNanos = 0L;
+            maxTickNanos = 0L;
+            mover = npcMover;
+            for (Ghost npc : npcs) {
+                schedule(new Entry(npc), currentTick, npc.getInterval() / 2);
+            }
+        }
+    }
+
+    /**
+     * Executes a single tick: all NPCs that are due move, in the order in
+     * which they were scheduled, and are then rescheduled. The tick listener
+     * is invoked afterwards.
+     */
+    public void tick() {
+        advance(true);
+        notifyTickListener();
+    }
+
+    /**
+     * Executes a single tick like {@link #tick()}, without measuring how long
+     * it takes.
+     */
+    protected void tickUntimed() {
+        advance(false);
+        notifyTickListener();
+    }
+
+    @Override
+    public void setTickListener(Runnable listener) {
+        this.tickListener = listener;
+    }
+
+    /**
+     * Invokes the tick listener, if any. Its time is not counted as part of
+     * the tick.
+     */
+    private void notifyTickListener() {
+        Runnable listener = tickListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Moves and reschedules the NPCs that are due in the next tick, holding
+     * the wheel lock only while taking and rescheduling them.
+     *
+     * @param timed
+     *            <code>true</code> to count the time the tick takes.
+     */
+    private void advance(boolean timed) {
+        long start = 0L;
+        if (timed) {
+            start = System.nanoTime();
+        }
+        Entry due;
+        long tick;
+        long round;
+        Consumer<Ghost> moves;
+        synchronized (wheelLock) {
+            tick = ++currentTick;
+            round = resets;
+            moves = mover;
+            due = takeDue(tick);
+        }
+        moveAll(due, moves);
+        synchronized (wheelLock) {
+            if (round != resets) {
+                return;
+            }
+            reschedule(due, tick);
+            tickCount++;
+            if (timed) {
+                long duration = System.nanoTime() - start;
+                totalTickNanos += duration;
+                maxTickNanos = Math.max(maxTickNanos, duration);
+            }
+        }
+    }
+
+    /**
+     * Moves NPCs in order. A move that fails is reported, and does not keep
+     * the other NPCs from moving.
+     *
+     * @param due
+     *            The first entry of the NPCs to move, linked to the others.
+     * @param moves
+     *            The callback that lets a single NPC make its move.
+     */
+    private static void moveAll(Entry due, Consumer<Ghost> moves) {
+        for (Entry entry = due; entry != null; entry = entry.next) {
+            try {
+                moves.accept(entry.npc);
+            } catch (RuntimeException e) {
+                report(e);
+            }
+        }
+    }
+
+    /**
+     * Puts NPCs that moved back on the wheel, each one interval after the
+     * tick in which it moved.
+     *
+     * @param due
+     *            The first entry of the NPCs that moved, linked to the others.
+     * @param tick
+     *            The tick in which they moved.
+     */
+    private void reschedule(Entry due, long tick) {
+        Entry entry = due;
+        while (entry != null) {
+            Entry next = entry.next;
+            schedule(entry, tick, entry.npc.getInterval());
+            entry = next;
+        }
+    }
+
+    /**
+     * Hands the exception of a failed move to the uncaught exception handler
+     * of the current thread, which prints it unless another was installed.
+     *
+     * @param failure
+     *            The exception thrown by the move.
+     */
+    private static void report(RuntimeException failure) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, failure);
+    }
+
+    /**
+     * Unlinks all entries that are due in a tick.
+     *
+     * @param tick
+     *            The tick.
+     * @return The first due entry, linked to the others in order, or
+     *         <code>null</code> if nothing is due.
+     */
+    private Entry takeDue(long tick) {
+        int slot = (int) (tick & WHEEL_MASK);
+        Entry dueHead = null;
+        Entry dueTail = null;
+        Entry previous = null;
+        Entry entry = heads[slot];
+        while (entry != null) {
+            Entry next = entry.next;
+            if (entry.dueTick == tick) {
+                unlink(slot, previous, entry);
+                entry.next = null;
+                if (dueTail == null) {
+                    dueHead = entry;
+                } else {
+                    dueTail.next = entry;
+                }
+                dueTail = entry;
+            } else {
+                previous = entry;
+            }
+            entry = next;
+        }
+        return dueHead;
+    }
+
+    /**
+     * Removes an entry from a slot.
+     *
+     * @param slot
+     *            The slot the entry is in.
+     * @param previous
+     *            The entry before it, or <code>null</code> if it is the head.
+     * @param entry
+     *            The entry to remove.
+     */
+    private void unlink(int slot, Entry previous, Entry entry) {
+        if (previous == null) {
+            heads[slot] = entry.next;
+        } else {
+            previous.next = entry.next;
+        }
+        if (tails[slot] == entry) {
+            tails[slot] = previous;
+        }
+    }
+
+    /**
+     * Appends an entry to the slot of the tick it is due in.
+     *
+     * @param entry
+     *            The entry to schedule.
+     * @param from
+     *            The tick the delay starts at.
+     * @param delay
+     *            The delay in milliseconds, rounded up to whole ticks with a
+     *            minimum of one tick.
+     */
+    private void schedule(Entry entry, long from, long delay) {
+        long ticks = Math.max(1L, (delay + tickLength - 1) / tickLength);
+        entry.dueTick = from + ticks;
+        entry.next = null;
+        int slot = (int) (entry.dueTick & WHEEL_MASK);
+        if (tails[slot] == null) {
+            heads[slot] = entry;
+        } else {
+            tails[slot].next = entry;
+        }
+        tails[slot] = entry;
+    }
+
+    /**
+     * @return The length of a tick in milliseconds.
+     */
+    public long getTickLength() {
+        return tickLength;
+    }
+
+    /**
+     * @return The amount of ticks executed since the last start.
+     */
+    public long getTickCount() {
+        synchronized (wheelLock) {
+            return tickCount;
+        }
+    }
+
+    /**
+     * @return The average time a tick took since the last start, in
+     *         nanoseconds, or 0 if no ticks were executed yet.
+     */
+    public long getAverageTickNanos() {
+        synchronized (wheelLock) {
+            if (tickCount == 0L) {
+                return 0L;
+            }
+            return totalTickNanos / tickCount;
+        }
+    }
+
+    /**
+     * @return The longest time a single tick took since the last start, in
+     *         nanoseconds.
+     */
+    public long getMaxTickNanos() {
+        synchronized (wheelLock) {
+            return maxTickNanos;
+        }
+    }
+
+    /**
+     * A scheduled NPC on the wheel.
+     */
+    private static final class Entry {
+
+        /**
+         * The NPC to move.
+         */
+        private final Ghost npc;
+
+        /**
+         * The tick in which the NPC is due.
+         */
+        private long dueTick;
+
+        /**
+         * The next entry in the same slot.
+         */
+        private Entry next;
+
+        /**
+         * Creates a new, unscheduled entry.
+         *
+         * @param npc
+         *            The NPC to move.
+         */
+        Entry(Ghost npc) {
+            this.npc = npc;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import nl.tudelft.jpacman.npc.Ghost;
+
+/**
+ * Hands {@link FrameSnapshot}s of a level from the threads moving its units
+ * to a reader, such as the user interface, through three snapshots that are
+ * reused: one being written, one being read, and the latest published one in
+ * between. Publishing and reading never wait for each other, the reader
+ * always gets the latest published snapshot, and publishing allocates
+ * nothing once the snapshots have grown to fit the level.
+ * <p>
+ * Snapshots may be published from any thread, but must be read by a single
+ * thread at a time.
+ */
+public final class FrameExchange {
+
+    /**
+     * The amount of snapshots.
+     */
+    private static final int BUFFERS = 3;
+
+    /**
+     * The bits of {@link #middle} holding the index of the snapshot.
+     */
+    private static final int INDEX_MASK = 3;
+
+    /**
+     * The bit of {@link #middle} set when it was published but not read yet.
+     */
+    private static final int FRESH = 4;
+
+    /**
+     * The snapshots.
+     */
+    private final FrameSnapshot[] buffers = new FrameSnapshot[BUFFERS];
+
+    /**
+     * The index of the snapshot in between, possibly with {@link #FRESH} set.
+     */
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    /**
+     * The numbers of the sprites in the snapshots.
+     */
+    private final SpriteIds spriteIds = new SpriteIds();
+
+    /**
+     * The index of the snapshot being written.
+     */
+    private int writing;
+
+    /**
+     * The index of the snapshot being read.
+     */
+    private int reading = 2;
+
+    /**
+     * The amount of snapshots published.
+     */
+    private long published;
+
+    /**
+     * Creates an exchange for the snapshots of a board.
+     *
+     * @param width
+     *            The width of the board.
+     * @param height
+     *            The height of the board.
+     */
+    FrameExchange(int width, int height) {
+        for (int i = 0; i < BUFFERS; i++) {
+            buffers[i] = new FrameSnapshot(width, height);
+        }
+    }
+
+    /**
+     * Returns the latest published snapshot, which stays unchanged until this
+     * method is called again. If nothing was published since the last call,
+     * the same snapshot is returned.
+     *
+     * @return The latest snapshot.
+     */
+    public FrameSnapshot acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            reading = middle.getAndSet(reading) & INDEX_MASK;
+        }
+        return buffers[reading];
+    }
+
+    /**
+     * @return The amount of snapshots published so far.
+     */
+    public synchronized long getPublished() {
+        return published;
+    }
+
+    /**
+     * Captures the state of a level in a snapshot and publishes it. The
+     * caller makes sure no unit moves in the meantime.
+     *
+     * @param players
+     *            The players of the level.
+     * @param npcs
+     *            The NPCs of the level.
+     * @param pellets
+     *            The squares holding a pellet.
+     */
+    void publish(List<Player> players, List<Ghost> npcs, PelletSquares pellets) {
+        publishIf(players, npcs, pellets, () -> true);
+    }
+
+    /**
+     * Captures the state of a level in a snapshot and publishes it, unless it
+     * turns out units moved during the capture. A snapshot that is not
+     * published is overwritten by the next capture.
+     *
+     * @param players
+     *            The players of the level.
+     * @param npcs
+     *            The NPCs of the level.
+     * @param pellets
+     *            The squares holding a pellet.
+     * @param unchanged
+     *            Tells, once the snapshot is captured, whether no unit moved
+     *            since the capture started.
+     * @return <code>true</code> iff the snapshot was published.
+     */
+    synchronized boolean publishIf(List<Player> players, List<Ghost> npcs,
+                                   PelletSquares pellets, BooleanSupplier unchanged) {
+        buffers[writing].capture(published + 1, players, npcs, pellets, spriteIds);
+        if (!unchanged.getAsBoolean()) {
+            return false;
+        }
+        published++;
+        writing = middle.getAndSet(writing | FRESH) & INDEX_MASK;
+        return true;
+    }
+}
@@ -0,0 +1,296 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.Arrays;
+import java.util.List;
+
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.npc.Ghost;
+import nl.tudelft.jpacman.sprite.Sprite;
+
+/**
+ * The state of a level at one moment, as far as it is needed to draw it: the
+ * squares holding a pellet, the position, direction and sprite of every other
+ * unit on the board, and the score of every player. Everything is kept in
+ * primitive arrays, with sprites referred to by number.
+ * <p>
+ * Snapshots are handed from the level to its readers by a
+ * {@link FrameExchange}, which reuses them. A snapshot does not change while
+ * a reader holds it, that is, until the reader acquires the next one. The
+ * board itself is not part of a snapshot, as its squares never change.
+ */
+public final class FrameSnapshot {
+
+    /**
+     * The amount of squares a word of the pellet bit set covers.
+     */
+    private static final int WORD_SIZE = Long.SIZE;
+
+    /**
+     * The width of the board.
+     */
+    private final int width;
+
+    /**
+     * The height of the board.
+     */
+    private final int height;
+
+    /**
+     * The squares holding a pellet, one bit per square index.
+     */
+    private final long[] pellets;
+
+    /**
+     * The number of this snapshot, counting the snapshots published.
+     */
+    private long sequence;
+
+    /**
+     * The amount of units other than pellets on the board.
+     */
+    private int unitCount;
+
+    /**
+     * The index of the square of every unit.
+     */
+    private int[] unitSquares = new int[0];
+
+    /**
+     * The ordinal of the direction of every unit.
+     */
+    private byte[] unitDirections = new byte[0];
+
+    /**
+     * The number of the sprite of every unit.
+     */
+    private int[] unitSprites = new int[0];
+
+    /**
+     * The amount of players.
+     */
+    private int playerCount;
+
+    /**
+     * The score of every player.
+     */
+    private int[] scores = new int[0];
+
+    /**
+     * Whether every player is alive.
+     */
+    private boolean[] alive = new boolean[0];
+
+    /**
+     * The sprites by number, possibly longer than needed.
+     */
+    private Sprite[] sprites = new Sprite[0];
+
+    /**
+     * The sprite of the pellets, or <code>null</code> if there are none.
+     */
+    private Sprite pelletSprite;
+
+    /**
+     * Creates an empty snapshot.
+     *
+     * @param width
+     *            The width of the board.
+     * @param height
+     *            The height of the board.
+     */
+    FrameSnapshot(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pellets = new long[(width * height + WORD_SIZE - 1) / WORD_SIZE];
+    }
+
+    /**
+     * @return The number of this snapshot. Later snapshots of a level have
+     *         higher numbers; 0 is a snapshot without anything on the board.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return The width of the board.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return The height of the board.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @param index
+     *            The index of a square, see {@link Square#getIndex()}.
+     * @return <code>true</code> iff the square holds a pellet.
+     */
+    public boolean hasPellet(int index) {
+        return (pellets[index / WORD_SIZE] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return The sprite of the pellets, or <code>null</code> if there are
+     *         none.
+     */
+    public Sprite getPelletSprite() {
+        return pelletSprite;
+    }
+
+    /**
+     * @return The amount of units other than pellets on the board: the
+     *         ghosts first, then the players.
+     */
+    public int getUnitCount() {
+        return unitCount;
+    }
+
+    /**
+     * @param unit
+     *            The number of a unit.
+     * @return The index of the square of the unit.
+     */
+    public int getUnitSquare(int unit) {
+        assert unit < unitCount;
+        return unitSquares[unit];
+    }
+
+    /**
+     * @param unit
+     *            The number of a unit.
+     * @return The direction the unit faces.
+     */
+    public Direction getUnitDirection(int unit) {
+        assert unit < unitCount;
+        return Direction.all()[unitDirections[unit]];
+    }
+
+    /**
+     * @param unit
+     *            The number of a unit.
+     * @return The sprite of the unit.
+     */
+    public Sprite getUnitSprite(int unit) {
+        assert unit < unitCount;
+        return sprites[unitSprites[unit]];
+    }
+
+    /**
+     * @param unit
+     *            The number of a unit.
+     * @return The number of the sprite of the unit, which is the same for
+     *         all units showing the same sprite.
+     */
+    public int getUnitSpriteId(int unit) {
+        assert unit < unitCount;
+        return unitSprites[unit];
+    }
+
+    /**
+     * @return The amount of players, in the order they were registered.
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * @param player
+     *            The number of a player.
+     * @return The score of the player.
+     */
+    public int getScore(int player) {
+        assert player < playerCount;
+        return scores[player];
+    }
+
+    /**
+     * @param player
+     *            The number of a player.
+     * @return <code>true</code> iff the player is alive.
+     */
+    public boolean isAlive(int player) {
+        assert player < playerCount;
+        return alive[player];
+    }
+
+    /**
+     * Overwrites this snapshot with the current state of a level. The caller
+     * makes sure no unit moves in the meantime.
+     *
+     * @param number
+     *            The number of the snapshot.
+     * @param players
+     *            The players of the level.
+     * @param npcs
+     *            The NPCs of the level.
+     * @param pelletSquares
+     *            The squares holding a pellet, one bit per square index.
+     * @param spriteIds
+     *            The numbers of the sprites.
+     */
+    void capture(long number, List<Player> players, List<Ghost> npcs,
+                 PelletSquares pelletSquares, SpriteIds spriteIds) {
+        this.sequence = number;
+        pelletSquares.copyTo(pellets);
+        this.pelletSprite = pelletSquares.getSprite();
+        ensureCapacity(players.size(), players.size() + npcs.size());
+        unitCount = 0;
+        for (Ghost npc : npcs) {
+            addUnit(npc, spriteIds);
+        }
+        playerCount = players.size();
+        for (int i = 0; i < playerCount; i++) {
+            Player player = players.get(i);
+            scores[i] = player.getScore();
+            alive[i] = player.isAlive();
+            addUnit(player, spriteIds);
+        }
+        this.sprites = spriteIds.getSprites();
+    }
+
+    /**
+     * Adds a unit to this snapshot if it is on the board.
+     *
+     * @param unit
+     *            The unit.
+     * @param spriteIds
+     *            The numbers of the sprites.
+     */
+    private void addUnit(Unit unit, SpriteIds spriteIds) {
+        if (!unit.hasSquare()) {
+            return;
+        }
+        unitSquares[unitCount] = unit.getSquare().getIndex();
+        unitDirections[unitCount] = (byte) unit.getDirection().ordinal();
+        unitSprites[unitCount] = spriteIds.idOf(unit.getSprite());
+        unitCount++;
+    }
+
+    /**
+     * Grows the arrays of this snapshot if needed.
+     *
+     * @param players
+     *            The amount of players.
+     * @param units
+     *            The amount of units.
+     */
+    private void ensureCapacity(int players, int units) {
+        if (scores.length < players) {
+            scores = new int[players];
+            alive = new boolean[players];
+        }
+        if (unitSquares.length < units) {
+            unitSquares = Arrays.copyOf(unitSquares, units);
+            unitDirections = Arrays.copyOf(unitDirections, units);
+            unitSprites = Arrays.copyOf(unitSprites, units);
+        }
+    }
+}
@@ -1,21 +1,21 @@
 package nl.tudelft.jpacman.level;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import nl.tudelft.jpacman.board.Board;
 import nl.tudelft.jpacman.board.Direction;
 import nl.tudelft.jpacman.board.Square;
 import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.board.UnitKind;
 import nl.tudelft.jpacman.npc.Ghost;
+import nl.tudelft.jpacman.npc.ghost.DistanceField;
+import nl.tudelft.jpacman.npc.ghost.HierarchicalPathfinder;
+import nl.tudelft.jpacman.npc.ghost.NextHopTable;
 
 /**
  * A level of Pac-Man. A level consists of the board with the players and the
@@ -26,6 +26,18 @@ import nl.tudelft.jpacman.npc.Ghost;
 @SuppressWarnings("PMD.TooManyMethods")
 public class Level {
 
+    /**
+     * The amount of locks squares are spread over in striped locking mode, a
+     * power of two.
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * The amount of times a snapshot is captured in striped locking mode
+     * before giving up on it, when units keep moving during the capture.
+     */
+    private static final int PUBLISH_ATTEMPTS = 8;
+
     /**
      * The board of this level.
      */
@@ -36,6 +48,12 @@ public class Level {
      */
     private final Object moveLock = new Object();
 
+    /**
+     * The locks of the squares, by square index modulo their amount, or
+     * <code>null</code> if all moves take the {@link #moveLock}.
+     */
+    private volatile Stripe[] squareLocks;
+
     /**
      * The lock that ensures starting and stopping can't interfere with each
      * other.
@@ -43,9 +61,14 @@ public class Level {
     private final Object startStopLock = new Object();
 
     /**
-     * The NPCs of this level and, if they are running, their schedules.
+     * The NPCs of this level.
      */
-    private final Map<Ghost, ScheduledExecutorService> npcs;
+    private final List<Ghost> npcs;
+
+    /**
+     * The scheduler that decides when the NPCs move.
+     */
+    private final TickScheduler scheduler;
 
     /**
      * <code>true</code> iff this level is currently in progress, i.e. players
@@ -53,6 +76,12 @@ public class Level {
      */
     private boolean inProgress;
 
+    /**
+     * <code>true</code> iff the observers were told this level was won or
+     * lost since it was last started.
+     */
+    private final AtomicBoolean ended = new AtomicBoolean();
+
     /**
      * The squares from which players can start this game.
      */
@@ -68,6 +97,11 @@ public class Level {
      */
     private final List<Player> players;
 
+    /**
+     * The distances to the players, shared by all NPCs.
+     */
+    private final DistanceField distanceField;
+
     /**
      * The table of possible collisions between units.
      */
@@ -78,6 +112,29 @@ public class Level {
      */
     private final Set<LevelObserver> observers;
 
+    /**
+     * The amount of pellets left on the board, counted once when the level is
+     * created and maintained as pellets are eaten.
+     */
+    private final AtomicInteger pelletCount;
+
+    /**
+     * <code>true</code> iff every call to {@link #remainingPellets()} should
+     * verify the maintained count against a full scan of the board.
+     */
+    private volatile boolean verifyPelletCount;
+
+    /**
+     * The squares holding a pellet.
+     */
+    private final PelletSquares pelletSquares;
+
+    /**
+     * Hands snapshots of this level to its readers, or <code>null</code> if
+     * none were asked for.
+     */
+    private volatile FrameExchange frames;
+
     /**
      * Creates a new level for the board.
      *
@@ -92,21 +149,46 @@ public class Level {
      */
     public Level(Board board, List<Ghost> ghosts, List<Square> startPositions,
                  CollisionMap collisionMap) {
+        this(board, ghosts, startPositions, collisionMap, new FixedStepTickScheduler());
+    }
+
+    /**
+     * Creates a new level for the board.
+     *
+     * @param board
+     *            The board for the level.
+     * @param ghosts
+     *            The ghosts on the board.
+     * @param startPositions
+     *            The squares on which players start on this board.
+     * @param collisionMap
+     *            The collection of collisions that should be handled.
+     * @param tickScheduler
+     *            The scheduler that decides when the ghosts move.
+     */
+    public Level(Board board, List<Ghost> ghosts, List<Square> startPositions,
+                 CollisionMap collisionMap, TickScheduler tickScheduler) {
         assert board != null;
         assert ghosts != null;
         assert startPositions != null;
+        assert tickScheduler != null;
 
         this.board = board;
         this.inProgress = false;
-        this.npcs = new HashMap<>();
-        for (Ghost ghost : ghosts) {
-            npcs.put(ghost, null);
-        }
+        this.npcs = new ArrayList<>(ghosts);
+        this.scheduler = tickScheduler;
         this.startSquares = startPositions;
         this.startSquareIndex = 0;
         this.players = new ArrayList<>();
+        this.distanceField = new DistanceField();
+        this.distanceField.setTopology(board.getTopology());
+        for (Ghost npc : npcs) {
+            npc.setDistanceField(distanceField);
+        }
         this.collisions = collisionMap;
         this.observers = new HashSet<>();
+        this.pelletSquares = new PelletSquares(board.getWidth() * board.getHeight());
+        this.pelletCount = new AtomicInteger(countPellets(pelletSquares));
     }
 
     /**
@@ -145,12 +227,59 @@ public class Level {
             return;
         }
         players.add(player);
+        distanceField.register(player);
         Square square = startSquares.get(startSquareIndex);
         player.occupy(square);
         startSquareIndex++;
         startSquareIndex %= startSquares.size();
     }
 
+    /**
+     * Lets the NPCs look up their paths in a table of all shortest paths on
+     * the board, rather than searching them.
+     *
+     * @param table
+     *            The shortest paths of the board, or <code>null</code> to
+     *            search paths instead.
+     * @throws IllegalArgumentException
+     *             When the table was built for a board with other walls.
+     */
+    public void setNextHopTable(NextHopTable table) {
+        if (table != null && !table.fits(board)) {
+            throw new IllegalArgumentException("Table was built for another board.");
+        }
+        distanceField.setNextHopTable(table);
+    }
+
+    /**
+     * @return The shortest paths the NPCs look up, or <code>null</code> if
+     *         they search paths instead.
+     */
+    public NextHopTable getNextHopTable() {
+        return distanceField.getNextHopTable();
+    }
+
+    /**
+     * Lets the NPCs plan their paths with a hierarchical pathfinder when
+     * there is no table of shortest paths, rather than searching the whole
+     * board.
+     *
+     * @param pathfinder
+     *            The pathfinder for the board, or <code>null</code> to search
+     *            paths instead.
+     */
+    public void setHierarchicalPathfinder(HierarchicalPathfinder pathfinder) {
+        distanceField.setHierarchicalPathfinder(pathfinder);
+    }
+
+    /**
+     * @return The pathfinder the NPCs plan with, or <code>null</code> if they
+     *         search paths instead.
+     */
+    public HierarchicalPathfinder getHierarchicalPathfinder() {
+        return distanceField.getHierarchicalPathfinder();
+    }
+
     /**
      * Returns the board of this level.
      *
@@ -160,9 +289,58 @@ public class Level {
         return board;
     }
 
+    /**
+     * Turns striped locking on or off. By default every move takes a single
+     * lock for the whole level, so moves never run in parallel. With striped
+     * locking, a move only takes the locks of the square the unit leaves and
+     * the square it enters, always in the same order, so moves in different
+     * parts of the board run in parallel. This is safe as long as collisions
+     * only involve the units on those two squares, as is the case for the
+     * {@link PlayerCollisions}, and as long as no unit is moved by two
+     * threads at once, as is the case for the schedulers and the user
+     * interface. Whether the level is won or lost is decided from the pellet
+     * count and the players' states, both of which can be read without
+     * locking, and the observers are told only once even if several moves end
+     * the level at the same time.
+     * <p>
+     * Striping only pays off when units are moved from several threads, as
+     * with a {@link PerNpcTickScheduler}, which moves every NPC on a thread of
+     * its own, or with several players. A {@link FixedStepTickScheduler} and
+     * a {@link VirtualTimeTickScheduler} move all NPCs one after the other on
+     * a single thread, so there only the player's moves can run alongside
+     * theirs, and the extra locks cost more than they gain. The
+     * <code>StripedLockingBenchmark</code> measures both modes.
+     * <p>
+     * The mode can only be changed while the level is not in progress.
+     *
+     * @param striped
+     *            <code>true</code> to lock squares rather than the level.
+     */
+    public void setStripedLocking(boolean striped) {
+        assert !isInProgress();
+        Stripe[] locks = null;
+        if (striped) {
+            locks = new Stripe[LOCK_STRIPES];
+            for (int i = 0; i < locks.length; i++) {
+                locks[i] = new Stripe();
+            }
+        }
+        this.squareLocks = locks;
+    }
+
+    /**
+     * @return <code>true</code> iff moves lock squares rather than the level.
+     */
+    public boolean isStripedLocking() {
+        return squareLocks != null;
+    }
+
     /**
      * Moves the unit into the given direction if possible and handles all
-     * collisions.
+     * collisions. The observers are told whether the move ended the level
+     * after all locks of the move are released, since they may stop the
+     * level, and whoever stops it may hold locks of its own while the level
+     * publishes a frame under the lock of the moves.
      *
      * @param unit
      *            The unit to move.
@@ -178,19 +356,75 @@ public class Level {
             return;
         }
 
-        synchronized (moveLock) {
-            unit.setDirection(direction);
-            Square location = unit.getSquare();
-            Square destination = location.getSquareAt(direction);
+        Stripe[] locks = squareLocks;
+        if (locks == null) {
+            synchronized (moveLock) {
+                applyMove(unit, direction);
+            }
+        } else {
+            moveStriped(unit, direction, locks);
+        }
+        updateObservers();
+        if (unit.getKind() == UnitKind.PLAYER) {
+            publishFrame();
+        }
+    }
+
+    /**
+     * Moves a unit while holding the locks of the square it leaves and the
+     * square it enters, taking the lock with the lowest number first, and
+     * counts the move on both.
+     *
+     * @param unit
+     *            The unit to move.
+     * @param direction
+     *            The direction to move the unit in.
+     * @param locks
+     *            The locks of the squares.
+     */
+    private void moveStriped(Unit unit, Direction direction, Stripe[] locks) {
+        Square location = unit.getSquare();
+        int source = location.getIndex() & (locks.length - 1);
+        int target = location.getSquareAt(direction).getIndex() & (locks.length - 1);
+        Stripe first = locks[Math.min(source, target)];
+        Stripe second = locks[Math.max(source, target)];
+        synchronized (first) {
+            synchronized (second) {
+                assert unit.getSquare() == location : "unit moved by two threads at once";
+                try {
+                    applyMove(unit, direction);
+                } finally {
+                    first.moved();
+                    second.moved();
+                }
+            }
+        }
+    }
 
-            if (destination.isAccessibleTo(unit)) {
-                List<Unit> occupants = destination.getOccupants();
-                unit.occupy(destination);
-                for (Unit occupant : occupants) {
-                    collisions.collide(unit, occupant);
+    /**
+     * Moves the unit into the given direction if possible and handles all
+     * collisions. The caller holds the locks needed.
+     *
+     * @param unit
+     *            The unit to move.
+     * @param direction
+     *            The direction to move the unit in.
+     */
+    private void applyMove(Unit unit, Direction direction) {
+        unit.setDirection(direction);
+        Square location = unit.getSquare();
+        Square destination = location.getSquareAt(direction);
+
+        if (destination.isAccessibleTo(unit)) {
+            List<Unit> occupants = destination.getOccupants();
+            unit.occupy(destination);
+            for (Unit occupant : occupants) {
+                collisions.collide(unit, occupant);
+                if (occupant instanceof Pellet && !occupant.hasSquare()) {
+                    pelletCount.decrementAndGet();
+                    pelletSquares.remove(destination.getIndex());
                 }
             }
-            updateObservers();
         }
     }
 
@@ -205,8 +439,10 @@ public class Level {
             }
             startNPCs();
             inProgress = true;
+            ended.set(false);
             updateObservers();
         }
+        publishFrame();
     }
 
     /**
@@ -221,20 +457,97 @@ public class Level {
             stopNPCs();
             inProgress = false;
         }
+        publishFrame();
     }
 
     /**
-     * Starts all NPC movement scheduling.
+     * Returns the exchange through which this level hands snapshots of its
+     * state to a reader, such as the user interface. Snapshots are published
+     * after every tick of the scheduler, after every move of a player, and
+     * when the level starts or stops. Until this method is first called, no
+     * snapshots are taken.
+     *
+     * @return The exchange of snapshots of this level.
      */
-    private void startNPCs() {
-        for (final Ghost npc : npcs.keySet()) {
-            ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor();
+    public FrameExchange getFrames() {
+        FrameExchange exchange = frames;
+        if (exchange == null) {
+            synchronized (startStopLock) {
+                exchange = frames;
+                if (exchange == null) {
+                    exchange = new FrameExchange(board.getWidth(), board.getHeight());
+                    frames = exchange;
+                    scheduler.setTickListener(this::publishFrame);
+                }
+            }
+            publishFrame();
+        }
+        return exchange;
+    }
 
-            service.schedule(new NpcMoveTask(service, npc),
-                npc.getInterval() / 2, TimeUnit.MILLISECONDS);
+    /**
+     * Publishes a snapshot of this level, if any were asked for, that shows
+     * no move half done.
+     */
+    private void publishFrame() {
+        FrameExchange exchange = frames;
+        if (exchange == null) {
+            return;
+        }
+        Stripe[] locks = squareLocks;
+        if (locks == null) {
+            synchronized (moveLock) {
+                exchange.publish(players, npcs, pelletSquares);
+            }
+        } else {
+            publishOptimistically(locks, exchange);
+        }
+    }
 
-            npcs.put(npc, service);
+    /**
+     * Publishes a snapshot of this level in striped locking mode, without
+     * stopping the units from moving. The snapshot is captured while units may
+     * move, and only published if no move was counted on any stripe in the
+     * meantime. Every stripe is counted while holding its lock, so a move in
+     * progress is waited for, and the moves counted include all changes the
+     * capture could have seen. Only one stripe is held at a time, and only to
+     * read its count. If units keep moving during every attempt, no snapshot
+     * is published, and the next one shows their moves.
+     *
+     * @param locks
+     *            The locks of the squares.
+     * @param exchange
+     *            The exchange to publish to.
+     */
+    private void publishOptimistically(Stripe[] locks, FrameExchange exchange) {
+        for (int attempt = 0; attempt < PUBLISH_ATTEMPTS; attempt++) {
+            long moves = countMoves(locks);
+            if (exchange.publishIf(players, npcs, pelletSquares,
+                () -> countMoves(locks) == moves)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param locks
+     *            The locks of the squares.
+     * @return The total amount of moves counted on all stripes, which changes
+     *         with every move.
+     */
+    private static long countMoves(Stripe[] locks) {
+        long moves = 0L;
+        for (Stripe stripe : locks) {
+            moves += stripe.getMoves();
         }
+        return moves;
+    }
+
+    /**
+     * Starts all NPC movement scheduling.
+     */
+    private void startNPCs() {
+        scheduler.start(npcs, this::moveNpc);
     }
 
     /**
@@ -242,13 +555,31 @@ public class Level {
      * executed.
      */
     private void stopNPCs() {
-        for (Entry<Ghost, ScheduledExecutorService> entry : npcs.entrySet()) {
-            ScheduledExecutorService schedule = entry.getValue();
-            assert schedule != null;
-            schedule.shutdownNow();
+        scheduler.stop();
+    }
+
+    /**
+     * Lets an NPC devise its next move and executes it.
+     *
+     * @param npc
+     *            The NPC to move.
+     */
+    private void moveNpc(Ghost npc) {
+        Direction nextMove = npc.nextMove();
+        if (nextMove != null) {
+            move(npc, nextMove);
         }
     }
 
+    /**
+     * Returns the scheduler that decides when the NPCs on this level move.
+     *
+     * @return The NPC scheduler of this level.
+     */
+    public TickScheduler getScheduler() {
+        return scheduler;
+    }
+
     /**
      * Returns whether this level is in progress, i.e. whether moves can be made
      * on the board.
@@ -260,15 +591,22 @@ public class Level {
     }
 
     /**
-     * Updates the observers about the state of this level.
+     * Updates the observers about the state of this level. Once the level is
+     * won or lost, the observers are told so only once until it is started
+     * again, however many moves see it ended.
      */
     private void updateObservers() {
-        if (!isAnyPlayerAlive()) {
+        boolean lost = !isAnyPlayerAlive();
+        boolean won = remainingPellets() == 0;
+        if (!lost && !won || !ended.compareAndSet(false, true)) {
+            return;
+        }
+        if (lost) {
             for (LevelObserver observer : observers) {
                 observer.levelLost();
             }
         }
-        if (remainingPellets() == 0) {
+        if (won) {
             for (LevelObserver observer : observers) {
                 observer.levelWon();
             }
@@ -292,11 +630,49 @@ public class Level {
     }
 
     /**
-     * Counts the pellets remaining on the board.
+     * Returns the amount of pellets remaining on the board. This is a constant
+     * time lookup, unless the count is being verified.
      *
      * @return The amount of pellets remaining on the board.
+     * @throws IllegalStateException
+     *             if the count is being verified and does not match the
+     *             pellets actually on the board.
+     * @see #setVerifyPelletCount(boolean)
      */
     public int remainingPellets() {
+        int pellets = pelletCount.get();
+        assert pellets >= 0;
+        if (verifyPelletCount) {
+            int counted = countPellets(null);
+            if (counted != pellets) {
+                throw new IllegalStateException("Pellet count out of sync: "
+                    + pellets + " maintained, " + counted + " on the board.");
+            }
+        }
+        return pellets;
+    }
+
+    /**
+     * Turns verification of the pellet count on or off. When on, every call
+     * to {@link #remainingPellets()} scans the full board, which is useful in
+     * tests but too slow for normal play.
+     *
+     * @param verify
+     *            <code>true</code> to verify the pellet count.
+     */
+    public void setVerifyPelletCount(boolean verify) {
+        this.verifyPelletCount = verify;
+    }
+
+    /**
+     * Counts the pellets on the board by visiting every square.
+     *
+     * @param marks
+     *            The set to add the squares holding a pellet to, or
+     *            <code>null</code>.
+     * @return The amount of pellets on the board.
+     */
+    private int countPellets(PelletSquares marks) {
         Board board = getBoard();
         int pellets = 0;
         for (int x = 0; x < board.getWidth(); x++) {
@@ -304,6 +680,7 @@ public class Level {
                 for (Unit unit : board.squareAt(x, y).getOccupants()) {
                     if (unit instanceof Pellet) {
                         pellets++;
+                        mark(marks, x * board.getHeight() + y, unit);
                     }
                 }
             }
@@ -313,48 +690,51 @@ public class Level {
     }
 
     /**
-     * A task that moves an NPC and reschedules itself after it finished.
+     * Adds the square of a pellet to a set, if there is one.
      *
-     * @author Jeroen Roosen
+     * @param marks
+     *            The set, or <code>null</code>.
+     * @param index
+     *            The index of the square.
+     * @param pellet
+     *            The pellet on the square.
      */
-    private final class NpcMoveTask implements Runnable {
+    private static void mark(PelletSquares marks, int index, Unit pellet) {
+        if (marks != null) {
+            marks.add(index, pellet.getSprite());
+        }
+    }
 
-        /**
-         * The service executing the task.
-         */
-        private final ScheduledExecutorService service;
+    /**
+     * The lock of the squares of a stripe, counting the moves made on them.
+     */
+    private static final class Stripe {
 
         /**
-         * The NPC to move.
+         * The amount of moves made on the squares of this stripe.
          */
-        private final Ghost npc;
+        private int moves;
 
         /**
-         * Creates a new task.
-         *
-         * @param service
-         *            The service that executes the task.
-         * @param npc
-         *            The NPC to move.
+         * Counts a move on the squares of this stripe. The caller holds the
+         * lock of this stripe.
          */
-        NpcMoveTask(ScheduledExecutorService service, Ghost npc) {
-            this.service = service;
-            this.npc = npc;
+        synchronized void moved() {
+            moves++;
         }
 
-        @Override
-        public void run() {
-            Direction nextMove = npc.nextMove();
-            if (nextMove != null) {
-                move(npc, nextMove);
-            }
-            long interval = npc.getInterval();
-            service.schedule(this, interval, TimeUnit.MILLISECONDS);
+        /**
+         * @return The amount of moves made on the squares of this stripe,
+         *         waiting for a move in progress.
+         */
+        synchronized int getMoves() {
+            return moves;
         }
     }
 
     /**
-     * An observer that will be notified when the level is won or lost.
+     * An observer that will be notified when the level is won or lost, once
+     * every time the level is started.
      *
      * @author Jeroen Roosen
      */
@@ -3,13 +3,18 @@ package nl.tudelft.jpacman.level;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
 
 import nl.tudelft.jpacman.board.Board;
 import nl.tudelft.jpacman.board.Direction;
 import nl.tudelft.jpacman.board.Square;
 import nl.tudelft.jpacman.npc.Ghost;
+import nl.tudelft.jpacman.npc.ghost.AStarSearch;
 import nl.tudelft.jpacman.npc.ghost.GhostColor;
 import nl.tudelft.jpacman.npc.ghost.GhostFactory;
+import nl.tudelft.jpacman.npc.ghost.HierarchicalPathfinder;
+import nl.tudelft.jpacman.npc.ghost.NextHopTable;
 import nl.tudelft.jpacman.points.PointCalculator;
 import nl.tudelft.jpacman.sprite.PacManSprites;
 import nl.tudelft.jpacman.sprite.Sprite;
@@ -52,6 +57,39 @@ public class LevelFactory {
      */
     private final PointCalculator pointCalculator;
 
+    /**
+     * The most memory in bytes a table of all shortest paths may take, or 0
+     * if no table should be built.
+     */
+    private long nextHopTableBudget;
+
+    /**
+     * The cluster size of the hierarchical pathfinders to build, or 0 if none
+     * should be built.
+     */
+    private int clusterSize;
+
+    /**
+     * Provides the scheduler of every new level.
+     */
+    private Supplier<TickScheduler> tickSchedulers = FixedStepTickScheduler::new;
+
+    /**
+     * The source every new level splits its randomness from.
+     */
+    private SplittableRandom random = new SplittableRandom();
+
+    /**
+     * <code>true</code> iff new levels lock squares rather than the level.
+     */
+    private boolean stripedLocking;
+
+    /**
+     * <code>true</code> iff the ghosts of new levels find their own paths
+     * with an A* search.
+     */
+    private boolean aStarSearch;
+
     /**
      * Creates a new level factory.
      *
@@ -87,7 +125,121 @@ public class LevelFactory {
         // We'll adopt the simple collision map for now.
         CollisionMap collisionMap = new PlayerCollisions(pointCalculator);
 
-        return new Level(board, ghosts, startPositions, collisionMap);
+        Level level = new Level(board, ghosts, startPositions, collisionMap,
+            tickSchedulers.get());
+        addPathLookups(level, ghosts);
+        level.setStripedLocking(stripedLocking);
+        SplittableRandom levelRandom = random.split();
+        for (Ghost ghost : ghosts) {
+            ghost.setRandom(levelRandom.split());
+            if (aStarSearch) {
+                ghost.setAStarSearch(new AStarSearch(board));
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Lets the ghosts of new levels find their paths with an A* search of
+     * their own, rather than with the distances shared by all ghosts of the
+     * level. By default the shared distances are used.
+     *
+     * @param own
+     *            <code>true</code> to give every ghost its own search.
+     * @see Ghost#setAStarSearch(AStarSearch)
+     */
+    public void setAStarSearch(boolean own) {
+        this.aStarSearch = own;
+    }
+
+    /**
+     * Lets new levels lock only the squares involved in a move, so that moves
+     * in different parts of the board run in parallel. By default every move
+     * locks the whole level. Only worth it together with tick schedulers that
+     * move NPCs on several threads, such as the {@link PerNpcTickScheduler}.
+     *
+     * @param striped
+     *            <code>true</code> to lock squares rather than levels.
+     * @see Level#setStripedLocking(boolean)
+     */
+    public void setStripedLocking(boolean striped) {
+        this.stripedLocking = striped;
+    }
+
+    /**
+     * Seeds the randomness of new levels. Every level splits its own source
+     * off this seed, and every ghost of the level one off that, so the levels
+     * created after this call, and the moves of their ghosts, are the same
+     * every run. By default the randomness is unseeded.
+     *
+     * @param seed
+     *            The seed.
+     */
+    public void setSeed(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Lets new levels precompute all shortest paths between the squares of
+     * their board, as long as the table for it is estimated to take no more
+     * than the given amount of memory. By default no tables are built.
+     *
+     * @param bytes
+     *            The most memory a table may take, or 0 to build no tables.
+     */
+    public void setNextHopTableBudget(long bytes) {
+        assert bytes >= 0;
+        this.nextHopTableBudget = bytes;
+    }
+
+    /**
+     * Sets where new levels get the scheduler that decides when their NPCs
+     * move. By default every level gets a {@link FixedStepTickScheduler}.
+     *
+     * @param schedulers
+     *            Provides a new scheduler for every level.
+     */
+    public void setTickSchedulers(Supplier<TickScheduler> schedulers) {
+        assert schedulers != null;
+        this.tickSchedulers = schedulers;
+    }
+
+    /**
+     * Lets new levels plan paths with a hierarchical pathfinder, for boards
+     * that are too large for a table of all shortest paths. By default no
+     * pathfinders are built.
+     *
+     * @param size
+     *            The width and height of the clusters, or 0 to build no
+     *            pathfinders.
+     */
+    public void setHierarchicalClusterSize(int size) {
+        assert size >= 0;
+        this.clusterSize = size;
+    }
+
+    /**
+     * Builds the table of shortest paths for a level if it fits within the
+     * budget, or otherwise a hierarchical pathfinder if one is wanted.
+     *
+     * @param level
+     *            The new level.
+     * @param ghosts
+     *            The ghosts that will look up their paths.
+     */
+    private void addPathLookups(Level level, List<Ghost> ghosts) {
+        if (ghosts.isEmpty()) {
+            return;
+        }
+        Ghost traveller = ghosts.get(0);
+        Board board = level.getBoard();
+        if (nextHopTableBudget > 0
+            && NextHopTable.estimateBytes(board, traveller) <= nextHopTableBudget) {
+            level.setNextHopTable(NextHopTable.build(board, traveller));
+        } else if (clusterSize > 0) {
+            level.setHierarchicalPathfinder(
+                HierarchicalPathfinder.build(board, traveller, clusterSize));
+        }
     }
 
     /**
@@ -219,13 +219,26 @@ public class MapParser {
      *             when the source could not be read.
      */
     public Level parseMap(InputStream source) throws IOException {
+        return parseMap(readLines(source));
+    }
+
+    /**
+     * Reads the provided input stream as a list of lines.
+     *
+     * @param source
+     *            The input stream that will be read.
+     * @return The lines of text on the input stream.
+     * @throws IOException
+     *             when the source could not be read.
+     */
+    private static List<String> readLines(InputStream source) throws IOException {
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(
             source, "UTF-8"))) {
             List<String> lines = new ArrayList<>();
             while (reader.ready()) {
                 lines.add(reader.readLine());
             }
-            return parseMap(lines);
+            return lines;
         }
     }
 
@@ -239,16 +252,30 @@ public class MapParser {
      * @throws IOException
      *             when the resource could not be read.
      */
+    public Level parseMap(String mapName) throws IOException {
+        return parseMap(readMap(mapName));
+    }
+
+    /**
+     * Reads the text of a map without parsing it, so that it can be parsed
+     * into any number of levels with {@link #parseMap(List)}.
+     *
+     * @param mapName
+     *            Name of a resource that will be read.
+     * @return The rows of the map, the first element being the top row.
+     * @throws IOException
+     *             when the resource could not be read.
+     */
     @SuppressFBWarnings(
         value = {"OBL_UNSATISFIED_OBLIGATION", "RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE"},
         justification = "try with resources always cleans up / false positive in java 11"
     )
-    public Level parseMap(String mapName) throws IOException {
+    public List<String> readMap(String mapName) throws IOException {
         try (InputStream boardStream = MapParser.class.getResourceAsStream(mapName)) {
             if (boardStream == null) {
                 throw new PacmanConfigurationException("Could not get resource for: " + mapName);
             }
-            return parseMap(boardStream);
+            return readLines(boardStream);
         }
     }
 
@@ -1,6 +1,7 @@
 package nl.tudelft.jpacman.level;
 
 import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.board.UnitKind;
 import nl.tudelft.jpacman.sprite.Sprite;
 
 /**
@@ -42,4 +43,9 @@ public class Pellet extends Unit {
     public Sprite getSprite() {
         return image;
     }
+
+    @Override
+    public UnitKind getKind() {
+        return UnitKind.PELLET;
+    }
 }
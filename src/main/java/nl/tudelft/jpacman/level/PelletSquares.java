@@ -0,0 +1,87 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import nl.tudelft.jpacman.sprite.Sprite;
+
+/**
+ * The squares of a board holding a pellet, as a bit set over the square
+ * indices. Bits can be cleared concurrently.
+ */
+final class PelletSquares {
+
+    /**
+     * The amount of squares a word covers.
+     */
+    private static final int WORD_SIZE = Long.SIZE;
+
+    /**
+     * The bits, one per square index.
+     */
+    private final AtomicLongArray words;
+
+    /**
+     * The sprite of the pellets, or <code>null</code> if there are none.
+     */
+    private volatile Sprite sprite;
+
+    /**
+     * Creates an empty set.
+     *
+     * @param squareCount
+     *            The amount of squares on the board.
+     */
+    PelletSquares(int squareCount) {
+        this.words = new AtomicLongArray((squareCount + WORD_SIZE - 1) / WORD_SIZE);
+    }
+
+    /**
+     * Marks a square as holding a pellet.
+     *
+     * @param index
+     *            The index of the square.
+     * @param pelletSprite
+     *            The sprite of the pellet.
+     */
+    void add(int index, Sprite pelletSprite) {
+        words.accumulateAndGet(index / WORD_SIZE, 1L << index, (word, bit) -> word | bit);
+        if (sprite == null) {
+            sprite = pelletSprite;
+        }
+    }
+
+    /**
+     * Marks a square as no longer holding a pellet. Squares that are not part
+     * of the board are ignored.
+     *
+     * @param index
+     *            The index of the square.
+     */
+    void remove(int index) {
+        if (index < 0 || index / WORD_SIZE >= words.length()) {
+            return;
+        }
+        words.accumulateAndGet(index / WORD_SIZE, ~(1L << index), (word, mask) -> word & mask);
+    }
+
+    /**
+     * Copies the bits.
+     *
+     * @param target
+     *            The array to copy the bits to, as long as the set.
+     */
+    void copyTo(long[] target) {
+        assert target.length == words.length();
+        for (int i = 0; i < target.length; i++) {
+            target[i] = words.get(i);
+        }
+    }
+
+    /**
+     * @return The sprite of the pellets, or <code>null</code> if there are
+     *         none.
+     */
+    Sprite getSprite() {
+        return sprite;
+    }
+}
@@ -0,0 +1,108 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import nl.tudelft.jpacman.npc.Ghost;
+
+/**
+ * The classic scheduler, which gives every NPC its own thread that sleeps for
+ * the NPC's interval between moves. Costs one thread per NPC.
+ */
+public class PerNpcTickScheduler implements TickScheduler {
+
+    /**
+     * The services executing the NPC moves, one per NPC.
+     */
+    private final List<ScheduledExecutorService> services = new ArrayList<>();
+
+    /**
+     * Invoked after every move, or <code>null</code>.
+     */
+    private volatile Runnable tickListener;
+
+    @Override
+    public void start(Collection<Ghost> npcs, Consumer<Ghost> mover) {
+        Consumer<Ghost> notifyingMover = mover.andThen(npc -> notifyTickListener());
+        for (final Ghost npc : npcs) {
+            ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor();
+
+            service.schedule(new NpcMoveTask(service, npc, notifyingMover),
+                npc.getInterval() / 2, TimeUnit.MILLISECONDS);
+
+            services.add(service);
+        }
+    }
+
+    @Override
+    public void stop() {
+        for (ScheduledExecutorService service : services) {
+            service.shutdownNow();
+        }
+        services.clear();
+    }
+
+    @Override
+    public void setTickListener(Runnable listener) {
+        this.tickListener = listener;
+    }
+
+    /**
+     * Invokes the tick listener, if any.
+     */
+    private void notifyTickListener() {
+        Runnable listener = tickListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * A task that moves an NPC and reschedules itself after it finished.
+     */
+    private static final class NpcMoveTask implements Runnable {
+
+        /**
+         * The service executing the task.
+         */
+        private final ScheduledExecutorService service;
+
+        /**
+         * The NPC to move.
+         */
+        private final Ghost npc;
+
+        /**
+         * The callback making the actual move.
+         */
+        private final Consumer<Ghost> mover;
+
+        /**
+         * Creates a new task.
+         *
+         * @param service
+         *            The service that executes the task.
+         * @param npc
+         *            The NPC to move.
+         * @param mover
+         *            The callback making the actual move.
+         */
+        NpcMoveTask(ScheduledExecutorService service, Ghost npc, Consumer<Ghost> mover) {
+            this.service = service;
+            this.npc = npc;
+            this.mover = mover;
+        }
+
+        @Override
+        public void run() {
+            mover.accept(npc);
+            long interval = npc.getInterval();
+            service.schedule(this, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+}
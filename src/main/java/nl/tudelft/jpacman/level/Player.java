@@ -4,6 +4,7 @@ import java.util.Map;
 
 import nl.tudelft.jpacman.board.Direction;
 import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.board.UnitKind;
 import nl.tudelft.jpacman.sprite.AnimatedSprite;
 import nl.tudelft.jpacman.sprite.Sprite;
 
@@ -32,7 +33,7 @@ public class Player extends Unit {
     /**
      * <code>true</code> iff this player is alive.
      */
-    private boolean alive;
+    private volatile boolean alive;
 
     /**
      * {@link Unit} iff this player died by collision, <code>null</code> otherwise.
@@ -118,6 +119,11 @@ public class Player extends Unit {
         return deathSprite;
     }
 
+    @Override
+    public UnitKind getKind() {
+        return UnitKind.PLAYER;
+    }
+
     /**
      * Adds points to the score of this player.
      *
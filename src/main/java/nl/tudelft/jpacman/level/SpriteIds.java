@@ -0,0 +1,56 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import nl.tudelft.jpacman.sprite.Sprite;
+
+/**
+ * Numbers sprites in the order they are first seen, so snapshots can refer to
+ * them by number. Only used by the thread publishing snapshots.
+ */
+final class SpriteIds {
+
+    /**
+     * The initial amount of sprites there is room for.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The number of every sprite seen.
+     */
+    private final Map<Sprite, Integer> ids = new IdentityHashMap<>();
+
+    /**
+     * The sprites by number. Numbers in use are never overwritten, so arrays
+     * handed out stay valid for them.
+     */
+    private Sprite[] sprites = new Sprite[INITIAL_CAPACITY];
+
+    /**
+     * @param sprite
+     *            A sprite.
+     * @return The number of the sprite.
+     */
+    int idOf(Sprite sprite) {
+        Integer id = ids.get(sprite);
+        if (id != null) {
+            return id;
+        }
+        int newId = ids.size();
+        if (newId == sprites.length) {
+            sprites = Arrays.copyOf(sprites, sprites.length * 2);
+        }
+        sprites[newId] = sprite;
+        ids.put(sprite, newId);
+        return newId;
+    }
+
+    /**
+     * @return The sprites by number, possibly longer than needed.
+     */
+    Sprite[] getSprites() {
+        return sprites;
+    }
+}
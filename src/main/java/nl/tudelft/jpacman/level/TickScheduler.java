@@ -0,0 +1,41 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import nl.tudelft.jpacman.npc.Ghost;
+
+/**
+ * Decides when the NPCs of a {@link Level} get to make their moves.
+ */
+public interface TickScheduler {
+
+    /**
+     * Starts scheduling moves for the given NPCs. Every time an NPC is due,
+     * the mover is invoked with that NPC; the NPC is then rescheduled using
+     * its {@link Ghost#getInterval()}.
+     *
+     * @param npcs
+     *            The NPCs to schedule.
+     * @param mover
+     *            The callback that lets a single NPC make its move.
+     */
+    void start(Collection<Ghost> npcs, Consumer<Ghost> mover);
+
+    /**
+     * Stops scheduling moves. This method may be called from within a move
+     * and must not block on a move in progress.
+     */
+    void stop();
+
+    /**
+     * Sets a callback that is invoked after every tick, once the NPCs that
+     * were due have moved. Schedulers without ticks invoke it after every
+     * move. By default the callback is never invoked.
+     *
+     * @param listener
+     *            The callback, or <code>null</code> for none.
+     */
+    default void setTickListener(Runnable listener) {
+    }
+}
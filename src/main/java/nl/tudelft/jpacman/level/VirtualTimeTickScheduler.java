@@ -0,0 +1,70 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import nl.tudelft.jpacman.npc.Ghost;
+
+/**
+ * A scheduler that runs on virtual time: it starts no threads and never
+ * sleeps, and the NPCs only move when {@link #tick()} is called. A tick
+ * stands for {@link #getTickLength()} milliseconds of game time, however long
+ * it takes to execute, so a level can be played as fast as the caller can
+ * drive it. Moves are scheduled exactly as by the
+ * {@link FixedStepTickScheduler}.
+ */
+public class VirtualTimeTickScheduler extends FixedStepTickScheduler {
+
+    /**
+     * <code>true</code> iff started and not stopped since.
+     */
+    private boolean running;
+
+    /**
+     * Creates a new scheduler with ticks of {@value #DEFAULT_TICK_LENGTH} ms.
+     */
+    public VirtualTimeTickScheduler() {
+        super();
+    }
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param tickLength
+     *            The length of a tick in milliseconds of game time.
+     */
+    public VirtualTimeTickScheduler(long tickLength) {
+        super(tickLength);
+    }
+
+    @Override
+    public void start(Collection<Ghost> npcs, Consumer<Ghost> npcMover) {
+        reset(npcs, npcMover);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Executes a single tick, unless this scheduler is stopped, in which case
+     * nothing happens. Ticks are not timed, as they do not stand for real
+     * time.
+     */
+    @Override
+    public void tick() {
+        if (running) {
+            tickUntimed();
+        }
+    }
+
+    /**
+     * @return <code>true</code> iff this scheduler was started and not
+     *         stopped since.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -3,13 +3,14 @@ package nl.tudelft.jpacman.npc;
 import nl.tudelft.jpacman.board.Direction;
 import nl.tudelft.jpacman.board.Square;
 import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.board.UnitKind;
+import nl.tudelft.jpacman.npc.ghost.AStarSearch;
+import nl.tudelft.jpacman.npc.ghost.DistanceField;
 import nl.tudelft.jpacman.sprite.Sprite;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * A non-player unit.
@@ -32,6 +33,22 @@ public abstract class Ghost extends Unit {
      */
     private final int intervalVariation;
 
+    /**
+     * The distances to the players, shared with the other ghosts of a level.
+     */
+    private DistanceField distanceField = new DistanceField();
+
+    /**
+     * The A* search this ghost uses to find its own paths, or
+     * <code>null</code> if it uses the shared distances.
+     */
+    private AStarSearch aStarSearch;
+
+    /**
+     * The source of the random choices of this ghost.
+     */
+    private SplittableRandom random = new SplittableRandom();
+
     /**
      * Calculates the next move for this unit and returns the direction to move
      * in.
@@ -71,13 +88,79 @@ public abstract class Ghost extends Unit {
         return sprites.get(getDirection());
     }
 
+    @Override
+    public UnitKind getKind() {
+        return UnitKind.GHOST;
+    }
+
     /**
      * The time that should be taken between moves.
      *
      * @return The suggested delay between moves in milliseconds.
      */
     public long getInterval() {
-        return this.moveInterval + new Random().nextInt(this.intervalVariation);
+        if (this.intervalVariation == 0) {
+            return this.moveInterval;
+        }
+        return this.moveInterval + random.nextInt(this.intervalVariation);
+    }
+
+    /**
+     * Sets the source of the random choices of this ghost, which is not
+     * shared with other ghosts. By default every ghost gets an unseeded one;
+     * seeding it makes the ghost's moves reproducible.
+     *
+     * @param source
+     *            The source of random choices.
+     */
+    public void setRandom(SplittableRandom source) {
+        assert source != null;
+        this.random = source;
+    }
+
+    /**
+     * Returns the distances to the players this ghost chases. Until the ghost
+     * is added to a level, there are no players to chase.
+     *
+     * @return The distances to the players.
+     */
+    protected DistanceField getDistanceField() {
+        return distanceField;
+    }
+
+    /**
+     * Sets the distances to the players this ghost chases, which are shared
+     * by all ghosts of a level.
+     *
+     * @param distanceField
+     *            The distances to the players.
+     */
+    public void setDistanceField(DistanceField distanceField) {
+        assert distanceField != null;
+        this.distanceField = distanceField;
+    }
+
+    /**
+     * @return The A* search this ghost uses to find its own paths, or
+     *         <code>null</code> if it uses the shared distances.
+     */
+    protected AStarSearch getAStarSearch() {
+        return aStarSearch;
+    }
+
+    /**
+     * Lets this ghost find its paths with its own A* search, rather than
+     * using the distances shared by all ghosts. This pays off on large open
+     * boards, where keeping all distances up to date costs more than a few
+     * searches that head straight for their destination. Only ghosts that
+     * chase a player directly make use of it.
+     *
+     * @param search
+     *            A search for the board of this ghost, not shared with other
+     *            ghosts, or <code>null</code> to use the shared distances.
+     */
+    public void setAStarSearch(AStarSearch search) {
+        this.aStarSearch = search;
     }
 
     /**
@@ -88,16 +171,26 @@ public abstract class Ghost extends Unit {
      */
     protected Direction randomMove() {
         Square square = getSquare();
-        List<Direction> directions = new ArrayList<>();
-        for (Direction direction : Direction.values()) {
+        int accessible = 0;
+        int count = 0;
+        for (Direction direction : Direction.all()) {
             if (square.getSquareAt(direction).isAccessibleTo(this)) {
-                directions.add(direction);
+                accessible |= 1 << direction.ordinal();
+                count++;
             }
         }
-        if (directions.isEmpty()) {
+        if (count == 0) {
             return null;
         }
-        int i = new Random().nextInt(directions.size());
-        return directions.get(i);
+        int choice = random.nextInt(count);
+        for (Direction direction : Direction.all()) {
+            if ((accessible & (1 << direction.ordinal())) != 0) {
+                if (choice == 0) {
+                    return direction;
+                }
+                choice--;
+            }
+        }
+        return null;
     }
 }
@@ -0,0 +1,477 @@
+package nl.tudelft.jpacman.npc.ghost;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.Unit;
+
+/**
+ * A reusable A* search over the squares of a single board.
+ * <p>
+ * Where a breadth first search explores every square closer than the
+ * destination, A* goes for the squares that look closest to it first. It
+ * estimates the remaining distance as the number of steps ignoring walls,
+ * taking into account that the edges of the board wrap around. On large open
+ * boards this expands only a fraction of the squares a breadth first search
+ * does. The squares still to expand are kept in a binary heap of square
+ * indices, so a search allocates nothing but the path it returns.
+ * <p>
+ * A search object is not thread safe, and only works for squares of the board
+ * it was created for. Ghosts that use it each keep their own, see
+ * {@link nl.tudelft.jpacman.npc.Ghost#setAStarSearch(AStarSearch)}, which
+ * {@link nl.tudelft.jpacman.level.LevelFactory#setAStarSearch(boolean)} hands
+ * out to the ghosts of every level it creates.
+ */
+public final class AStarSearch {
+
+    /**
+     * The value returned by {@link #search(Square, Square, Unit)} if there is
+     * no path.
+     */
+    public static final int NO_PATH = BreadthFirstSearch.NO_PATH;
+
+    /**
+     * The width of the board.
+     */
+    private final int width;
+
+    /**
+     * The height of the board.
+     */
+    private final int height;
+
+    /**
+     * The squares discovered by the current search, by index.
+     */
+    private final Square[] squares;
+
+    /**
+     * The number of the search in which each square was last discovered.
+     */
+    private final int[] seen;
+
+    /**
+     * The number of the search in which each square was last expanded.
+     */
+    private final int[] closed;
+
+    /**
+     * The length of the shortest known path to each square.
+     */
+    private final int[] costs;
+
+    /**
+     * The index of the square each square was reached from.
+     */
+    private final int[] parents;
+
+    /**
+     * The ordinal of the direction each square was reached in.
+     */
+    private final byte[] via;
+
+    /**
+     * The indices of the squares on the heap. A square can be on it more than
+     * once if a shorter path to it was found; the outdated entries are skipped.
+     */
+    private int[] heapSquares;
+
+    /**
+     * The estimated total path length of each entry on the heap.
+     */
+    private int[] heapEstimates;
+
+    /**
+     * The estimated remaining distance of each entry on the heap, used to
+     * prefer squares closer to the destination among equal estimates.
+     */
+    private int[] heapRemaining;
+
+    /**
+     * The amount of entries on the heap.
+     */
+    private int heapSize;
+
+    /**
+     * The number of the current search.
+     */
+    private int generation;
+
+    /**
+     * The index of the start square of the last search.
+     */
+    private int source;
+
+    /**
+     * The index of the destination of the last successful search, or
+     * {@link #NO_PATH}.
+     */
+    private int found = NO_PATH;
+
+    /**
+     * The column of the destination of the current search.
+     */
+    private int targetX;
+
+    /**
+     * The row of the destination of the current search.
+     */
+    private int targetY;
+
+    /**
+     * The amount of squares expanded by the last search.
+     */
+    private int expanded;
+
+    /**
+     * Creates a new search for the squares of a board.
+     *
+     * @param board
+     *            The board, which must have been created by a
+     *            {@link nl.tudelft.jpacman.board.BoardFactory}.
+     */
+    public AStarSearch(Board board) {
+        assert board != null;
+        this.width = board.getWidth();
+        this.height = board.getHeight();
+        int size = width * height;
+        this.squares = new Square[size];
+        this.seen = new int[size];
+        this.closed = new int[size];
+        this.costs = new int[size];
+        this.parents = new int[size];
+        this.via = new byte[size];
+        this.heapSquares = new int[size];
+        this.heapEstimates = new int[size];
+        this.heapRemaining = new int[size];
+    }
+
+    /**
+     * Searches the shortest path between two squares. The search makes sure
+     * the traveller is allowed to occupy the squares on the way, or ignores
+     * terrain if no traveller is specified. After a successful search, the
+     * path can be inspected with {@link #firstStep()} and {@link #path()}.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @param traveller
+     *            The traveller attempting to reach the destination, or
+     *            <code>null</code> to ignore terrain.
+     * @return The length of the shortest path, 0 if the squares are the
+     *         same, or {@link #NO_PATH} if there is no path.
+     */
+    public int search(Square from, Square to, Unit traveller) {
+        begin(from, to);
+        if (from.equals(to)) {
+            found = source;
+            return 0;
+        }
+        int target = to.getIndex();
+        while (heapSize > 0) {
+            int current = pop();
+            if (closed[current] == generation) {
+                continue;
+            }
+            closed[current] = generation;
+            expanded++;
+            if (current == target) {
+                found = target;
+                return costs[current];
+            }
+            Square square = squares[current];
+            for (Direction direction : Direction.all()) {
+                Square next = square.getSquareAt(direction);
+                if (traveller == null || next.isAccessibleTo(traveller)) {
+                    discover(next, current, direction);
+                }
+            }
+        }
+        return NO_PATH;
+    }
+
+    /**
+     * Estimates the distance between two squares as the amount of steps
+     * between them if there were no walls.
+     *
+     * @param from
+     *            The first square.
+     * @param to
+     *            The second square.
+     * @return The least amount of steps between the squares.
+     */
+    public int estimate(Square from, Square to) {
+        int index = from.getIndex();
+        return estimate(index / height, index % height, to.getIndex());
+    }
+
+    /**
+     * Finds the unit that is estimated to be nearest, see
+     * {@link #estimate(Square, Square)}. Units that are equally near are
+     * chosen in order of the collection.
+     *
+     * @param units
+     *            The units to choose from. Units without a square are
+     *            ignored.
+     * @param from
+     *            The square to measure from.
+     * @param <T>
+     *            The type of units.
+     * @return The nearest unit, or <code>null</code> if no unit has a square.
+     */
+    public <T extends Unit> T nearest(Collection<T> units, Square from) {
+        T nearest = null;
+        int best = Integer.MAX_VALUE;
+        for (T unit : units) {
+            if (unit.hasSquare()) {
+                int distance = estimate(from, unit.getSquare());
+                if (distance < best) {
+                    best = distance;
+                    nearest = unit;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the first step of the path found by the last successful
+     * {@link #search(Square, Square, Unit)}.
+     *
+     * @return The direction of the first step, or <code>null</code> if the
+     *         last search found no path or the path was empty.
+     */
+    public Direction firstStep() {
+        if (found == NO_PATH || found == source) {
+            return null;
+        }
+        int step = found;
+        while (parents[step] != source) {
+            step = parents[step];
+        }
+        return Direction.all()[via[step]];
+    }
+
+    /**
+     * Returns the path found by the last successful
+     * {@link #search(Square, Square, Unit)}.
+     *
+     * @return The directions to follow from the start square to the
+     *         destination, or <code>null</code> if the last search found no
+     *         path.
+     */
+    public List<Direction> path() {
+        if (found == NO_PATH) {
+            return null;
+        }
+        Direction[] steps = new Direction[costs[found]];
+        int step = found;
+        for (int i = steps.length - 1; i >= 0; i--) {
+            steps[i] = Direction.all()[via[step]];
+            step = parents[step];
+        }
+        return new ArrayList<>(Arrays.asList(steps));
+    }
+
+    /**
+     * @return The amount of squares expanded by the last search.
+     */
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    /**
+     * Prepares a new search between two squares.
+     *
+     * @param from
+     *            The start square, which is put on the heap right away.
+     * @param to
+     *            The destination.
+     */
+    private void begin(Square from, Square to) {
+        assert from.getIndex() >= 0 && from.getIndex() < squares.length
+            : "Square is not on the board of this search.";
+        generation++;
+        if (generation == 0) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+        heapSize = 0;
+        expanded = 0;
+        found = NO_PATH;
+        targetX = to.getIndex() / height;
+        targetY = to.getIndex() % height;
+        source = from.getIndex();
+        seen[source] = generation;
+        squares[source] = from;
+        costs[source] = 0;
+        push(source, remaining(source));
+    }
+
+    /**
+     * Records a path to a square if it is shorter than the one known, and
+     * puts the square on the heap.
+     *
+     * @param square
+     *            The square that was reached.
+     * @param parent
+     *            The index of the square it was reached from.
+     * @param direction
+     *            The direction it was reached in.
+     */
+    private void discover(Square square, int parent, Direction direction) {
+        int index = square.getIndex();
+        int cost = costs[parent] + 1;
+        if (closed[index] == generation
+            || (seen[index] == generation && costs[index] <= cost)) {
+            return;
+        }
+        seen[index] = generation;
+        squares[index] = square;
+        costs[index] = cost;
+        parents[index] = parent;
+        via[index] = (byte) direction.ordinal();
+        push(index, cost + remaining(index));
+    }
+
+    /**
+     * @param index
+     *            The index of a square.
+     * @return The estimated distance from the square to the destination.
+     */
+    private int remaining(int index) {
+        return estimate(targetX, targetY, index);
+    }
+
+    /**
+     * @param x
+     *            The column of the first square.
+     * @param y
+     *            The row of the first square.
+     * @param index
+     *            The index of the second square.
+     * @return The least amount of steps between the squares on the board.
+     */
+    private int estimate(int x, int y, int index) {
+        int dx = Math.abs(index / height - x);
+        int dy = Math.abs(index % height - y);
+        return Math.min(dx, width - dx) + Math.min(dy, height - dy);
+    }
+
+    /**
+     * Puts a square on the heap.
+     *
+     * @param index
+     *            The index of the square.
+     * @param estimate
+     *            The estimated length of a path through the square.
+     */
+    private void push(int index, int estimate) {
+        if (heapSize == heapSquares.length) {
+            int size = heapSquares.length * 2;
+            heapSquares = Arrays.copyOf(heapSquares, size);
+            heapEstimates = Arrays.copyOf(heapEstimates, size);
+            heapRemaining = Arrays.copyOf(heapRemaining, size);
+        }
+        int remaining = estimate - costs[index];
+        int child = heapSize++;
+        while (child > 0) {
+            int parent = (child - 1) >>> 1;
+            if (!before(estimate, remaining, parent)) {
+                break;
+            }
+            move(parent, child);
+            child = parent;
+        }
+        heapSquares[child] = index;
+        heapEstimates[child] = estimate;
+        heapRemaining[child] = remaining;
+    }
+
+    /**
+     * Takes the square with the lowest estimate off the heap.
+     *
+     * @return The index of the square.
+     */
+    private int pop() {
+        int top = heapSquares[0];
+        heapSize--;
+        int index = heapSquares[heapSize];
+        int estimate = heapEstimates[heapSize];
+        int remaining = heapRemaining[heapSize];
+        int parent = 0;
+        int child = 1;
+        while (child < heapSize) {
+            if (child + 1 < heapSize
+                && before(heapEstimates[child + 1], heapRemaining[child + 1], child)) {
+                child++;
+            }
+            if (!precedes(heapEstimates[child], heapRemaining[child], estimate, remaining)) {
+                break;
+            }
+            move(child, parent);
+            parent = child;
+            child = 2 * parent + 1;
+        }
+        heapSquares[parent] = index;
+        heapEstimates[parent] = estimate;
+        heapRemaining[parent] = remaining;
+        return top;
+    }
+
+    /**
+     * @param estimate
+     *            The estimated path length of an entry.
+     * @param remaining
+     *            The estimated remaining distance of the entry.
+     * @param position
+     *            The position of another entry on the heap.
+     * @return <code>true</code> iff the entry goes before the other one.
+     */
+    private boolean before(int estimate, int remaining, int position) {
+        return precedes(estimate, remaining, heapEstimates[position], heapRemaining[position]);
+    }
+
+    /**
+     * Compares two heap entries: lower estimates go first, and among equal
+     * estimates the one closer to the destination does.
+     *
+     * @param estimate
+     *            The estimated path length of the first entry.
+     * @param remaining
+     *            The estimated remaining distance of the first entry.
+     * @param otherEstimate
+     *            The estimated path length of the second entry.
+     * @param otherRemaining
+     *            The estimated remaining distance of the second entry.
+     * @return <code>true</code> iff the first entry goes before the second.
+     */
+    private static boolean precedes(int estimate, int remaining,
+                                    int otherEstimate, int otherRemaining) {
+        if (estimate != otherEstimate) {
+            return estimate < otherEstimate;
+        }
+        return remaining < otherRemaining;
+    }
+
+    /**
+     * Moves a heap entry to another position.
+     *
+     * @param from
+     *            The current position of the entry.
+     * @param to
+     *            The new position of the entry.
+     */
+    private void move(int from, int to) {
+        heapSquares[to] = heapSquares[from];
+        heapEstimates[to] = heapEstimates[from];
+        heapRemaining[to] = heapRemaining[from];
+    }
+}
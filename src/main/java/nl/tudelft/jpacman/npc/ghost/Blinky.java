@@ -1,12 +1,9 @@
 package nl.tudelft.jpacman.npc.ghost;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import nl.tudelft.jpacman.board.Direction;
-import nl.tudelft.jpacman.board.Square;
-import nl.tudelft.jpacman.board.Unit;
 import nl.tudelft.jpacman.level.Player;
 import nl.tudelft.jpacman.npc.Ghost;
 import nl.tudelft.jpacman.sprite.Sprite;
@@ -84,17 +81,21 @@ public class Blinky extends Ghost {
 
         // TODO Blinky should patrol his corner every once in a while
         // TODO Implement his actual behaviour instead of simply chasing.
-        Unit nearest = Navigation.findNearest(Player.class, getSquare());
-        if (nearest == null) {
-            return Optional.empty();
+        AStarSearch search = getAStarSearch();
+        if (search != null) {
+            Player nearest = search.nearest(getDistanceField().getPlayers(), getSquare());
+            if (nearest == null) {
+                return Optional.empty();
+            }
+            search.search(getSquare(), nearest.getSquare(), this);
+            return Optional.ofNullable(search.firstStep());
         }
-        assert nearest.hasSquare();
-        Square target = nearest.getSquare();
 
-        List<Direction> path = Navigation.shortestPath(getSquare(), target, this);
-        if (path != null && !path.isEmpty()) {
-            return Optional.ofNullable(path.get(0));
+        DistanceField distances = getDistanceField();
+        Player nearest = distances.nearestPlayer(this);
+        if (nearest == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        return Optional.ofNullable(distances.nextStep(nearest, this));
     }
 }
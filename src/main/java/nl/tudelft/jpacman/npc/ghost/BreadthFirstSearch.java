@@ -0,0 +1,415 @@
+package nl.tudelft.jpacman.npc.ghost;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import nl.tudelft.jpacman.board.BoardTopology;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.board.UnitKind;
+
+/**
+ * A reusable breadth first search over the squares of a board.
+ * <p>
+ * All bookkeeping is done in arrays indexed by {@link Square#getIndex()}, which
+ * are allocated once and reused by every search: a queue of square indices, a
+ * visited stamp per square and, per square, the square and direction it was
+ * reached from. Marking a square as visited is done by stamping it with the
+ * number of the current search, so nothing has to be cleared in between.
+ * Searches on a {@link BoardTopology} work on the indices alone and do not
+ * touch any square.
+ * <p>
+ * A search object is not thread safe. {@link Navigation} keeps one per thread;
+ * other code should do the same. All squares must be on a board created by a
+ * {@link nl.tudelft.jpacman.board.BoardFactory}. The squares a search visits
+ * are forgotten once it is done, so a search kept for a long time does not
+ * keep the boards it searched.
+ */
+public final class BreadthFirstSearch {
+
+    /**
+     * The value returned by {@link #search(Square, Square, Unit)} if there is
+     * no path.
+     */
+    public static final int NO_PATH = -1;
+
+    /**
+     * The initial amount of squares the arrays can hold.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * The squares discovered by the current search, by index.
+     */
+    private Square[] squares = new Square[INITIAL_CAPACITY];
+
+    /**
+     * The number of the search in which each square was last discovered.
+     */
+    private int[] stamps = new int[INITIAL_CAPACITY];
+
+    /**
+     * The index of the square each square was discovered from.
+     */
+    private int[] parents = new int[INITIAL_CAPACITY];
+
+    /**
+     * The ordinal of the direction each square was discovered in.
+     */
+    private byte[] via = new byte[INITIAL_CAPACITY];
+
+    /**
+     * The queue of square indices. Every square is queued at most once per
+     * search, so an array as large as the board never runs out.
+     */
+    private int[] queue = new int[INITIAL_CAPACITY];
+
+    /**
+     * The number of the current search, used to stamp visited squares.
+     */
+    private int generation;
+
+    /**
+     * The index of the start square of the last search.
+     */
+    private int source;
+
+    /**
+     * The index of the destination of the last successful search, or
+     * {@link #NO_PATH}.
+     */
+    private int found = NO_PATH;
+
+    /**
+     * The position of the next square to take from the queue.
+     */
+    private int head;
+
+    /**
+     * The position at which the next square will be queued.
+     */
+    private int tail;
+
+    /**
+     * Searches the shortest path between two squares. The search makes sure
+     * the traveller is allowed to occupy the squares on the way, or ignores
+     * terrain if no traveller is specified. After a successful search, the
+     * path can be inspected with {@link #firstStep()} and {@link #path()}.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @param traveller
+     *            The traveller attempting to reach the destination, or
+     *            <code>null</code> to ignore terrain.
+     * @return The length of the shortest path, 0 if the squares are the
+     *         same, or {@link #NO_PATH} if there is no path.
+     * @throws IllegalArgumentException
+     *             When a square searched is not on a board.
+     */
+    public int search(Square from, Square to, Unit traveller) {
+        try {
+            return searchSquares(from, to, traveller);
+        } finally {
+            forgetSquares();
+        }
+    }
+
+    /**
+     * Searches the shortest path between two squares, see
+     * {@link #search(Square, Square, Unit)}.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @param traveller
+     *            The traveller attempting to reach the destination, or
+     *            <code>null</code> to ignore terrain.
+     * @return The length of the shortest path, 0 if the squares are the
+     *         same, or {@link #NO_PATH} if there is no path.
+     */
+    private int searchSquares(Square from, Square to, Unit traveller) {
+        begin(from);
+        if (from.equals(to)) {
+            found = source;
+            return 0;
+        }
+        int target = to.getIndex();
+        while (head < tail) {
+            int current = queue[head++];
+            Square square = squares[current];
+            for (Direction direction : Direction.all()) {
+                Square next = square.getSquareAt(direction);
+                if (traveller == null || next.isAccessibleTo(traveller)) {
+                    discover(next, current, direction);
+                    if (next.getIndex() == target) {
+                        found = target;
+                        return pathLength();
+                    }
+                }
+            }
+        }
+        return NO_PATH;
+    }
+
+    /**
+     * Searches the shortest path between two squares of a board layout,
+     * walking only on the squares units can walk on. After a successful
+     * search, the path can be inspected with {@link #firstStep()} and
+     * {@link #path()}.
+     *
+     * @param topology
+     *            The layout of the board.
+     * @param from
+     *            The index of the starting square.
+     * @param to
+     *            The index of the destination.
+     * @return The length of the shortest path, 0 if the squares are the
+     *         same, or {@link #NO_PATH} if there is no path.
+     */
+    public int search(BoardTopology topology, int from, int to) {
+        begin(from);
+        if (from == to) {
+            found = source;
+            return 0;
+        }
+        while (head < tail) {
+            int current = queue[head++];
+            for (Direction direction : Direction.all()) {
+                int next = topology.neighbour(current, direction);
+                if (topology.isWalkable(next) && discover(next, current, direction)
+                    && next == to) {
+                    found = to;
+                    return pathLength();
+                }
+            }
+        }
+        return NO_PATH;
+    }
+
+    /**
+     * Finds the nearest unit of the given type, searching the squares in order
+     * of distance regardless of terrain. The start square itself is searched
+     * first.
+     *
+     * @param type
+     *            The type of unit to search for.
+     * @param from
+     *            The starting location for the search.
+     * @param <T>
+     *            The type of unit to search for.
+     * @return The nearest unit of the given type, or <code>null</code> if no
+     *         such unit could be found.
+     * @throws IllegalArgumentException
+     *             When a square searched is not on a board.
+     */
+    public <T extends Unit> T findNearest(Class<T> type, Square from) {
+        try {
+            return searchNearest(type, from);
+        } finally {
+            forgetSquares();
+        }
+    }
+
+    /**
+     * Finds the nearest unit of the given type, see
+     * {@link #findNearest(Class, Square)}.
+     *
+     * @param type
+     *            The type of unit to search for.
+     * @param from
+     *            The starting location for the search.
+     * @param <T>
+     *            The type of unit to search for.
+     * @return The nearest unit of the given type, or <code>null</code> if no
+     *         such unit could be found.
+     */
+    private <T extends Unit> T searchNearest(Class<T> type, Square from) {
+        UnitKind kind = Navigation.kindOf(type);
+        begin(from);
+        while (head < tail) {
+            int current = queue[head++];
+            Square square = squares[current];
+            if (kind == null || square.hasOccupantOfKind(kind)) {
+                T unit = square.firstOccupantOf(type);
+                if (unit != null) {
+                    return unit;
+                }
+            }
+            for (Direction direction : Direction.all()) {
+                discover(square.getSquareAt(direction), current, direction);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the first step of the path found by the last successful
+     * {@link #search(Square, Square, Unit)}.
+     *
+     * @return The direction of the first step, or <code>null</code> if the
+     *         last search found no path or the path was empty.
+     */
+    public Direction firstStep() {
+        if (found == NO_PATH || found == source) {
+            return null;
+        }
+        int step = found;
+        while (parents[step] != source) {
+            step = parents[step];
+        }
+        return Direction.all()[via[step]];
+    }
+
+    /**
+     * Returns the path found by the last successful
+     * {@link #search(Square, Square, Unit)}.
+     *
+     * @return The directions to follow from the start square to the
+     *         destination, or <code>null</code> if the last search found no
+     *         path.
+     */
+    public List<Direction> path() {
+        if (found == NO_PATH) {
+            return null;
+        }
+        Direction[] steps = new Direction[pathLength()];
+        int step = found;
+        for (int i = steps.length - 1; i >= 0; i--) {
+            steps[i] = Direction.all()[via[step]];
+            step = parents[step];
+        }
+        return new ArrayList<>(Arrays.asList(steps));
+    }
+
+    /**
+     * @return The amount of steps from the start to the found square.
+     */
+    private int pathLength() {
+        int length = 0;
+        for (int step = found; step != source; step = parents[step]) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Prepares a new search from the given square.
+     *
+     * @param from
+     *            The start square, which is queued right away.
+     */
+    private void begin(Square from) {
+        begin(indexOf(from));
+        squares[source] = from;
+    }
+
+    /**
+     * Drops the squares discovered by the last search, which are no longer
+     * needed once it is done.
+     */
+    private void forgetSquares() {
+        for (int i = 0; i < tail; i++) {
+            squares[queue[i]] = null;
+        }
+    }
+
+    /**
+     * @param square
+     *            A square.
+     * @return The index of the square.
+     * @throws IllegalArgumentException
+     *             When the square is not on a board.
+     */
+    private static int indexOf(Square square) {
+        int index = square.getIndex();
+        if (index == Square.NO_INDEX) {
+            throw new IllegalArgumentException("Square is not on a board.");
+        }
+        return index;
+    }
+
+    /**
+     * Prepares a new search from the square with the given index.
+     *
+     * @param from
+     *            The index of the start square, which is queued right away.
+     */
+    private void begin(int from) {
+        assert from != Square.NO_INDEX : "Square is not on a board.";
+        generation++;
+        if (generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+        head = 0;
+        tail = 0;
+        found = NO_PATH;
+        source = from;
+        discover(from, from, Direction.all()[0]);
+    }
+
+    /**
+     * Queues a square if it was not discovered yet in this search.
+     *
+     * @param square
+     *            The square that was reached.
+     * @param parent
+     *            The index of the square it was reached from.
+     * @param direction
+     *            The direction it was reached in.
+     */
+    private void discover(Square square, int parent, Direction direction) {
+        int index = indexOf(square);
+        if (discover(index, parent, direction)) {
+            squares[index] = square;
+        }
+    }
+
+    /**
+     * Queues the square with the given index if it was not discovered yet in
+     * this search.
+     *
+     * @param index
+     *            The index of the square that was reached.
+     * @param parent
+     *            The index of the square it was reached from.
+     * @param direction
+     *            The direction it was reached in.
+     * @return <code>true</code> iff the square was newly discovered.
+     */
+    private boolean discover(int index, int parent, Direction direction) {
+        ensureCapacity(index + 1);
+        if (stamps[index] == generation) {
+            return false;
+        }
+        stamps[index] = generation;
+        parents[index] = parent;
+        via[index] = (byte) direction.ordinal();
+        queue[tail++] = index;
+        return true;
+    }
+
+    /**
+     * Grows the arrays so they can hold at least the given number of squares.
+     * This only happens for the first searches on a larger board.
+     *
+     * @param capacity
+     *            The amount of squares the arrays must be able to hold.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= stamps.length) {
+            return;
+        }
+        int size = Math.max(capacity, stamps.length * 2);
+        squares = Arrays.copyOf(squares, size);
+        stamps = Arrays.copyOf(stamps, size);
+        parents = Arrays.copyOf(parents, size);
+        via = Arrays.copyOf(via, size);
+        queue = Arrays.copyOf(queue, size);
+    }
+}
@@ -1,13 +1,10 @@
 package nl.tudelft.jpacman.npc.ghost;
 
 import java.util.EnumMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import nl.tudelft.jpacman.board.Direction;
-import nl.tudelft.jpacman.board.Square;
-import nl.tudelft.jpacman.board.Unit;
 import nl.tudelft.jpacman.level.Player;
 import nl.tudelft.jpacman.npc.Ghost;
 import nl.tudelft.jpacman.sprite.Sprite;
@@ -96,21 +93,44 @@ public class Clyde extends Ghost {
     public Optional<Direction> nextAiMove() {
         assert hasSquare();
 
-        Unit nearest = Navigation.findNearest(Player.class, getSquare());
+        DistanceField distances = getDistanceField();
+        AStarSearch search = getAStarSearch();
+        if (search != null) {
+            Player nearest = search.nearest(distances.getPlayers(), getSquare());
+            if (nearest == null) {
+                return Optional.empty();
+            }
+            int distance = search.search(getSquare(), nearest.getSquare(), this);
+            return approachOrFlee(distance, search.firstStep());
+        }
+
+        Player nearest = distances.nearestPlayer(this);
         if (nearest == null) {
             return Optional.empty();
         }
-        assert nearest.hasSquare();
-        Square target = nearest.getSquare();
+        int distance = distances.distance(nearest, this);
+        return approachOrFlee(distance, distances.nextStep(nearest, this));
+    }
 
-        List<Direction> path = Navigation.shortestPath(getSquare(), target, this);
-        if (path != null && !path.isEmpty()) {
-            Direction direction = path.get(0);
-            if (path.size() <= SHYNESS) {
-                return Optional.ofNullable(OPPOSITES.get(direction));
-            }
-            return Optional.of(direction);
+    /**
+     * Decides whether to approach the player or flee from it.
+     *
+     * @param distance
+     *            The length of the path to the player, or a negative number
+     *            if there is none.
+     * @param direction
+     *            The first step of the path to the player, or
+     *            <code>null</code> if there is none. The player may have
+     *            become unreachable after its distance was taken.
+     * @return The direction to move in, or empty if there is no path.
+     */
+    private Optional<Direction> approachOrFlee(int distance, Direction direction) {
+        if (distance <= 0 || direction == null) {
+            return Optional.empty();
+        }
+        if (distance <= SHYNESS) {
+            return Optional.ofNullable(OPPOSITES.get(direction));
         }
-        return Optional.empty();
+        return Optional.of(direction);
     }
 }
@@ -0,0 +1,566 @@
+package nl.tudelft.jpacman.npc.ghost;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import nl.tudelft.jpacman.board.BoardTopology;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.level.Player;
+
+/**
+ * The walking distance from every square of a board to each of the players on
+ * it, shared by all ghosts of a level.
+ * <p>
+ * Rather than every ghost searching its own way to a player on every move,
+ * a single breadth first search is done outward from the player's square the
+ * first time the distances are needed after that player moved. A ghost then
+ * finds its next step by looking at the distances of its four neighbours.
+ * The steps are the same as those of
+ * {@link Navigation#shortestPath(Square, Square, Unit)}, including the choice
+ * between equally short paths.
+ * <p>
+ * Distances are computed for the first traveller that asks after a player
+ * moved. This assumes squares are equally accessible to all ghosts, and that
+ * squares are linked both ways, as they are on boards created by a
+ * {@link nl.tudelft.jpacman.board.BoardFactory}.
+ * <p>
+ * If the level has a {@link NextHopTable}, distances and steps are looked up
+ * in it instead, so nothing needs to be computed when a player moves. On
+ * boards too large for a table, a {@link HierarchicalPathfinder} can be used
+ * to avoid searching the whole board. Given the {@link BoardTopology} of the
+ * board, distances are computed on it instead of on the squares, in which
+ * case ghosts are assumed to walk on the walkable squares.
+ * <p>
+ * Ghosts moving on different threads use the field without waiting for each
+ * other. The distances to a player are never changed once computed, but
+ * replaced as a whole, so a search runs without holding a lock and every
+ * query sees the distances of a single position of the player. Ghosts asking
+ * at the same time after a player moved may each compute the same distances.
+ */
+public class DistanceField {
+
+    /**
+     * The distance to a square that cannot be reached.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /**
+     * The distances to each of the registered players.
+     */
+    private final List<Field> fields = new CopyOnWriteArrayList<>();
+
+    /**
+     * The shortest paths of the board, or <code>null</code> if there are none.
+     */
+    private volatile NextHopTable table;
+
+    /**
+     * The pathfinder for large boards, or <code>null</code> if there is none.
+     */
+    private volatile HierarchicalPathfinder pathfinder;
+
+    /**
+     * The layout of the board, or <code>null</code> to search the squares.
+     */
+    private volatile BoardTopology topology;
+
+    /**
+     * Sets the table to look up distances and steps in.
+     *
+     * @param nextHopTable
+     *            The shortest paths of the board, or <code>null</code> to
+     *            compute them per player instead.
+     */
+    public void setNextHopTable(NextHopTable nextHopTable) {
+        this.table = nextHopTable;
+    }
+
+    /**
+     * @return The shortest paths of the board, or <code>null</code> if there
+     *         is no table.
+     */
+    public NextHopTable getNextHopTable() {
+        return table;
+    }
+
+    /**
+     * Starts keeping track of the distances to a player. Registering a player
+     * twice has no effect.
+     *
+     * @param player
+     *            The player to track.
+     */
+    public synchronized void register(Player player) {
+        assert player != null;
+        for (Field field : fields) {
+            if (field.player == player) {
+                return;
+            }
+        }
+        fields.add(new Field(player));
+    }
+
+    /**
+     * Sets the pathfinder to find distances and steps with, when there is no
+     * table.
+     *
+     * @param hierarchicalPathfinder
+     *            The pathfinder for the board, or <code>null</code> to
+     *            compute the distances per player instead.
+     */
+    public void setHierarchicalPathfinder(HierarchicalPathfinder hierarchicalPathfinder) {
+        this.pathfinder = hierarchicalPathfinder;
+    }
+
+    /**
+     * @return The pathfinder for the board, or <code>null</code> if there is
+     *         none.
+     */
+    public HierarchicalPathfinder getHierarchicalPathfinder() {
+        return pathfinder;
+    }
+
+    /**
+     * Sets the layout of the board to compute distances on.
+     *
+     * @param boardTopology
+     *            The layout of the board, or <code>null</code> to search the
+     *            squares themselves.
+     */
+    public void setTopology(BoardTopology boardTopology) {
+        this.topology = boardTopology;
+    }
+
+    /**
+     * @return The registered players, in order of registration.
+     */
+    public List<Player> getPlayers() {
+        List<Player> players = new ArrayList<>(fields.size());
+        for (Field field : fields) {
+            players.add(field.player);
+        }
+        return players;
+    }
+
+    /**
+     * Finds the player the traveller can reach in the least amount of steps.
+     * Players that are equally close are chosen in order of registration.
+     *
+     * @param traveller
+     *            The unit looking for a player, which must be on a square.
+     * @return The nearest reachable player, or <code>null</code> if no player
+     *         can be reached.
+     */
+    public Player nearestPlayer(Unit traveller) {
+        Player nearest = null;
+        int best = UNREACHABLE;
+        for (Field field : fields) {
+            int distance = distanceFrom(field, traveller);
+            if (distance < best) {
+                best = distance;
+                nearest = field.player;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the amount of steps the traveller needs to reach a player.
+     *
+     * @param player
+     *            The registered player to reach.
+     * @param traveller
+     *            The unit travelling, which must be on a square.
+     * @return The length of the shortest path, or {@link #UNREACHABLE}.
+     */
+    public int distance(Player player, Unit traveller) {
+        return distanceFrom(fieldOf(player), traveller);
+    }
+
+    /**
+     * Returns the first step on the shortest path from the traveller to a
+     * player.
+     *
+     * @param player
+     *            The registered player to reach.
+     * @param traveller
+     *            The unit travelling, which must be on a square.
+     * @return The direction to move in, or <code>null</code> if the player
+     *         cannot be reached or the traveller is already there.
+     */
+    public Direction nextStep(Player player, Unit traveller) {
+        Field field = fieldOf(player);
+        NextHopTable lookup = table;
+        if (canLookUp(lookup, field, traveller)) {
+            return lookup.nextHop(traveller.getSquare(), player.getSquare());
+        }
+        HierarchicalPathfinder planner = pathfinder;
+        if (canPlan(planner, field)) {
+            return planner.firstStep(traveller.getSquare(), player.getSquare());
+        }
+        return field.nextStep(traveller, topology);
+    }
+
+    /**
+     * Returns the first step on a path from the traveller to any square,
+     * using the table or pathfinder of the board if there is one.
+     *
+     * @param traveller
+     *            The unit travelling, which must be on a square.
+     * @param destination
+     *            The square to reach.
+     * @return The direction to move in, or <code>null</code> if the square
+     *         cannot be reached or the traveller is already there.
+     */
+    public Direction firstStep(Unit traveller, Square destination) {
+        Square square = traveller.getSquare();
+        NextHopTable lookup = table;
+        HierarchicalPathfinder planner = pathfinder;
+        BoardTopology layout = topology;
+        if (lookup == null && planner != null) {
+            return planner.firstStep(square, destination);
+        }
+        if (lookup == null && layout != null) {
+            return Navigation.firstStep(layout, square.getIndex(), destination.getIndex());
+        }
+        return Navigation.firstStep(square, destination, traveller, lookup);
+    }
+
+    /**
+     * @param field
+     *            The field of the player to reach.
+     * @param traveller
+     *            The unit travelling, which must be on a square.
+     * @return The distance from the traveller to the player.
+     */
+    private int distanceFrom(Field field, Unit traveller) {
+        NextHopTable lookup = table;
+        if (canLookUp(lookup, field, traveller)) {
+            int distance = lookup.distance(traveller.getSquare(), field.player.getSquare());
+            if (distance == NextHopTable.NO_PATH) {
+                return UNREACHABLE;
+            }
+            return distance;
+        }
+        HierarchicalPathfinder planner = pathfinder;
+        if (canPlan(planner, field)) {
+            int distance = planner.distance(traveller.getSquare(), field.player.getSquare());
+            if (distance == HierarchicalPathfinder.NO_PATH) {
+                return UNREACHABLE;
+            }
+            return distance;
+        }
+        return field.distanceFrom(traveller, topology);
+    }
+
+    /**
+     * @param lookup
+     *            The table of the board, or <code>null</code>.
+     * @param field
+     *            The field of the player to reach.
+     * @param traveller
+     *            The unit travelling, which must be on a square.
+     * @return <code>true</code> iff the distance can be looked up in the table.
+     */
+    private static boolean canLookUp(NextHopTable lookup, Field field, Unit traveller) {
+        return lookup != null && field.player.hasSquare()
+            && lookup.covers(traveller.getSquare());
+    }
+
+    /**
+     * @param planner
+     *            The pathfinder of the board, or <code>null</code>.
+     * @param field
+     *            The field of the player to reach.
+     * @return <code>true</code> iff the path can be planned by the pathfinder.
+     */
+    private static boolean canPlan(HierarchicalPathfinder planner, Field field) {
+        return planner != null && field.player.hasSquare();
+    }
+
+    /**
+     * @param player
+     *            A registered player.
+     * @return The field of the player.
+     */
+    private Field fieldOf(Player player) {
+        for (Field field : fields) {
+            if (field.player == player) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Player is not registered.");
+    }
+
+    /**
+     * The distances from all squares to a single player, computed last.
+     */
+    private static final class Field {
+
+        /**
+         * The player the distances lead to.
+         */
+        private final Player player;
+
+        /**
+         * The distances computed last, or <code>null</code> if none were.
+         */
+        private volatile Distances latest;
+
+        /**
+         * Creates a field that has not been computed yet.
+         *
+         * @param player
+         *            The player the distances lead to.
+         */
+        Field(Player player) {
+            this.player = player;
+        }
+
+        /**
+         * @param traveller
+         *            The unit travelling, which must be on a square.
+         * @param topology
+         *            The layout of the board, or <code>null</code>.
+         * @return The distance from the traveller to the player.
+         */
+        int distanceFrom(Unit traveller, BoardTopology topology) {
+            Distances distances = update(traveller, topology);
+            if (distances == null) {
+                return UNREACHABLE;
+            }
+            return distances.of(traveller.getSquare().getIndex());
+        }
+
+        /**
+         * @param traveller
+         *            The unit travelling, which must be on a square.
+         * @param topology
+         *            The layout of the board, or <code>null</code>.
+         * @return The first step towards the player, or <code>null</code>.
+         */
+        Direction nextStep(Unit traveller, BoardTopology topology) {
+            Distances distances = update(traveller, topology);
+            if (distances == null) {
+                return null;
+            }
+            Square square = traveller.getSquare();
+            int distance = distances.of(square.getIndex());
+            if (distance == UNREACHABLE || distance == 0) {
+                return null;
+            }
+            for (Direction direction : Direction.all()) {
+                if (distances.isStepTowards(square, direction, distance - 1,
+                    traveller, topology)) {
+                    return direction;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns the distances to the square the player is on, computing
+         * them if the player moved since they were computed last.
+         *
+         * @param traveller
+         *            The unit whose access to squares is used.
+         * @param topology
+         *            The layout of the board, or <code>null</code>.
+         * @return The distances, or <code>null</code> if the player is not on
+         *         a square.
+         */
+        private Distances update(Unit traveller, BoardTopology topology) {
+            if (!player.hasSquare()) {
+                return null;
+            }
+            Square target = player.getSquare();
+            Distances distances = latest;
+            if (distances == null || distances.source != target) {
+                if (topology == null) {
+                    distances = Distances.compute(target, traveller);
+                } else {
+                    distances = Distances.compute(topology, target);
+                }
+                latest = distances;
+            }
+            return distances;
+        }
+    }
+
+    /**
+     * The distances from all squares to a single square, which never change
+     * once computed.
+     */
+    private static final class Distances {
+
+        /**
+         * The initial amount of squares searched without a topology.
+         */
+        private static final int INITIAL_CAPACITY = 256;
+
+        /**
+         * The square the distances lead to.
+         */
+        private final Square source;
+
+        /**
+         * The distance of each square by index, or {@link #UNREACHABLE}.
+         */
+        private final int[] distances;
+
+        /**
+         * Creates new distances.
+         *
+         * @param source
+         *            The square the distances lead to.
+         * @param distances
+         *            The distance of each square by index, or
+         *            {@link #UNREACHABLE}.
+         */
+        private Distances(Square source, int[] distances) {
+            this.source = source;
+            this.distances = distances;
+        }
+
+        /**
+         * @param index
+         *            The index of a square on the board of the source.
+         * @return The distance of the square, or {@link #UNREACHABLE}.
+         */
+        int of(int index) {
+            if (index >= distances.length) {
+                return UNREACHABLE;
+            }
+            return distances[index];
+        }
+
+        /**
+         * @param square
+         *            The square of the traveller.
+         * @param direction
+         *            The direction to step in.
+         * @param distance
+         *            The distance the next square should have.
+         * @param traveller
+         *            The unit travelling.
+         * @param topology
+         *            The layout of the board, or <code>null</code>.
+         * @return <code>true</code> iff the step leads to an accessible square
+         *         at the given distance.
+         */
+        boolean isStepTowards(Square square, Direction direction, int distance,
+                              Unit traveller, BoardTopology topology) {
+            if (topology != null) {
+                int next = topology.neighbour(square.getIndex(), direction);
+                return of(next) == distance && topology.isWalkable(next);
+            }
+            Square next = square.getSquareAt(direction);
+            return of(next.getIndex()) == distance && next.isAccessibleTo(traveller);
+        }
+
+        /**
+         * Computes the distances to the target with a breadth first search
+         * outwards from it. Squares the traveller cannot enter get a distance
+         * but are not searched any further.
+         *
+         * @param target
+         *            The square of the player.
+         * @param traveller
+         *            The unit whose access to squares is used.
+         * @return The distances to the target.
+         */
+        static Distances compute(Square target, Unit traveller) {
+            assert target.getIndex() != Square.NO_INDEX : "Square is not on a board.";
+            int[] distances = unreachable(Math.max(INITIAL_CAPACITY, target.getIndex() + 1));
+            Square[] queue = new Square[distances.length];
+            int head = 0;
+            int tail = 0;
+            distances[target.getIndex()] = 0;
+            queue[tail++] = target;
+            while (head < tail) {
+                Square square = queue[head++];
+                if (!square.isAccessibleTo(traveller)) {
+                    continue;
+                }
+                int distance = distances[square.getIndex()] + 1;
+                for (Direction direction : Direction.all()) {
+                    Square next = square.getSquareAt(direction);
+                    int index = next.getIndex();
+                    if (index >= distances.length) {
+                        distances = grow(distances, index + 1);
+                        queue = Arrays.copyOf(queue, distances.length);
+                    }
+                    if (distances[index] == UNREACHABLE) {
+                        distances[index] = distance;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            return new Distances(target, distances);
+        }
+
+        /**
+         * Computes the distances to the target on the layout of the board,
+         * without touching any square. Squares that cannot be walked on get a
+         * distance but are not searched any further.
+         *
+         * @param topology
+         *            The layout of the board.
+         * @param target
+         *            The square of the player.
+         * @return The distances to the target.
+         */
+        static Distances compute(BoardTopology topology, Square target) {
+            int[] distances = unreachable(topology.getSquareCount());
+            int[] queue = new int[distances.length];
+            int head = 0;
+            int tail = 0;
+            distances[target.getIndex()] = 0;
+            queue[tail++] = target.getIndex();
+            while (head < tail) {
+                int current = queue[head++];
+                if (!topology.isWalkable(current)) {
+                    continue;
+                }
+                int distance = distances[current] + 1;
+                for (Direction direction : Direction.all()) {
+                    int next = topology.neighbour(current, direction);
+                    if (distances[next] == UNREACHABLE) {
+                        distances[next] = distance;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            return new Distances(target, distances);
+        }
+
+        /**
+         * @param size
+         *            The amount of squares.
+         * @return Distances of the given amount of squares, all unreachable.
+         */
+        private static int[] unreachable(int size) {
+            int[] distances = new int[size];
+            Arrays.fill(distances, UNREACHABLE);
+            return distances;
+        }
+
+        /**
+         * @param distances
+         *            The distances of some squares.
+         * @param capacity
+         *            The amount of squares needed at least.
+         * @return The distances with room for more squares, all unreachable.
+         */
+        private static int[] grow(int[] distances, int capacity) {
+            int size = Math.max(capacity, distances.length * 2);
+            int[] grown = Arrays.copyOf(distances, size);
+            Arrays.fill(grown, distances.length, size, UNREACHABLE);
+            return grown;
+        }
+    }
+}
@@ -0,0 +1,1094 @@
+package nl.tudelft.jpacman.npc.ghost;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.Unit;
+
+/**
+ * Finds paths on very large boards by planning on two levels (HPA*).
+ * <p>
+ * The board is divided in square clusters. Where two neighbouring clusters
+ * share an open stretch of border, one or two entrances are placed: a pair of
+ * squares facing each other across the border. The entrances are the nodes of
+ * a small abstract graph, with an edge of length one across every entrance
+ * and an edge between any two entrances of a cluster that are connected
+ * within that cluster. This graph is built once, since walls never change.
+ * <p>
+ * To find a path, the start and destination are connected to the entrances
+ * of their clusters and an A* search is done on the abstract graph. Only the
+ * steps that are actually needed are refined into moves, by searching within
+ * a single cluster: {@link #firstStep(Square, Square)} only refines the
+ * first leg. Paths are not always the shortest, since they go through
+ * entrances, but are usually close to it.
+ * <p>
+ * The pathfinder is built for a single traveller and assumes squares are
+ * equally accessible to all travellers that use it. Paths must start on a
+ * square the traveller can enter. The pathfinder can be used by several
+ * threads at the same time.
+ */
+public final class HierarchicalPathfinder {
+
+    /**
+     * The default width and height of a cluster.
+     */
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    /**
+     * The value returned by {@link #distance(Square, Square)} if there is no
+     * path.
+     */
+    public static final int NO_PATH = BreadthFirstSearch.NO_PATH;
+
+    /**
+     * Open stretches of border shorter than this get a single entrance in
+     * the middle, longer ones get one at either end.
+     */
+    private static final int SINGLE_ENTRANCE_LIMIT = 6;
+
+    /**
+     * Marks the absence of a node or square.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The amount of bits a heap key is shifted to make room for a node.
+     */
+    private static final int KEY_SHIFT = 32;
+
+    /**
+     * Mask to take the node out of a heap key.
+     */
+    private static final long NODE_MASK = 0xFFFFFFFFL;
+
+    /**
+     * The board to find paths on.
+     */
+    private final Board board;
+
+    /**
+     * The unit whose access to squares is used.
+     */
+    private final Unit traveller;
+
+    /**
+     * The width of the board.
+     */
+    private final int width;
+
+    /**
+     * The height of the board.
+     */
+    private final int height;
+
+    /**
+     * The width and height of a cluster.
+     */
+    private final int clusterSize;
+
+    /**
+     * The amount of clusters from top to bottom.
+     */
+    private final int clustersY;
+
+    /**
+     * The amount of clusters from left to right.
+     */
+    private final int clustersX;
+
+    /**
+     * The index of the square of every node.
+     */
+    private int[] nodeSquares;
+
+    /**
+     * Where the nodes of every cluster start in {@link #clusterNodes}.
+     */
+    private int[] clusterNodeStart;
+
+    /**
+     * The nodes, grouped by cluster.
+     */
+    private int[] clusterNodes;
+
+    /**
+     * Where the edges of every node start in {@link #edgeTargets}.
+     */
+    private int[] edgeStart;
+
+    /**
+     * The node every edge leads to, grouped by the node it leaves from.
+     */
+    private int[] edgeTargets;
+
+    /**
+     * The length of every edge.
+     */
+    private int[] edgeCosts;
+
+    /**
+     * The search state of every thread, created on first use.
+     */
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+    /**
+     * Creates a pathfinder without a graph.
+     *
+     * @param board
+     *            The board to find paths on.
+     * @param traveller
+     *            The unit whose access to squares is used.
+     * @param clusterSize
+     *            The width and height of a cluster.
+     */
+    private HierarchicalPathfinder(Board board, Unit traveller, int clusterSize) {
+        this.board = board;
+        this.traveller = traveller;
+        this.width = board.getWidth();
+        this.height = board.getHeight();
+        this.clusterSize = clusterSize;
+        this.clustersX = (width + clusterSize - 1) / clusterSize;
+        this.clustersY = (height + clusterSize - 1) / clusterSize;
+    }
+
+    /**
+     * Builds a pathfinder for a board with clusters of the default size.
+     *
+     * @param board
+     *            The board, which must have been created by a
+     *            {@link nl.tudelft.jpacman.board.BoardFactory}.
+     * @param traveller
+     *            The unit whose access to squares is used.
+     * @return The new pathfinder.
+     */
+    public static HierarchicalPathfinder build(Board board, Unit traveller) {
+        return build(board, traveller, DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * Builds a pathfinder for a board.
+     *
+     * @param board
+     *            The board, which must have been created by a
+     *            {@link nl.tudelft.jpacman.board.BoardFactory}.
+     * @param traveller
+     *            The unit whose access to squares is used.
+     * @param clusterSize
+     *            The width and height of a cluster. Larger clusters give
+     *            better paths but make searches slower.
+     * @return The new pathfinder.
+     */
+    public static HierarchicalPathfinder build(Board board, Unit traveller, int clusterSize) {
+        assert board != null;
+        assert traveller != null;
+        assert clusterSize > 0;
+
+        HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(board, traveller,
+            clusterSize);
+        new GraphBuilder(pathfinder).build();
+        return pathfinder;
+    }
+
+    /**
+     * Returns the first step of a path between two squares.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @return The direction to move in, or <code>null</code> if there is no
+     *         path or the destination is the starting square.
+     */
+    public Direction firstStep(Square from, Square to) {
+        if (from.equals(to)) {
+            return null;
+        }
+        Workspace workspace = workspaces.get();
+        LocalSearch local = workspace.local;
+        if (withinCluster(local, from, to)) {
+            return local.firstStep(to);
+        }
+        if (!workspace.plan(from, to)) {
+            return null;
+        }
+        Square current = from;
+        for (int i = 0; i <= workspace.routeLength; i++) {
+            Square next = workspace.waypoint(i);
+            if (!current.equals(next)) {
+                return step(local, current, next);
+            }
+            current = next;
+        }
+        return null;
+    }
+
+    /**
+     * Returns a path between two squares.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @return The directions to follow from the starting square to the
+     *         destination, or <code>null</code> if there is no path.
+     */
+    public List<Direction> path(Square from, Square to) {
+        List<Direction> path = new ArrayList<>();
+        if (from.equals(to)) {
+            return path;
+        }
+        Workspace workspace = workspaces.get();
+        LocalSearch local = workspace.local;
+        if (withinCluster(local, from, to)) {
+            local.appendPath(to, path);
+            return path;
+        }
+        if (!workspace.plan(from, to)) {
+            return null;
+        }
+        Square current = from;
+        for (int i = 0; i <= workspace.routeLength; i++) {
+            Square next = workspace.waypoint(i);
+            if (clusterOf(current.getIndex()) != clusterOf(next.getIndex())) {
+                path.add(step(local, current, next));
+            } else if (!current.equals(next)) {
+                local.run(current);
+                local.appendPath(next, path);
+            }
+            current = next;
+        }
+        return path;
+    }
+
+    /**
+     * Returns the length of the path between two squares that
+     * {@link #path(Square, Square)} would return.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @return The length of the path, 0 if the squares are the same, or
+     *         {@link #NO_PATH} if there is no path.
+     */
+    public int distance(Square from, Square to) {
+        if (from.equals(to)) {
+            return 0;
+        }
+        Workspace workspace = workspaces.get();
+        LocalSearch local = workspace.local;
+        if (withinCluster(local, from, to)) {
+            return local.distance(to);
+        }
+        if (!workspace.plan(from, to)) {
+            return NO_PATH;
+        }
+        return workspace.routeCost;
+    }
+
+    /**
+     * @return The amount of entrance squares in the abstract graph.
+     */
+    public int getNodeCount() {
+        return nodeSquares.length;
+    }
+
+    /**
+     * @return The amount of edges in the abstract graph.
+     */
+    public int getEdgeCount() {
+        return edgeTargets.length;
+    }
+
+    /**
+     * @return The width and height of a cluster.
+     */
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * Searches a path that stays within the cluster of the starting square.
+     *
+     * @param local
+     *            The search to use, which keeps the result.
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @return <code>true</code> iff both squares are in the same cluster and
+     *         connected within it.
+     */
+    private boolean withinCluster(LocalSearch local, Square from, Square to) {
+        if (clusterOf(from.getIndex()) != clusterOf(to.getIndex())) {
+            return false;
+        }
+        local.run(from);
+        return local.distance(to) != NO_PATH;
+    }
+
+    /**
+     * Refines the first step of a leg of a route.
+     *
+     * @param local
+     *            The search to use.
+     * @param from
+     *            The start of the leg.
+     * @param to
+     *            The end of the leg, either in the same cluster or right
+     *            across its border.
+     * @return The first step of the leg.
+     */
+    private Direction step(LocalSearch local, Square from, Square to) {
+        if (clusterOf(from.getIndex()) == clusterOf(to.getIndex())) {
+            local.run(from);
+            return local.firstStep(to);
+        }
+        for (Direction direction : Direction.all()) {
+            if (from.getSquareAt(direction).equals(to)) {
+                return direction;
+            }
+        }
+        throw new IllegalStateException("Entrance squares are not adjacent.");
+    }
+
+    /**
+     * @param index
+     *            The index of a square.
+     * @return The cluster of the square.
+     */
+    private int clusterOf(int index) {
+        return index / height / clusterSize * clustersY + index % height / clusterSize;
+    }
+
+    /**
+     * @param index
+     *            The index of a square.
+     * @return The square.
+     */
+    private Square squareAt(int index) {
+        return board.squareAt(index / height, index % height);
+    }
+
+    /**
+     * @param square
+     *            A square of the board.
+     * @return <code>true</code> iff the traveller may enter the square.
+     */
+    private boolean accessible(Square square) {
+        return square.isAccessibleTo(traveller);
+    }
+
+    /**
+     * @param from
+     *            The index of a square.
+     * @param to
+     *            The index of another square.
+     * @return The least amount of steps between the squares if there were no
+     *         walls.
+     */
+    private int estimate(int from, int to) {
+        int dx = Math.abs(from / height - to / height);
+        int dy = Math.abs(from % height - to % height);
+        return Math.min(dx, width - dx) + Math.min(dy, height - dy);
+    }
+
+    /**
+     * A breadth first search that does not leave the cluster it starts in.
+     */
+    private final class LocalSearch {
+
+        /**
+         * The number of the search in which each square was last reached.
+         */
+        private final int[] stamps = new int[clusterSize * clusterSize];
+
+        /**
+         * The distance of each square from the start.
+         */
+        private final int[] distances = new int[stamps.length];
+
+        /**
+         * The local index of the square each square was reached from.
+         */
+        private final int[] parents = new int[stamps.length];
+
+        /**
+         * The ordinal of the direction each square was reached in.
+         */
+        private final byte[] via = new byte[stamps.length];
+
+        /**
+         * The queue of local indices.
+         */
+        private final int[] queue = new int[stamps.length];
+
+        /**
+         * The squares reached, by local index.
+         */
+        private final Square[] squares = new Square[stamps.length];
+
+        /**
+         * The number of the current search.
+         */
+        private int generation;
+
+        /**
+         * The cluster of the current search.
+         */
+        private int cluster;
+
+        /**
+         * The leftmost column of the cluster.
+         */
+        private int left;
+
+        /**
+         * The top row of the cluster.
+         */
+        private int top;
+
+        /**
+         * Searches all squares that can be reached from the start without
+         * leaving its cluster.
+         *
+         * @param start
+         *            The square to start from.
+         */
+        void run(Square start) {
+            begin(start.getIndex());
+            int root = localOf(start.getIndex());
+            reach(root, start, 0, NONE, 0);
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = root;
+            while (head < tail) {
+                int current = queue[head++];
+                Square square = squares[current];
+                for (Direction direction : Direction.all()) {
+                    Square next = square.getSquareAt(direction);
+                    int index = next.getIndex();
+                    if (clusterOf(index) == cluster && stamps[localOf(index)] != generation
+                        && accessible(next)) {
+                        int local = localOf(index);
+                        reach(local, next, distances[current] + 1, current,
+                            direction.ordinal());
+                        queue[tail++] = local;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param square
+         *            A square.
+         * @return The distance to the square, or {@link #NO_PATH} if it was
+         *         not reached by the last search.
+         */
+        int distance(Square square) {
+            int index = square.getIndex();
+            if (clusterOf(index) != cluster) {
+                return NO_PATH;
+            }
+            int local = localOf(index);
+            if (stamps[local] != generation) {
+                return NO_PATH;
+            }
+            return distances[local];
+        }
+
+        /**
+         * @param square
+         *            A square reached by the last search, other than the
+         *            start.
+         * @return The first step towards it.
+         */
+        Direction firstStep(Square square) {
+            int local = localOf(square.getIndex());
+            while (parents[parents[local]] != NONE) {
+                local = parents[local];
+            }
+            return Direction.all()[via[local]];
+        }
+
+        /**
+         * Appends the steps towards a square to a path.
+         *
+         * @param square
+         *            A square reached by the last search.
+         * @param path
+         *            The path to append to.
+         */
+        void appendPath(Square square, List<Direction> path) {
+            int local = localOf(square.getIndex());
+            int end = path.size() + distances[local];
+            while (path.size() < end) {
+                path.add(null);
+            }
+            for (int i = end - 1; parents[local] != NONE; i--) {
+                path.set(i, Direction.all()[via[local]]);
+                local = parents[local];
+            }
+        }
+
+        /**
+         * Prepares a search in the cluster of a square.
+         *
+         * @param index
+         *            The index of the start square.
+         */
+        private void begin(int index) {
+            generation++;
+            if (generation == 0) {
+                Arrays.fill(stamps, 0);
+                generation = 1;
+            }
+            cluster = clusterOf(index);
+            left = index / height / clusterSize * clusterSize;
+            top = index % height / clusterSize * clusterSize;
+        }
+
+        /**
+         * Records a square that was reached.
+         *
+         * @param local
+         *            The local index of the square.
+         * @param square
+         *            The square.
+         * @param distance
+         *            Its distance from the start.
+         * @param parent
+         *            The local index of the square it was reached from.
+         * @param direction
+         *            The ordinal of the direction it was reached in.
+         */
+        private void reach(int local, Square square, int distance, int parent, int direction) {
+            stamps[local] = generation;
+            squares[local] = square;
+            distances[local] = distance;
+            parents[local] = parent;
+            via[local] = (byte) direction;
+        }
+
+        /**
+         * @param index
+         *            The index of a square in the current cluster.
+         * @return Its index within the cluster.
+         */
+        private int localOf(int index) {
+            return (index / height - left) * clusterSize + index % height - top;
+        }
+    }
+
+    /**
+     * The state of the searches of a single thread.
+     */
+    private final class Workspace {
+
+        /**
+         * The search within clusters.
+         */
+        private final LocalSearch local = new LocalSearch();
+
+        /**
+         * The id of the destination in the abstract search.
+         */
+        private final int goal = nodeSquares.length;
+
+        /**
+         * The length of the shortest known path to each node.
+         */
+        private final int[] costs = new int[goal + 1];
+
+        /**
+         * The number of the search in which each node was last reached.
+         */
+        private final int[] stamps = new int[goal + 1];
+
+        /**
+         * The number of the search in which each node was last expanded.
+         */
+        private final int[] closed = new int[goal + 1];
+
+        /**
+         * The node each node was reached from, or {@link #NONE} for the
+         * start.
+         */
+        private final int[] parents = new int[goal + 1];
+
+        /**
+         * The distance from each node to the destination, if in the same
+         * cluster.
+         */
+        private final int[] goalCosts = new int[goal];
+
+        /**
+         * The number of the search in which each goal cost was set.
+         */
+        private final int[] goalStamps = new int[goal];
+
+        /**
+         * The nodes on the route found by the last plan, in order.
+         */
+        private final int[] route = new int[goal];
+
+        /**
+         * The heap of nodes to expand, keyed by estimate and node.
+         */
+        private long[] heap = new long[goal + 1];
+
+        /**
+         * The amount of entries on the heap.
+         */
+        private int heapSize;
+
+        /**
+         * The number of the current search.
+         */
+        private int generation;
+
+        /**
+         * The destination of the current search.
+         */
+        private Square target;
+
+        /**
+         * The amount of nodes on the route found by the last plan.
+         */
+        private int routeLength;
+
+        /**
+         * The length of the route found by the last plan.
+         */
+        private int routeCost;
+
+        /**
+         * Plans a route over the abstract graph between two squares in
+         * different clusters.
+         *
+         * @param from
+         *            The starting square.
+         * @param to
+         *            The destination.
+         * @return <code>true</code> iff a route was found.
+         */
+        boolean plan(Square from, Square to) {
+            if (!accessible(to)) {
+                return false;
+            }
+            begin(to);
+            local.run(to);
+            int cluster = clusterOf(to.getIndex());
+            for (int i = clusterNodeStart[cluster]; i < clusterNodeStart[cluster + 1]; i++) {
+                int node = clusterNodes[i];
+                int distance = local.distance(squareAt(nodeSquares[node]));
+                if (distance != NO_PATH) {
+                    goalCosts[node] = distance;
+                    goalStamps[node] = generation;
+                }
+            }
+            local.run(from);
+            cluster = clusterOf(from.getIndex());
+            for (int i = clusterNodeStart[cluster]; i < clusterNodeStart[cluster + 1]; i++) {
+                int node = clusterNodes[i];
+                int distance = local.distance(squareAt(nodeSquares[node]));
+                if (distance != NO_PATH) {
+                    relax(node, distance, NONE);
+                }
+            }
+            return search();
+        }
+
+        /**
+         * @param i
+         *            The position of a waypoint on the route, or the route
+         *            length for the destination.
+         * @return The square of the waypoint.
+         */
+        Square waypoint(int i) {
+            if (i < routeLength) {
+                return squareAt(nodeSquares[route[i]]);
+            }
+            return target;
+        }
+
+        /**
+         * Runs A* on the abstract graph from the nodes on the heap.
+         *
+         * @return <code>true</code> iff the destination was reached.
+         */
+        private boolean search() {
+            while (heapSize > 0) {
+                int node = (int) (pop() & NODE_MASK);
+                if (closed[node] == generation) {
+                    continue;
+                }
+                closed[node] = generation;
+                if (node == goal) {
+                    finish();
+                    return true;
+                }
+                if (goalStamps[node] == generation) {
+                    relax(goal, costs[node] + goalCosts[node], node);
+                }
+                for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                    relax(edgeTargets[e], costs[node] + edgeCosts[e], node);
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Records a path to a node if it is shorter than the one known.
+         *
+         * @param node
+         *            The node reached.
+         * @param cost
+         *            The length of the path to it.
+         * @param parent
+         *            The node it was reached from.
+         */
+        private void relax(int node, int cost, int parent) {
+            if (closed[node] == generation
+                || (stamps[node] == generation && costs[node] <= cost)) {
+                return;
+            }
+            stamps[node] = generation;
+            costs[node] = cost;
+            parents[node] = parent;
+            int estimate = cost;
+            if (node != goal) {
+                estimate += estimate(nodeSquares[node], target.getIndex());
+            }
+            push(((long) estimate << KEY_SHIFT) | node);
+        }
+
+        /**
+         * Stores the route that ends in the destination.
+         */
+        private void finish() {
+            routeCost = costs[goal];
+            routeLength = 0;
+            for (int node = parents[goal]; node != NONE; node = parents[node]) {
+                routeLength++;
+            }
+            int i = routeLength;
+            for (int node = parents[goal]; node != NONE; node = parents[node]) {
+                route[--i] = node;
+            }
+        }
+
+        /**
+         * Prepares a new plan.
+         *
+         * @param to
+         *            The destination.
+         */
+        private void begin(Square to) {
+            generation++;
+            if (generation == 0) {
+                Arrays.fill(stamps, 0);
+                Arrays.fill(closed, 0);
+                Arrays.fill(goalStamps, 0);
+                generation = 1;
+            }
+            heapSize = 0;
+            target = to;
+        }
+
+        /**
+         * Puts a key on the heap.
+         *
+         * @param key
+         *            The key.
+         */
+        private void push(long key) {
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, heap.length * 2);
+            }
+            int child = heapSize++;
+            while (child > 0 && heap[(child - 1) >>> 1] > key) {
+                heap[child] = heap[(child - 1) >>> 1];
+                child = (child - 1) >>> 1;
+            }
+            heap[child] = key;
+        }
+
+        /**
+         * Takes the lowest key off the heap.
+         *
+         * @return The key.
+         */
+        private long pop() {
+            long top = heap[0];
+            long last = heap[--heapSize];
+            int parent = 0;
+            int child = 1;
+            while (child < heapSize) {
+                if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= last) {
+                    break;
+                }
+                heap[parent] = heap[child];
+                parent = child;
+                child = 2 * parent + 1;
+            }
+            heap[parent] = last;
+            return top;
+        }
+    }
+
+    /**
+     * Builds the abstract graph of a pathfinder.
+     */
+    private static final class GraphBuilder {
+
+        /**
+         * The pathfinder to build the graph of.
+         */
+        private final HierarchicalPathfinder graph;
+
+        /**
+         * The node of every entrance square, by square index.
+         */
+        private final Map<Integer, Integer> nodeOf = new HashMap<>();
+
+        /**
+         * The square index of every node.
+         */
+        private final List<Integer> squares = new ArrayList<>();
+
+        /**
+         * The edges as triples of source, target and length.
+         */
+        private final List<int[]> edges = new ArrayList<>();
+
+        /**
+         * Creates a builder.
+         *
+         * @param graph
+         *            The pathfinder to build the graph of.
+         */
+        GraphBuilder(HierarchicalPathfinder graph) {
+            this.graph = graph;
+        }
+
+        /**
+         * Finds the entrances, connects them and stores the graph.
+         */
+        void build() {
+            for (int cx = 0; cx < graph.clustersX; cx++) {
+                for (int cy = 0; cy < graph.clustersY; cy++) {
+                    addEntrances(cx, cy);
+                }
+            }
+            graph.nodeSquares = new int[squares.size()];
+            for (int node = 0; node < squares.size(); node++) {
+                graph.nodeSquares[node] = squares.get(node);
+            }
+            groupByCluster();
+            addClusterEdges();
+            storeEdges();
+        }
+
+        /**
+         * Adds the entrances on the right and bottom border of a cluster.
+         *
+         * @param cx
+         *            The column of the cluster.
+         * @param cy
+         *            The row of the cluster.
+         */
+        private void addEntrances(int cx, int cy) {
+            int size = graph.clusterSize;
+            int left = cx * size;
+            int top = cy * size;
+            int right = Math.min(left + size, graph.width);
+            int bottom = Math.min(top + size, graph.height);
+            if (graph.clustersX > 1) {
+                scanBorder(right - 1, top, false, bottom - top, Direction.EAST);
+            }
+            if (graph.clustersY > 1) {
+                scanBorder(left, bottom - 1, true, right - left, Direction.SOUTH);
+            }
+        }
+
+        /**
+         * Finds the open stretches along a border and places entrances.
+         *
+         * @param x
+         *            The column of the first square along the border.
+         * @param y
+         *            The row of the first square along the border.
+         * @param horizontal
+         *            <code>true</code> iff the border runs from left to right.
+         * @param length
+         *            The amount of squares along the border.
+         * @param across
+         *            The direction across the border.
+         */
+        private void scanBorder(int x, int y, boolean horizontal, int length, Direction across) {
+            int run = 0;
+            for (int i = 0; i < length; i++) {
+                Square square = along(x, y, horizontal, i);
+                if (graph.accessible(square) && graph.accessible(square.getSquareAt(across))) {
+                    run++;
+                } else {
+                    addEntrances(x, y, horizontal, i - run, run, across);
+                    run = 0;
+                }
+            }
+            addEntrances(x, y, horizontal, length - run, run, across);
+        }
+
+        /**
+         * Places the entrances of an open stretch of border.
+         *
+         * @param x
+         *            The column of the first square along the border.
+         * @param y
+         *            The row of the first square along the border.
+         * @param horizontal
+         *            <code>true</code> iff the border runs from left to right.
+         * @param start
+         *            The position of the stretch along the border.
+         * @param run
+         *            The length of the stretch.
+         * @param across
+         *            The direction across the border.
+         */
+        private void addEntrances(int x, int y, boolean horizontal, int start, int run,
+                                  Direction across) {
+            if (run == 0) {
+                return;
+            }
+            if (run < SINGLE_ENTRANCE_LIMIT) {
+                connect(along(x, y, horizontal, start + run / 2), across);
+            } else {
+                connect(along(x, y, horizontal, start), across);
+                connect(along(x, y, horizontal, start + run - 1), across);
+            }
+        }
+
+        /**
+         * @param x
+         *            The column of the first square along the border.
+         * @param y
+         *            The row of the first square along the border.
+         * @param horizontal
+         *            <code>true</code> iff the border runs from left to right.
+         * @param offset
+         *            The position along the border.
+         * @return The square at that position.
+         */
+        private Square along(int x, int y, boolean horizontal, int offset) {
+            if (horizontal) {
+                return graph.board.squareAt(x + offset, y);
+            }
+            return graph.board.squareAt(x, y + offset);
+        }
+
+        /**
+         * Adds an entrance across a border.
+         *
+         * @param square
+         *            The square on this side of the border.
+         * @param across
+         *            The direction across the border.
+         */
+        private void connect(Square square, Direction across) {
+            int inside = node(square.getIndex());
+            int outside = node(square.getSquareAt(across).getIndex());
+            edges.add(new int[] {inside, outside, 1});
+            edges.add(new int[] {outside, inside, 1});
+        }
+
+        /**
+         * @param index
+         *            The index of an entrance square.
+         * @return Its node, which is created if needed.
+         */
+        private int node(int index) {
+            Integer node = nodeOf.get(index);
+            if (node == null) {
+                node = squares.size();
+                nodeOf.put(index, node);
+                squares.add(index);
+            }
+            return node;
+        }
+
+        /**
+         * Lists the nodes of every cluster.
+         */
+        private void groupByCluster() {
+            int[] start = new int[graph.clustersX * graph.clustersY + 1];
+            for (int square : graph.nodeSquares) {
+                start[graph.clusterOf(square) + 1]++;
+            }
+            for (int c = 1; c < start.length; c++) {
+                start[c] += start[c - 1];
+            }
+            int[] nodes = new int[graph.nodeSquares.length];
+            int[] next = Arrays.copyOf(start, start.length - 1);
+            for (int node = 0; node < nodes.length; node++) {
+                nodes[next[graph.clusterOf(graph.nodeSquares[node])]++] = node;
+            }
+            graph.clusterNodeStart = start;
+            graph.clusterNodes = nodes;
+        }
+
+        /**
+         * Connects the entrances within every cluster.
+         */
+        private void addClusterEdges() {
+            LocalSearch local = graph.new LocalSearch();
+            for (int c = 0; c + 1 < graph.clusterNodeStart.length; c++) {
+                for (int i = graph.clusterNodeStart[c]; i < graph.clusterNodeStart[c + 1]; i++) {
+                    int from = graph.clusterNodes[i];
+                    local.run(graph.squareAt(graph.nodeSquares[from]));
+                    for (int j = graph.clusterNodeStart[c]; j < graph.clusterNodeStart[c + 1];
+                         j++) {
+                        int to = graph.clusterNodes[j];
+                        int distance = local.distance(graph.squareAt(graph.nodeSquares[to]));
+                        if (from != to && distance != NO_PATH) {
+                            edges.add(new int[] {from, to, distance});
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Stores the edges grouped by the node they leave from.
+         */
+        private void storeEdges() {
+            int[] start = new int[graph.nodeSquares.length + 1];
+            for (int[] edge : edges) {
+                start[edge[0] + 1]++;
+            }
+            for (int n = 1; n < start.length; n++) {
+                start[n] += start[n - 1];
+            }
+            int[] targets = new int[edges.size()];
+            int[] costs = new int[edges.size()];
+            int[] next = Arrays.copyOf(start, start.length - 1);
+            for (int[] edge : edges) {
+                int e = next[edge[0]]++;
+                targets[e] = edge[1];
+                costs[e] = edge[2];
+            }
+            graph.edgeStart = start;
+            graph.edgeTargets = targets;
+            graph.edgeCosts = costs;
+        }
+    }
+}
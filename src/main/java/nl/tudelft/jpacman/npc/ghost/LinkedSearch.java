@@ -0,0 +1,164 @@
+package nl.tudelft.jpacman.npc.ghost;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.Unit;
+
+/**
+ * A breadth first search that follows the links between squares and keeps
+ * track of them in sets, for squares that were linked by hand rather than
+ * placed on a board by a {@link nl.tudelft.jpacman.board.BoardFactory}, and so
+ * have no index for a {@link BreadthFirstSearch} to work with. It allocates
+ * for every search, so it is only used for such squares.
+ */
+final class LinkedSearch {
+
+    private LinkedSearch() {
+    }
+
+    /**
+     * Calculates the shortest path, as
+     * {@link Navigation#shortestPath(Square, Square, Unit)} does.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @param traveller
+     *            The traveller attempting to reach the destination, or
+     *            <code>null</code> to ignore terrain.
+     * @return The shortest path to the destination or <code>null</code> if no
+     *         such path could be found. When the destination is the current
+     *         square, an empty list is returned.
+     */
+    static List<Direction> shortestPath(Square from, Square to, Unit traveller) {
+        if (from.equals(to)) {
+            return new ArrayList<>();
+        }
+
+        List<Node> targets = new ArrayList<>();
+        Set<Square> visited = new HashSet<>();
+        targets.add(new Node(null, from, null));
+        while (!targets.isEmpty()) {
+            Node node = targets.remove(0);
+            Square square = node.getSquare();
+            if (square.equals(to)) {
+                return node.getPath();
+            }
+            visited.add(square);
+            addNewTargets(traveller, targets, visited, node, square);
+        }
+        return null;
+    }
+
+    private static void addNewTargets(Unit traveller, List<Node> targets,
+                                      Set<Square> visited, Node node, Square square) {
+        for (Direction direction : Direction.all()) {
+            Square target = square.getSquareAt(direction);
+            if (!visited.contains(target)
+                && (traveller == null || target.isAccessibleTo(traveller))) {
+                targets.add(new Node(direction, target, node));
+            }
+        }
+    }
+
+    /**
+     * Finds the nearest unit of the given type, as
+     * {@link Navigation#findNearest(Class, Square)} does.
+     *
+     * @param type
+     *            The type of unit to search for.
+     * @param currentLocation
+     *            The starting location for the search.
+     * @return The nearest unit of the given type, or <code>null</code> if no
+     *         such unit could be found.
+     */
+    static Unit findNearest(Class<? extends Unit> type, Square currentLocation) {
+        List<Square> toDo = new ArrayList<>();
+        Set<Square> visited = new HashSet<>();
+
+        toDo.add(currentLocation);
+
+        while (!toDo.isEmpty()) {
+            Square square = toDo.remove(0);
+            Unit unit = Navigation.findUnit(type, square);
+            if (unit != null) {
+                return unit;
+            }
+            visited.add(square);
+            for (Direction direction : Direction.all()) {
+                Square newTarget = square.getSquareAt(direction);
+                if (!visited.contains(newTarget) && !toDo.contains(newTarget)) {
+                    toDo.add(newTarget);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Helper class to keep track of the path.
+     */
+    private static final class Node {
+
+        /**
+         * The direction for this node, which is <code>null</code> for the root
+         * node.
+         */
+        private final Direction direction;
+
+        /**
+         * The parent node, which is <code>null</code> for the root node.
+         */
+        private final Node parent;
+
+        /**
+         * The square associated with this node.
+         */
+        private final Square square;
+
+        /**
+         * Creates a new node.
+         *
+         * @param direction
+         *            The direction, which is <code>null</code> for the root
+         *            node.
+         * @param square
+         *            The square.
+         * @param parent
+         *            The parent node, which is <code>null</code> for the root
+         *            node.
+         */
+        Node(Direction direction, Square square, Node parent) {
+            this.direction = direction;
+            this.square = square;
+            this.parent = parent;
+        }
+
+        /**
+         * @return The square for this node.
+         */
+        private Square getSquare() {
+            return square;
+        }
+
+        /**
+         * Returns the list of values from the root of the tree to this node.
+         *
+         * @return The list of values from the root of the tree to this node.
+         */
+        private List<Direction> getPath() {
+            if (parent == null) {
+                return new ArrayList<>();
+            }
+            List<Direction> path = parent.getPath();
+            path.add(direction);
+            return path;
+        }
+    }
+}
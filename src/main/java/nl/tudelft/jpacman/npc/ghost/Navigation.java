@@ -1,14 +1,16 @@
 package nl.tudelft.jpacman.npc.ghost;
 
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardTopology;
 import nl.tudelft.jpacman.board.Direction;
 import nl.tudelft.jpacman.board.Square;
 import nl.tudelft.jpacman.board.Unit;
+import nl.tudelft.jpacman.board.UnitKind;
+import nl.tudelft.jpacman.level.Pellet;
+import nl.tudelft.jpacman.level.Player;
+import nl.tudelft.jpacman.npc.Ghost;
 
 /**
  * Navigation provides utility to navigate on {@link Square}s.
@@ -17,9 +19,28 @@ import nl.tudelft.jpacman.board.Unit;
  */
 public final class Navigation {
 
+    /**
+     * The search used by each thread, so repeated searches reuse the same
+     * arrays instead of allocating new ones.
+     */
+    private static final ThreadLocal<BreadthFirstSearch> SEARCH =
+        ThreadLocal.withInitial(BreadthFirstSearch::new);
+
     private Navigation() {
     }
 
+    /**
+     * Returns the breadth first search of the current thread. It can be used
+     * for several queries on the same search, such as the length of a path
+     * and its first step, as long as no other navigation method is called in
+     * between on the same thread.
+     *
+     * @return The search of the current thread.
+     */
+    public static BreadthFirstSearch search() {
+        return SEARCH.get();
+    }
+
     /**
      * Calculates the shortest path. This is done by BFS. This search ensures
      * the traveller is allowed to occupy the squares on the way, or returns the
@@ -41,34 +62,225 @@ public final class Navigation {
      */
     public static List<Direction> shortestPath(Square from, Square to,
                                                          Unit traveller) {
-        if (from.equals(to)) {
-            return new ArrayList<>();
+        if (!onBoard(from)) {
+            return LinkedSearch.shortestPath(from, to, traveller);
         }
+        BreadthFirstSearch search = search();
+        if (search.search(from, to, traveller) == BreadthFirstSearch.NO_PATH) {
+            return null;
+        }
+        return search.path();
+    }
 
-        List<Node> targets = new ArrayList<>();
-        Set<Square> visited = new HashSet<>();
-        targets.add(new Node(null, from, null));
-        while (!targets.isEmpty()) {
-            Node node = targets.remove(0);
-            Square square = node.getSquare();
-            if (square.equals(to)) {
-                return node.getPath();
+    /**
+     * Calculates the first step of the shortest path, without building the
+     * path itself. See {@link #shortestPath(Square, Square, Unit)}.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @param traveller
+     *            The traveller attempting to reach the destination, or
+     *            <code>null</code> to ignore terrain.
+     * @return The direction of the first step, or <code>null</code> if there
+     *         is no path or the destination is the current square.
+     */
+    public static Direction firstStep(Square from, Square to, Unit traveller) {
+        if (!onBoard(from)) {
+            List<Direction> path = LinkedSearch.shortestPath(from, to, traveller);
+            if (path == null || path.isEmpty()) {
+                return null;
             }
-            visited.add(square);
-            addNewTargets(traveller, targets, visited, node, square);
+            return path.get(0);
         }
-        return null;
+        BreadthFirstSearch search = search();
+        search.search(from, to, traveller);
+        return search.firstStep();
     }
 
-    private static void addNewTargets(Unit traveller, List<Node> targets,
-                                      Set<Square> visited, Node node, Square square) {
-        for (Direction direction : Direction.values()) {
-            Square target = square.getSquareAt(direction);
-            if (!visited.contains(target)
-                && (traveller == null || target.isAccessibleTo(traveller))) {
-                targets.add(new Node(direction, target, node));
+    /**
+     * Calculates the length of the shortest path. See
+     * {@link #shortestPath(Square, Square, Unit)}.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @param traveller
+     *            The traveller attempting to reach the destination, or
+     *            <code>null</code> to ignore terrain.
+     * @return The length of the shortest path, 0 if the squares are the
+     *         same, or {@link BreadthFirstSearch#NO_PATH} if there is no path.
+     */
+    public static int distance(Square from, Square to, Unit traveller) {
+        if (!onBoard(from)) {
+            List<Direction> path = LinkedSearch.shortestPath(from, to, traveller);
+            if (path == null) {
+                return BreadthFirstSearch.NO_PATH;
             }
+            return path.size();
         }
+        return search().search(from, to, traveller);
+    }
+
+    /**
+     * @param square
+     *            The square to check.
+     * @return <code>true</code> iff the square was placed on a board by a
+     *         {@link nl.tudelft.jpacman.board.BoardFactory}, so it can be
+     *         searched from with a {@link BreadthFirstSearch}. Other squares
+     *         are searched by following their links.
+     */
+    private static boolean onBoard(Square square) {
+        return square.getIndex() != Square.NO_INDEX;
+    }
+
+    /**
+     * Calculates the shortest path between two squares of a board layout,
+     * walking only on the squares units can walk on. Unlike
+     * {@link #shortestPath(Square, Square, Unit)}, the search does not touch
+     * any square.
+     *
+     * @param topology
+     *            The layout of the board.
+     * @param from
+     *            The index of the starting square.
+     * @param to
+     *            The index of the destination.
+     * @return The shortest path to the destination or <code>null</code> if no
+     *         such path could be found. When the destination is the current
+     *         square, an empty list is returned.
+     */
+    public static List<Direction> shortestPath(BoardTopology topology, int from, int to) {
+        BreadthFirstSearch search = search();
+        if (search.search(topology, from, to) == BreadthFirstSearch.NO_PATH) {
+            return null;
+        }
+        return search.path();
+    }
+
+    /**
+     * Calculates the first step of the shortest path on a board layout. See
+     * {@link #shortestPath(BoardTopology, int, int)}.
+     *
+     * @param topology
+     *            The layout of the board.
+     * @param from
+     *            The index of the starting square.
+     * @param to
+     *            The index of the destination.
+     * @return The direction of the first step, or <code>null</code> if there
+     *         is no path or the destination is the current square.
+     */
+    public static Direction firstStep(BoardTopology topology, int from, int to) {
+        BreadthFirstSearch search = search();
+        search.search(topology, from, to);
+        return search.firstStep();
+    }
+
+    /**
+     * Calculates the length of the shortest path on a board layout. See
+     * {@link #shortestPath(BoardTopology, int, int)}.
+     *
+     * @param topology
+     *            The layout of the board.
+     * @param from
+     *            The index of the starting square.
+     * @param to
+     *            The index of the destination.
+     * @return The length of the shortest path, 0 if the squares are the
+     *         same, or {@link BreadthFirstSearch#NO_PATH} if there is no path.
+     */
+    public static int distance(BoardTopology topology, int from, int to) {
+        return search().search(topology, from, to);
+    }
+
+    /**
+     * Calculates the shortest path, looking it up in a table of all shortest
+     * paths if there is one for the board. Otherwise, or when terrain is
+     * ignored, a search is done as in
+     * {@link #shortestPath(Square, Square, Unit)}.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @param traveller
+     *            The traveller attempting to reach the destination, or
+     *            <code>null</code> to ignore terrain.
+     * @param table
+     *            The shortest paths of the board, or <code>null</code>.
+     * @return The shortest path to the destination or <code>null</code> if no
+     *         such path could be found.
+     */
+    public static List<Direction> shortestPath(Square from, Square to, Unit traveller,
+                                               NextHopTable table) {
+        if (canLookUp(table, from, traveller)) {
+            return table.path(from, to);
+        }
+        return shortestPath(from, to, traveller);
+    }
+
+    /**
+     * Calculates the first step of the shortest path, looking it up in a
+     * table if possible. See
+     * {@link #shortestPath(Square, Square, Unit, NextHopTable)}.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @param traveller
+     *            The traveller attempting to reach the destination, or
+     *            <code>null</code> to ignore terrain.
+     * @param table
+     *            The shortest paths of the board, or <code>null</code>.
+     * @return The direction of the first step, or <code>null</code> if there
+     *         is no path or the destination is the current square.
+     */
+    public static Direction firstStep(Square from, Square to, Unit traveller,
+                                      NextHopTable table) {
+        if (canLookUp(table, from, traveller)) {
+            return table.nextHop(from, to);
+        }
+        return firstStep(from, to, traveller);
+    }
+
+    /**
+     * Calculates the length of the shortest path, looking it up in a table if
+     * possible. See {@link #shortestPath(Square, Square, Unit, NextHopTable)}.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @param traveller
+     *            The traveller attempting to reach the destination, or
+     *            <code>null</code> to ignore terrain.
+     * @param table
+     *            The shortest paths of the board, or <code>null</code>.
+     * @return The length of the shortest path, 0 if the squares are the
+     *         same, or {@link BreadthFirstSearch#NO_PATH} if there is no path.
+     */
+    public static int distance(Square from, Square to, Unit traveller, NextHopTable table) {
+        if (canLookUp(table, from, traveller)) {
+            return table.distance(from, to);
+        }
+        return distance(from, to, traveller);
+    }
+
+    /**
+     * @param table
+     *            The shortest paths of the board, or <code>null</code>.
+     * @param from
+     *            The starting square.
+     * @param traveller
+     *            The traveller, or <code>null</code> to ignore terrain.
+     * @return <code>true</code> iff the path can be looked up in the table.
+     */
+    private static boolean canLookUp(NextHopTable table, Square from, Unit traveller) {
+        return table != null && traveller != null && table.covers(from);
     }
 
     /**
@@ -85,27 +297,12 @@ public final class Navigation {
      */
     public static Unit findNearest(Class<? extends Unit> type,
                                              Square currentLocation) {
-        List<Square> toDo = new ArrayList<>();
-        Set<Square> visited = new HashSet<>();
-
-        toDo.add(currentLocation);
-
-        while (!toDo.isEmpty()) {
-            Square square = toDo.remove(0);
-            Unit unit = findUnit(type, square);
-            if (unit != null) {
-                assert unit.hasSquare();
-                return unit;
-            }
-            visited.add(square);
-            for (Direction direction : Direction.values()) {
-                Square newTarget = square.getSquareAt(direction);
-                if (!visited.contains(newTarget) && !toDo.contains(newTarget)) {
-                    toDo.add(newTarget);
-                }
-            }
+        if (!onBoard(currentLocation)) {
+            return LinkedSearch.findNearest(type, currentLocation);
         }
-        return null;
+        Unit unit = search().findNearest(type, currentLocation);
+        assert unit == null || unit.hasSquare();
+        return unit;
     }
 
     /**
@@ -144,93 +341,35 @@ public final class Navigation {
      * @return A unit of type T, iff such a unit occupies this square, or
      *         <code>null</code> of none does.
      */
-    @SuppressWarnings("unchecked")
     public static <T extends Unit> T findUnit(Class<T> type, Square square) {
-        for (Unit unit : square.getOccupants()) {
-            if (type.isInstance(unit)) {
-                assert unit.hasSquare();
-                return (T) unit;
-            }
+        UnitKind kind = kindOf(type);
+        if (kind != null && !square.hasOccupantOfKind(kind)) {
+            return null;
         }
-        return null;
+        T unit = square.firstOccupantOf(type);
+        assert unit == null || unit.hasSquare();
+        return unit;
     }
 
     /**
-     * Helper class to keep track of the path.
-     *
-     * @author Jeroen Roosen
-     */
-    private static final class Node {
-
-        /**
-         * The direction for this node, which is <code>null</code> for the root
-         * node.
-         */
-        private final Direction direction;
-
-        /**
-         * The parent node, which is <code>null</code> for the root node.
-         */
-        private final Node parent;
-
-        /**
-         * The square associated with this node.
-         */
-        private final Square square;
-
-        /**
-         * Creates a new node.
-         *
-         * @param direction
-         *            The direction, which is <code>null</code> for the root
-         *            node.
-         * @param square
-         *            The square.
-         * @param parent
-         *            The parent node, which is <code>null</code> for the root
-         *            node.
-         */
-        Node(Direction direction, Square square, Node parent) {
-            this.direction = direction;
-            this.square = square;
-            this.parent = parent;
-        }
-
-        /**
-         * @return The direction for this node, or <code>null</code> if this
-         *         node is a root node.
-         */
-        private Direction getDirection() {
-            return direction;
-        }
-
-        /**
-         * @return The square for this node.
-         */
-        private Square getSquare() {
-            return square;
+     * Returns the kind all units of a type are of, so squares without such
+     * units can be skipped with {@link Square#hasOccupantOfKind(UnitKind)}.
+     *
+     * @param type
+     *            The type of unit.
+     * @return The kind of all units of the type, or <code>null</code> if
+     *         they can be of several kinds.
+     */
+    static UnitKind kindOf(Class<? extends Unit> type) {
+        if (Player.class.isAssignableFrom(type)) {
+            return UnitKind.PLAYER;
         }
-
-        /**
-         * @return The parent node, or <code>null</code> if this node is a root
-         *         node.
-         */
-        private Node getParent() {
-            return parent;
+        if (Ghost.class.isAssignableFrom(type)) {
+            return UnitKind.GHOST;
         }
-
-        /**
-         * Returns the list of values from the root of the tree to this node.
-         *
-         * @return The list of values from the root of the tree to this node.
-         */
-        private List<Direction> getPath() {
-            if (parent == null) {
-                return new ArrayList<>();
-            }
-            List<Direction> path = parent.getPath();
-            path.add(getDirection());
-            return path;
+        if (Pellet.class.isAssignableFrom(type)) {
+            return UnitKind.PELLET;
         }
+        return null;
     }
 }
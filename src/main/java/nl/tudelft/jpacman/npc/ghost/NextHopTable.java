@@ -0,0 +1,495 @@
+package nl.tudelft.jpacman.npc.ghost;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Direction;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.Unit;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * The shortest distances and first steps between all pairs of accessible
+ * squares of a board.
+ * <p>
+ * The walls of a board never change, so the shortest paths do not either.
+ * This table computes them all once, with a breadth first search from every
+ * accessible square, after which a distance or first step is a single array
+ * lookup and a full path takes one lookup per step. Distances are stored as
+ * unsigned shorts and steps as bytes, so the table takes about three bytes per
+ * pair of squares; see {@link #estimateBytes(int)}. It supports boards of up
+ * to {@value #MAX_SQUARES} accessible squares, but well before that the
+ * memory needed becomes the limit.
+ * <p>
+ * First steps are the same as those of
+ * {@link Navigation#firstStep(Square, Square, Unit)}. A full path may choose
+ * differently between equally short paths further on. The table is built for
+ * a single traveller and assumes squares are equally accessible to all
+ * travellers that use it. Once built it is immutable and thread safe.
+ * <p>
+ * Squares are looked up by {@link Square#getIndex()}, so a table can be
+ * shared by all boards that {@link #fits(Board) have the same walls} as the
+ * board it was built for, such as several games of the same map.
+ */
+public final class NextHopTable {
+
+    /**
+     * The most accessible squares a table can hold, since distances must fit
+     * in an unsigned short with one value left to mark missing paths.
+     */
+    public static final int MAX_SQUARES = 0xFFFF;
+
+    /**
+     * The distance returned if there is no path.
+     */
+    public static final int NO_PATH = BreadthFirstSearch.NO_PATH;
+
+    /**
+     * The estimated amount of bytes an array takes besides its elements.
+     */
+    private static final long ARRAY_OVERHEAD = 16L;
+
+    /**
+     * The estimated size of a reference in bytes.
+     */
+    private static final long REFERENCE_BYTES = 8L;
+
+    /**
+     * The amount of source squares a single build task handles without
+     * splitting.
+     */
+    private static final int SOURCES_PER_TASK = 32;
+
+    /**
+     * The stored distance of squares that cannot be reached.
+     */
+    private static final short UNREACHABLE = (short) 0xFFFF;
+
+    /**
+     * Mask to read a stored distance as unsigned.
+     */
+    private static final int UNSIGNED = 0xFFFF;
+
+    /**
+     * The stored step to a square that cannot be reached or is the source.
+     */
+    private static final byte NO_STEP = -1;
+
+    /**
+     * The id of squares that are not in the table.
+     */
+    private static final int NO_ID = -1;
+
+    /**
+     * The amount of accessible squares.
+     */
+    private final int squareCount;
+
+    /**
+     * The width of the board this table was built for.
+     */
+    private final int width;
+
+    /**
+     * The height of the board this table was built for.
+     */
+    private final int height;
+
+    /**
+     * The indices of the walkable squares of the board this table was built
+     * for.
+     */
+    private final BitSet walkable;
+
+    /**
+     * The id of each square by {@link Square#getIndex()}, or {@link #NO_ID}.
+     */
+    private final int[] ids;
+
+    /**
+     * The ids of the accessible neighbours of every square, four per square
+     * in the order of {@link Direction#values()}, or {@link #NO_ID}.
+     */
+    private final int[] neighbours;
+
+    /**
+     * The distance from every square to every other square, by id.
+     */
+    private final short[][] distances;
+
+    /**
+     * The ordinal of the first step from every square to every other square,
+     * by id.
+     */
+    private final byte[][] steps;
+
+    /**
+     * Creates an empty table for the given squares.
+     *
+     * @param board
+     *            The board the table is built for.
+     * @param squareCount
+     *            The amount of accessible squares.
+     * @param ids
+     *            The id of each square by index.
+     * @param neighbours
+     *            The ids of the accessible neighbours of every square.
+     */
+    private NextHopTable(Board board, int squareCount, int[] ids, int[] neighbours) {
+        this.squareCount = squareCount;
+        this.width = board.getWidth();
+        this.height = board.getHeight();
+        this.walkable = walkableSquares(board);
+        this.ids = ids;
+        this.neighbours = neighbours;
+        this.distances = new short[squareCount][];
+        this.steps = new byte[squareCount][];
+    }
+
+    /**
+     * Estimates the memory a table takes, so it can be decided whether to
+     * build one before doing so.
+     *
+     * @param accessibleSquares
+     *            The amount of squares in the table.
+     * @return The estimated size of the table in bytes.
+     */
+    public static long estimateBytes(int accessibleSquares) {
+        long n = accessibleSquares;
+        long row = 2 * (ARRAY_OVERHEAD + REFERENCE_BYTES) + n * (Short.BYTES + Byte.BYTES);
+        long rows = n * row;
+        long index = n * (1 + Direction.all().length) * Integer.BYTES;
+        return rows + index;
+    }
+
+    /**
+     * Estimates the memory a table for the given board takes.
+     *
+     * @param board
+     *            The board to build the table for.
+     * @param traveller
+     *            The unit whose access to squares is used.
+     * @return The estimated size of the table in bytes.
+     */
+    public static long estimateBytes(Board board, Unit traveller) {
+        return estimateBytes(accessibleSquares(board, traveller).size());
+    }
+
+    /**
+     * Builds the table for a board on the common fork join pool.
+     *
+     * @param board
+     *            The board to build the table for. All squares must be on it.
+     * @param traveller
+     *            The unit whose access to squares is used.
+     * @return The new table.
+     */
+    public static NextHopTable build(Board board, Unit traveller) {
+        return build(board, traveller, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds the table for a board, searching from several squares in
+     * parallel.
+     *
+     * @param board
+     *            The board to build the table for. All squares must be on it.
+     * @param traveller
+     *            The unit whose access to squares is used.
+     * @param pool
+     *            The pool to do the searches in.
+     * @return The new table.
+     */
+    public static NextHopTable build(Board board, Unit traveller, ForkJoinPool pool) {
+        assert board != null;
+        assert traveller != null;
+        assert pool != null;
+
+        List<Square> accessible = accessibleSquares(board, traveller);
+        if (accessible.size() > MAX_SQUARES) {
+            throw new IllegalArgumentException("Board has " + accessible.size()
+                + " accessible squares, a table holds at most " + MAX_SQUARES + ".");
+        }
+        Square[] squares = accessible.toArray(new Square[0]);
+        int[] ids = new int[board.getWidth() * board.getHeight()];
+        Arrays.fill(ids, NO_ID);
+        for (int id = 0; id < squares.length; id++) {
+            ids[squares[id].getIndex()] = id;
+        }
+        NextHopTable table = new NextHopTable(board, squares.length, ids,
+            neighbours(squares, ids));
+        pool.invoke(table.new BuildTask(0, squares.length));
+        return table;
+    }
+
+    /**
+     * @param squares
+     *            The accessible squares, by id.
+     * @param ids
+     *            The id of each square by index.
+     * @return The ids of the accessible neighbours of every square.
+     */
+    private static int[] neighbours(Square[] squares, int[] ids) {
+        int[] neighbours = new int[squares.length * Direction.all().length];
+        for (int id = 0; id < squares.length; id++) {
+            for (Direction direction : Direction.all()) {
+                int index = squares[id].getSquareAt(direction).getIndex();
+                neighbours[id * Direction.all().length + direction.ordinal()] = ids[index];
+            }
+        }
+        return neighbours;
+    }
+
+    /**
+     * @param board
+     *            The board to scan.
+     * @param traveller
+     *            The unit whose access to squares is used.
+     * @return All squares of the board the traveller can enter.
+     */
+    private static List<Square> accessibleSquares(Board board, Unit traveller) {
+        List<Square> accessible = new ArrayList<>();
+        for (int x = 0; x < board.getWidth(); x++) {
+            for (int y = 0; y < board.getHeight(); y++) {
+                Square square = board.squareAt(x, y);
+                assert square.getIndex() != Square.NO_INDEX : "Square is not on a board.";
+                if (square.isAccessibleTo(traveller)) {
+                    accessible.add(square);
+                }
+            }
+        }
+        return accessible;
+    }
+
+    /**
+     * @param board
+     *            The board to scan.
+     * @return The indices of the walkable squares of the board.
+     */
+    private static BitSet walkableSquares(Board board) {
+        BitSet walkable = new BitSet(board.getWidth() * board.getHeight());
+        for (int x = 0; x < board.getWidth(); x++) {
+            for (int y = 0; y < board.getHeight(); y++) {
+                Square square = board.squareAt(x, y);
+                walkable.set(square.getIndex(), square.isWalkable());
+            }
+        }
+        return walkable;
+    }
+
+    /**
+     * Tells whether the paths of this table are those of a board, which is
+     * the case if the board has the same size and walls as the board the
+     * table was built for.
+     *
+     * @param board
+     *            The board to check.
+     * @return <code>true</code> iff the table can be used on the board.
+     */
+    public boolean fits(Board board) {
+        return board.getWidth() == width && board.getHeight() == height
+            && walkableSquares(board).equals(walkable);
+    }
+
+    /**
+     * @param square
+     *            The square to look for.
+     * @return <code>true</code> iff the square is at an accessible position
+     *         of the board this table was built for.
+     */
+    public boolean covers(Square square) {
+        return idOf(square) != NO_ID;
+    }
+
+    /**
+     * Returns the length of the shortest path between two squares.
+     *
+     * @param from
+     *            The starting square, which must be covered by this table.
+     * @param to
+     *            The destination.
+     * @return The length of the shortest path, 0 if the squares are the
+     *         same, or {@link #NO_PATH} if there is no path.
+     */
+    public int distance(Square from, Square to) {
+        assert covers(from);
+        int target = idOf(to);
+        if (target == NO_ID) {
+            return NO_PATH;
+        }
+        short distance = distances[idOf(from)][target];
+        if (distance == UNREACHABLE) {
+            return NO_PATH;
+        }
+        return distance & UNSIGNED;
+    }
+
+    /**
+     * Returns the first step of the shortest path between two squares.
+     *
+     * @param from
+     *            The starting square, which must be covered by this table.
+     * @param to
+     *            The destination.
+     * @return The direction of the first step, or <code>null</code> if there
+     *         is no path or the destination is the starting square.
+     */
+    public Direction nextHop(Square from, Square to) {
+        assert covers(from);
+        int target = idOf(to);
+        if (target == NO_ID) {
+            return null;
+        }
+        byte step = steps[idOf(from)][target];
+        if (step == NO_STEP) {
+            return null;
+        }
+        return Direction.all()[step];
+    }
+
+    /**
+     * Returns a shortest path between two squares.
+     *
+     * @param from
+     *            The starting square, which must be covered by this table.
+     * @param to
+     *            The destination.
+     * @return The directions to follow from the starting square to the
+     *         destination, or <code>null</code> if there is no path.
+     */
+    public List<Direction> path(Square from, Square to) {
+        int distance = distance(from, to);
+        if (distance == NO_PATH) {
+            return null;
+        }
+        List<Direction> path = new ArrayList<>(distance);
+        int target = idOf(to);
+        int current = idOf(from);
+        while (current != target) {
+            byte step = steps[current][target];
+            path.add(Direction.all()[step]);
+            current = neighbours[current * Direction.all().length + step];
+        }
+        return path;
+    }
+
+    /**
+     * @return The amount of accessible squares in this table.
+     */
+    public int getSquareCount() {
+        return squareCount;
+    }
+
+    /**
+     * @return The estimated size of this table in bytes.
+     */
+    public long getMemoryBytes() {
+        return estimateBytes(squareCount);
+    }
+
+    /**
+     * @param square
+     *            The square to look for.
+     * @return The id of the square, or {@link #NO_ID} if it is not covered.
+     */
+    private int idOf(Square square) {
+        int index = square.getIndex();
+        if (index < 0 || index >= ids.length) {
+            return NO_ID;
+        }
+        return ids[index];
+    }
+
+    /**
+     * Fills the rows of a single source square with a breadth first search.
+     *
+     * @param source
+     *            The id of the source square.
+     * @param queue
+     *            A queue large enough to hold all squares, reused between
+     *            sources.
+     */
+    private void fillRow(int source, int[] queue) {
+        short[] distance = new short[squareCount];
+        byte[] step = new byte[squareCount];
+        Arrays.fill(distance, UNREACHABLE);
+        Arrays.fill(step, NO_STEP);
+        distance[source] = 0;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int current = queue[head++];
+            short next = (short) ((distance[current] & UNSIGNED) + 1);
+            for (int d = 0; d < Direction.all().length; d++) {
+                int neighbour = neighbours[current * Direction.all().length + d];
+                if (neighbour != NO_ID && distance[neighbour] == UNREACHABLE) {
+                    distance[neighbour] = next;
+                    if (current == source) {
+                        step[neighbour] = (byte) d;
+                    } else {
+                        step[neighbour] = step[current];
+                    }
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        distances[source] = distance;
+        steps[source] = step;
+    }
+
+    /**
+     * Fills the rows of a range of source squares, splitting the range in
+     * halves until it is small enough.
+     */
+    @SuppressFBWarnings(
+        value = "SE_BAD_FIELD_INNER_CLASS",
+        justification = "tasks are never serialized"
+    )
+    private final class BuildTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The first source id of the range.
+         */
+        private final int start;
+
+        /**
+         * The source id after the range.
+         */
+        private final int end;
+
+        /**
+         * Creates a task for a range of source squares.
+         *
+         * @param start
+         *            The first source id of the range.
+         * @param end
+         *            The source id after the range.
+         */
+        BuildTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= SOURCES_PER_TASK) {
+                int[] queue = new int[squareCount];
+                for (int source = start; source < end; source++) {
+                    fillRow(source, queue);
+                }
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new BuildTask(start, middle), new BuildTask(middle, end));
+        }
+    }
+}
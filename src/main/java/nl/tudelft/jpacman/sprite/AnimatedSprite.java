@@ -4,7 +4,13 @@ import java.awt.Graphics;
 
 /**
  * Animated sprite, renders the frame depending on the time of requesting the
- * draw.
+ * draw. The time is read from an {@link AnimationClock}, and the frame to show
+ * is computed from the time elapsed since the animation started, however
+ * long ago that was.
+ * <p>
+ * Looping animations that were created animating are timed from the start of
+ * their clock, so identical sprites on the same clock always show the same
+ * frame.
  *
  * @author Jeroen Roosen 
  */
@@ -21,7 +27,7 @@ public class AnimatedSprite implements Sprite {
     private final Sprite[] animationFrames;
 
     /**
-     * The delay between frames.
+     * The delay between frames, in milliseconds.
      */
     private final int animationDelay;
 
@@ -31,19 +37,14 @@ public class AnimatedSprite implements Sprite {
     private final boolean looping;
 
     /**
-     * The index of the current frame.
+     * The clock the animation is timed by.
      */
-    private int current;
+    private final AnimationClock clock;
 
     /**
-     * Whether this sprite is currently animating or not.
+     * The frame and time the animation last started or stopped at.
      */
-    private boolean animating;
-
-    /**
-     * The {@link System#currentTimeMillis()} stamp of the last update.
-     */
-    private long lastUpdate;
+    private volatile Phase phase;
 
     /**
      * Creates a new animating sprite that will change frames every interval. By
@@ -73,21 +74,46 @@ public class AnimatedSprite implements Sprite {
      *            Whether or not this sprite is animating from the start.
      */
     public AnimatedSprite(Sprite[] frames, int delay, boolean loop, boolean isAnimating) {
+        this(frames, delay, loop, isAnimating, AnimationClock.shared());
+    }
+
+    /**
+     * Creates a new animating sprite that will change frames every interval.
+     *
+     * @param frames
+     *            The frames of this animation.
+     * @param delay
+     *            The delay between frames, in milliseconds. A delay of 0 is
+     *            taken as 1.
+     * @param loop
+     *            Whether or not this sprite should be looping.
+     * @param isAnimating
+     *            Whether or not this sprite is animating from the start.
+     * @param clock
+     *            The clock timing the animation.
+     */
+    public AnimatedSprite(Sprite[] frames, int delay, boolean loop, boolean isAnimating,
+                          AnimationClock clock) {
         assert frames.length > 0;
+        assert delay >= 0;
+        assert clock != null;
 
         this.animationFrames = frames.clone();
-        this.animationDelay = delay;
+        this.animationDelay = Math.max(1, delay);
         this.looping = loop;
-        this.animating = isAnimating;
-
-        this.current = 0;
-        this.lastUpdate = System.currentTimeMillis();
+        this.clock = clock;
+        if (loop && isAnimating) {
+            this.phase = new Phase(0, 0L, true);
+        } else {
+            this.phase = new Phase(0, clock.now(), isAnimating);
+        }
     }
 
     /**
-     * @return The frame of the current index.
+     * @return The frame to show at the current time of the clock.
      */
     private Sprite currentSprite() {
+        int current = frameAt(phase, clock.now());
         Sprite result = END_OF_LOOP;
         if (current < animationFrames.length) {
             result = animationFrames[current];
@@ -97,57 +123,68 @@ public class AnimatedSprite implements Sprite {
     }
 
     /**
-     * Starts or stops the animation of this sprite.
+     * @return The frame shown at the current time of the clock, which is an
+     *         empty sprite once an animation that does not loop has ended.
+     */
+    public Sprite getFrame() {
+        return currentSprite();
+    }
+
+    /**
+     * Computes the index of the frame to show at a given time.
+     *
+     * @param from
+     *            The frame and time the animation last started or stopped at.
+     * @param now
+     *            The time of the clock.
+     * @return The index of the frame, which is the amount of frames if a
+     *         non-looping animation has ended.
+     */
+    private int frameAt(Phase from, long now) {
+        if (!from.animating) {
+            return from.frame;
+        }
+        long elapsed = Math.max(0L, now - from.since);
+        long frame = from.frame + (elapsed + animationDelay - 1) / animationDelay;
+        if (looping) {
+            return (int) (frame % animationFrames.length);
+        }
+        return (int) Math.min(frame, animationFrames.length);
+    }
+
+    /**
+     * Starts or stops the animation of this sprite. The animation continues
+     * from, or stays at, the frame it shows now.
      *
      * @param isAnimating
      *            <code>true</code> to animate this sprite or <code>false</code>
      *            to stop animating this sprite.
      */
     public void setAnimating(boolean isAnimating) {
-        this.animating = isAnimating;
+        Phase current = phase;
+        if (current.animating != isAnimating) {
+            long now = clock.now();
+            phase = new Phase(frameAt(current, now), now, isAnimating);
+        }
     }
 
     /**
      * (Re)starts the current animation.
      */
     public void restart() {
-        this.current = 0;
-        this.lastUpdate = System.currentTimeMillis();
-        setAnimating(true);
+        phase = new Phase(0, clock.now(), true);
     }
 
     @Override
     public void draw(Graphics graphics, int x, int y, int width, int height) {
-        update();
         currentSprite().draw(graphics, x, y, width, height);
     }
 
     @Override
     public Sprite split(int x, int y, int width, int height) {
-        update();
         return currentSprite().split(x, y, width, height);
     }
 
-    /**
-     * Updates the current frame index depending on the current system time.
-     */
-    private void update() {
-        long now = System.currentTimeMillis();
-        if (animating) {
-            while (lastUpdate < now) {
-                lastUpdate += animationDelay;
-                current++;
-                if (looping) {
-                    current %= animationFrames.length;
-                } else if (current == animationFrames.length) {
-                    animating = false;
-                }
-            }
-        } else {
-            lastUpdate = now;
-        }
-    }
-
     @Override
     public int getWidth() {
         assert currentSprite() != null;
@@ -160,4 +197,42 @@ public class AnimatedSprite implements Sprite {
         return currentSprite().getHeight();
     }
 
+    /**
+     * The frame an animation started or stopped at, and when. Replaced as a
+     * whole, so a sprite drawn while it is started or stopped sees either the
+     * old or the new phase.
+     */
+    private static final class Phase {
+
+        /**
+         * The frame at that time.
+         */
+        private final int frame;
+
+        /**
+         * The time of the clock, in milliseconds.
+         */
+        private final long since;
+
+        /**
+         * Whether the animation runs from then on.
+         */
+        private final boolean animating;
+
+        /**
+         * Creates a new phase.
+         *
+         * @param frame
+         *            The frame at that time.
+         * @param since
+         *            The time of the clock, in milliseconds.
+         * @param animating
+         *            Whether the animation runs from then on.
+         */
+        Phase(int frame, long since, boolean animating) {
+            this.frame = frame;
+            this.since = since;
+            this.animating = animating;
+        }
+    }
 }
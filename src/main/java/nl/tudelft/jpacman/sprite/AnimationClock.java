@@ -0,0 +1,65 @@
+package nl.tudelft.jpacman.sprite;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time that {@link AnimatedSprite}s show their frames at. Rather than
+ * every sprite reading the system clock whenever it is drawn, the clock is
+ * sampled once per frame drawn, so all sprites in a frame show the same
+ * moment and drawing a sprite costs no system call.
+ * <p>
+ * The user interface samples the {@link #shared()} clock, which is the one
+ * sprite stores use unless given another. A clock that is never sampled
+ * stands still, which makes it possible to draw frames at chosen moments.
+ */
+public final class AnimationClock {
+
+    /**
+     * The clock used unless another is given.
+     */
+    private static final AnimationClock SHARED = new AnimationClock();
+
+    /**
+     * The {@link System#nanoTime()} at which this clock started.
+     */
+    private final long origin = System.nanoTime();
+
+    /**
+     * The time sampled last, in milliseconds since this clock started.
+     */
+    private volatile long now;
+
+    /**
+     * @return The clock used by sprite stores unless they are given another.
+     */
+    public static AnimationClock shared() {
+        return SHARED;
+    }
+
+    /**
+     * Sets the time of this clock to the current time.
+     */
+    public void sample() {
+        now = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - origin);
+    }
+
+    /**
+     * Sets the time of this clock to a chosen moment, until it is sampled
+     * again.
+     *
+     * @param millis
+     *            The time, in milliseconds since this clock started.
+     */
+    public void setTime(long millis) {
+        assert millis >= 0L;
+        now = millis;
+    }
+
+    /**
+     * @return The time sampled last, in milliseconds since this clock
+     *         started.
+     */
+    public long now() {
+        return now;
+    }
+}
@@ -8,7 +8,16 @@ import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 
 /**
- * Basic implementation of a Sprite, it merely consists of a static image.
+ * Basic implementation of a Sprite, it merely consists of a static image, or
+ * a region of one. Splitting a sprite does not copy any pixels: the parts are
+ * views on regions of the same image, so all frames cut from a sprite sheet
+ * share the one image the sheet was decoded into.
+ * <p>
+ * Drawing an image at a different size scales it, which is slow. Since a
+ * sprite is normally drawn at the size of a square on the board, over and over
+ * again, it keeps a copy of its image scaled to the size it was last drawn at,
+ * and draws that copy without scaling. The copy is only made again when the
+ * size changes, for instance when the window is resized.
  *
  * @author Jeroen Roosen 
  */
@@ -19,6 +28,32 @@ public class ImageSprite implements Sprite {
      */
     private final Image image;
 
+    /**
+     * The left of the region of the image shown.
+     */
+    private final int left;
+
+    /**
+     * The top of the region of the image shown.
+     */
+    private final int top;
+
+    /**
+     * The width of the region of the image shown.
+     */
+    private final int width;
+
+    /**
+     * The height of the region of the image shown.
+     */
+    private final int height;
+
+    /**
+     * The image scaled to the size this sprite was last drawn at, or
+     * <code>null</code> if it was never drawn at another size.
+     */
+    private volatile ScaledImage scaled;
+
     /**
      * Creates a new sprite from an image.
      *
@@ -26,56 +61,178 @@ public class ImageSprite implements Sprite {
      *            The image to create a sprite from.
      */
     public ImageSprite(Image img) {
+        this(img, 0, 0, img.getWidth(null), img.getHeight(null));
+    }
+
+    /**
+     * Creates a new sprite showing a region of an image.
+     *
+     * @param img
+     *            The image to show a region of.
+     * @param left
+     *            The left of the region.
+     * @param top
+     *            The top of the region.
+     * @param width
+     *            The width of the region.
+     * @param height
+     *            The height of the region.
+     */
+    private ImageSprite(Image img, int left, int top, int width, int height) {
         this.image = img;
+        this.left = left;
+        this.top = top;
+        this.width = width;
+        this.height = height;
     }
 
     @Override
     public void draw(Graphics graphics, int x, int y, int width, int height) {
-        graphics.drawImage(image, x, y, x + width, y + height, 0, 0,
-            image.getWidth(null), image.getHeight(null), null);
+        if (width == this.width && height == this.height) {
+            graphics.drawImage(image, x, y, x + width, y + height,
+                left, top, left + width, top + height, null);
+            return;
+        }
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        graphics.drawImage(scaledTo(width, height), x, y, null);
+    }
+
+    /**
+     * Returns the image of this sprite scaled to the given size, scaling it
+     * only if it was not scaled to that size last time.
+     *
+     * @param width
+     *            The width to scale to.
+     * @param height
+     *            The height to scale to.
+     * @return The scaled image.
+     */
+    private Image scaledTo(int width, int height) {
+        ScaledImage current = scaled;
+        if (current == null || current.width != width || current.height != height) {
+            BufferedImage copy = newImage(width, height);
+            Graphics copyGraphics = copy.createGraphics();
+            copyGraphics.drawImage(image, 0, 0, width, height, left, top,
+                left + this.width, top + this.height, null);
+            copyGraphics.dispose();
+            current = new ScaledImage(copy, width, height);
+            scaled = current;
+        }
+        return current.image;
     }
 
     @Override
     public Sprite split(int x, int y, int width, int height) {
-        if (withinImage(x, y) && withinImage(x + width - 1, y + height - 1)) {
-            BufferedImage newImage = newImage(width, height);
-            newImage.createGraphics().drawImage(image, 0, 0, width, height, x,
-                y, x + width, y + height, null);
-            return new ImageSprite(newImage);
+        if (withinRegion(x, y) && withinRegion(x + width - 1, y + height - 1)) {
+            return new ImageSprite(image, left + x, top + y, width, height);
         }
         return new EmptySprite();
     }
 
-    private boolean withinImage(int x, int y) {
-        return x < image.getWidth(null) && x >= 0 && y < image.getHeight(null)
-            && y >= 0;
+    private boolean withinRegion(int x, int y) {
+        return x < width && x >= 0 && y < height && y >= 0;
+    }
+
+    /**
+     * Creates a sprite of a decoded image, copying it into an image that can
+     * be drawn on the screen quickly, with the same transparency.
+     *
+     * @param decoded
+     *            The image as decoded from its file.
+     * @return The new sprite.
+     */
+    static ImageSprite compatibleCopyOf(BufferedImage decoded) {
+        BufferedImage copy = newImage(decoded.getWidth(), decoded.getHeight(),
+            decoded.getTransparency());
+        Graphics copyGraphics = copy.createGraphics();
+        copyGraphics.drawImage(decoded, 0, 0, null);
+        copyGraphics.dispose();
+        return new ImageSprite(copy);
+    }
+
+    /**
+     * Creates a new, empty image of the given width and height, with a
+     * bitmask transparency, so no true ARGB image.
+     *
+     * @param width
+     *            The width of the new image.
+     * @param height
+     *            The height of the new image.
+     * @return The new, empty image.
+     */
+    private static BufferedImage newImage(int width, int height) {
+        return newImage(width, height, Transparency.BITMASK);
     }
 
     /**
-     * Creates a new, empty image of the given width and height. Its
-     * transparency will be a bitmask, so no try ARGB image.
+     * Creates a new, empty image of the given width and height, compatible
+     * with the screen. Without a screen, as in headless simulations, a plain
+     * ARGB image is created instead.
      *
      * @param width
      *            The width of the new image.
      * @param height
      *            The height of the new image.
+     * @param transparency
+     *            The transparency of the new image.
      * @return The new, empty image.
      */
-    private BufferedImage newImage(int width, int height) {
+    private static BufferedImage newImage(int width, int height, int transparency) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
         GraphicsConfiguration gc = GraphicsEnvironment
             .getLocalGraphicsEnvironment().getDefaultScreenDevice()
             .getDefaultConfiguration();
-        return gc.createCompatibleImage(width, height, Transparency.BITMASK);
+        return gc.createCompatibleImage(width, height, transparency);
     }
 
     @Override
     public int getWidth() {
-        return image.getWidth(null);
+        return width;
     }
 
     @Override
     public int getHeight() {
-        return image.getHeight(null);
+        return height;
     }
 
+    /**
+     * An image scaled to a size.
+     */
+    private static final class ScaledImage {
+
+        /**
+         * The scaled image.
+         */
+        private final Image image;
+
+        /**
+         * The width the image was scaled to.
+         */
+        private final int width;
+
+        /**
+         * The height the image was scaled to.
+         */
+        private final int height;
+
+        /**
+         * Creates a new scaled image.
+         *
+         * @param image
+         *            The scaled image.
+         * @param width
+         *            The width the image was scaled to.
+         * @param height
+         *            The height the image was scaled to.
+         */
+        ScaledImage(Image image, int width, int height) {
+            this.image = image;
+            this.width = width;
+            this.height = height;
+        }
+    }
 }
@@ -1,15 +1,22 @@
 package nl.tudelft.jpacman.sprite;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import nl.tudelft.jpacman.PacmanConfigurationException;
 import nl.tudelft.jpacman.board.Direction;
 import nl.tudelft.jpacman.npc.ghost.GhostColor;
 
 /**
- * Sprite Store containing the classic Pac-Man sprites.
+ * Sprite Store containing the classic Pac-Man sprites. All of them are listed
+ * in a manifest, so they can be preloaded before the first game is built.
  *
  * @author Jeroen Roosen 
  */
@@ -51,29 +58,102 @@ public class PacManSprites extends SpriteStore {
      */
     private static final int ANIMATION_DELAY = 200;
 
+    /**
+     * The resource of the Pac-Man sprite sheet.
+     */
+    private static final String PACMAN_RESOURCE = "/sprite/pacman.png";
+
+    /**
+     * The resource of the dying Pac-Man sprite sheet.
+     */
+    private static final String DEATH_RESOURCE = "/sprite/dead.png";
+
+    /**
+     * The resource of the wall sprite.
+     */
+    private static final String WALL_RESOURCE = "/sprite/wall.png";
+
+    /**
+     * The resource of the ground sprite.
+     */
+    private static final String GROUND_RESOURCE = "/sprite/floor.png";
+
+    /**
+     * The resource of the pellet sprite.
+     */
+    private static final String PELLET_RESOURCE = "/sprite/pellet.png";
+
+    /**
+     * The resources of all sprites this store provides.
+     */
+    private static final List<String> MANIFEST = createManifest();
+
+    /**
+     * The ghost sprites by colour, shared by all ghosts of a colour.
+     */
+    private final Map<GhostColor, Map<Direction, Sprite>> ghostSprites =
+        new ConcurrentHashMap<>();
+
+    /**
+     * The frames cut from every sprite sheet, by resource name, shared by all
+     * animations of the sheet.
+     */
+    private final Map<String, Sprite[][]> sheetFrames = new ConcurrentHashMap<>();
+
+    /**
+     * @return The resources of all sprites this store provides.
+     */
+    private static List<String> createManifest() {
+        List<String> manifest = new ArrayList<>();
+        manifest.add(PACMAN_RESOURCE);
+        manifest.add(DEATH_RESOURCE);
+        manifest.add(WALL_RESOURCE);
+        manifest.add(GROUND_RESOURCE);
+        manifest.add(PELLET_RESOURCE);
+        for (GhostColor color : GhostColor.values()) {
+            manifest.add(ghostResource(color));
+        }
+        return Collections.unmodifiableList(manifest);
+    }
+
+    /**
+     * @return The resources of all sprites this store provides.
+     */
+    public List<String> getManifest() {
+        return MANIFEST;
+    }
+
+    /**
+     * Starts loading all sprites of the manifest that were not loaded yet,
+     * in parallel.
+     *
+     * @param executor
+     *            The executor to load the sprites on.
+     * @return A future that completes once all sprites are loaded.
+     */
+    public CompletableFuture<Void> preload(Executor executor) {
+        return preload(MANIFEST, executor);
+    }
+
     /**
      * @return A map of animated Pac-Man sprites for all directions.
      */
     public Map<Direction, Sprite> getPacmanSprites() {
-        return directionSprite("/sprite/pacman.png", PACMAN_ANIMATION_FRAMES);
+        return directionSprite(PACMAN_RESOURCE, PACMAN_ANIMATION_FRAMES);
     }
 
     /**
      * @return The animation of a dying Pac-Man.
      */
     public AnimatedSprite getPacManDeathAnimation() {
-        String resource = "/sprite/dead.png";
-
-        Sprite baseImage = loadSprite(resource);
-        AnimatedSprite animation = createAnimatedSprite(baseImage, PACMAN_DEATH_FRAMES,
-            ANIMATION_DELAY, false);
-        animation.setAnimating(false);
-
-        return animation;
+        Sprite[] frames = framesOf(DEATH_RESOURCE, 1, PACMAN_DEATH_FRAMES)[0];
+        return new AnimatedSprite(frames, ANIMATION_DELAY, false, false,
+            getAnimationClock());
     }
 
     /**
-     * Returns a new map with animations for all directions.
+     * Returns a new map with animations for all directions, which are
+     * animating in step with all other animations of the same resource.
      *
      * @param resource
      *            The resource name of the sprite.
@@ -82,23 +162,48 @@ public class PacManSprites extends SpriteStore {
      * @return The animated sprite facing the given direction.
      */
     private Map<Direction, Sprite> directionSprite(String resource, int frames) {
-        Map<Direction, Sprite> sprite = new HashMap<>();
+        Map<Direction, Sprite> sprite = new EnumMap<>(Direction.class);
 
-        Sprite baseImage = loadSprite(resource);
+        Sprite[][] sheet = framesOf(resource, DIRECTIONS.length, frames);
         for (int i = 0; i < DIRECTIONS.length; i++) {
-            Sprite directionSprite = baseImage.split(0, i * SPRITE_SIZE, frames
-                * SPRITE_SIZE, SPRITE_SIZE);
-            AnimatedSprite animation = createAnimatedSprite(directionSprite,
-                frames, ANIMATION_DELAY, true);
-            animation.setAnimating(true);
-            sprite.put(DIRECTIONS[i], animation);
+            sprite.put(DIRECTIONS[i], new AnimatedSprite(sheet[i], ANIMATION_DELAY,
+                true, true, getAnimationClock()));
         }
 
         return sprite;
     }
 
     /**
-     * Returns a map of animated ghost sprites for all directions.
+     * Returns the frames of a sprite sheet, cutting them only the first time.
+     * The frames are regions of the one image the sheet was loaded into.
+     *
+     * @param resource
+     *            The resource name of the sprite sheet.
+     * @param rows
+     *            The number of animations, stacked vertically, in the sheet.
+     * @param frames
+     *            The number of frames of every animation.
+     * @return The frames of every animation.
+     */
+    private Sprite[][] framesOf(String resource, int rows, int frames) {
+        Sprite[][] sheet = sheetFrames.computeIfAbsent(resource, key -> {
+            Sprite baseImage = loadSprite(key);
+            Sprite[][] cut = new Sprite[rows][frames];
+            for (int row = 0; row < rows; row++) {
+                for (int frame = 0; frame < frames; frame++) {
+                    cut[row][frame] = baseImage.split(frame * SPRITE_SIZE,
+                        row * SPRITE_SIZE, SPRITE_SIZE, SPRITE_SIZE);
+                }
+            }
+            return cut;
+        });
+        assert sheet.length == rows && sheet[0].length == frames;
+        return sheet;
+    }
+
+    /**
+     * Returns a map of animated ghost sprites for all directions. All ghosts
+     * of a colour share the same, unmodifiable, map.
      *
      * @param color
      *            The colour of the ghost.
@@ -107,30 +212,38 @@ public class PacManSprites extends SpriteStore {
     public Map<Direction, Sprite> getGhostSprite(GhostColor color) {
         assert color != null;
 
-        String resource = "/sprite/ghost_" + color.name().toLowerCase()
-            + ".png";
-        return directionSprite(resource, GHOST_ANIMATION_FRAMES);
+        return ghostSprites.computeIfAbsent(color, key -> Collections.unmodifiableMap(
+            directionSprite(ghostResource(key), GHOST_ANIMATION_FRAMES)));
+    }
+
+    /**
+     * @param color
+     *            The colour of a ghost.
+     * @return The resource of the sprite sheet of the ghost.
+     */
+    private static String ghostResource(GhostColor color) {
+        return "/sprite/ghost_" + color.name().toLowerCase() + ".png";
     }
 
     /**
      * @return The sprite for the wall.
      */
     public Sprite getWallSprite() {
-        return loadSprite("/sprite/wall.png");
+        return loadSprite(WALL_RESOURCE);
     }
 
     /**
      * @return The sprite for the ground.
      */
     public Sprite getGroundSprite() {
-        return loadSprite("/sprite/floor.png");
+        return loadSprite(GROUND_RESOURCE);
     }
 
     /**
      * @return The sprite for the
      */
     public Sprite getPelletSprite() {
-        return loadSprite("/sprite/pellet.png");
+        return loadSprite(PELLET_RESOURCE);
     }
 
     /**
@@ -0,0 +1,332 @@
+package nl.tudelft.jpacman.sprite;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A file holding the decoded pixels of sprites, so they need not be decoded
+ * from their images again on later starts.
+ * <p>
+ * Every sprite is kept under its resource path, together with a checksum of
+ * the image file it was decoded from. A sprite is only read from the cache if
+ * the checksum still matches, otherwise its image is decoded as usual and the
+ * cache is updated when it is saved. The file is memory mapped, so reading a
+ * sprite copies its pixels straight from the file. A file that is missing, of
+ * another version, or damaged, is taken as an empty cache.
+ * <p>
+ * The file starts with {@link #MAGIC}, {@link #VERSION} and the amount of
+ * sprites, followed by every sprite: the length and UTF-8 bytes of its
+ * resource path, its checksum, width and height, and its pixels as ARGB
+ * integers, row by row.
+ */
+public final class SpriteCache {
+
+    /**
+     * The first four bytes of a cache file, "JPSC".
+     */
+    public static final int MAGIC = 0x4A505343;
+
+    /**
+     * The version of the file format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The length of the start of a file, in bytes: the magic number, the
+     * version and the amount of sprites.
+     */
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+
+    /**
+     * The file of this cache.
+     */
+    private final Path file;
+
+    /**
+     * The sprites in this cache, by resource path.
+     */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * <code>true</code> iff sprites were added since this cache was opened or
+     * saved.
+     */
+    private volatile boolean dirty;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param file
+     *            The file of the cache.
+     */
+    private SpriteCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens a cache, mapping its file into memory if it exists.
+     *
+     * @param file
+     *            The file of the cache, which need not exist.
+     * @return The cache, which is empty if the file could not be read.
+     */
+    public static SpriteCache open(Path file) {
+        assert file != null;
+        SpriteCache cache = new SpriteCache(file);
+        if (Files.isRegularFile(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                cache.index(channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size()));
+            } catch (IOException | BufferUnderflowException | IllegalArgumentException
+                | ArithmeticException e) {
+                cache.entries.clear();
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Finds the sprites in a mapped cache file.
+     *
+     * @param mapped
+     *            The contents of the file.
+     */
+    private void index(ByteBuffer mapped) {
+        if (mapped.remaining() < HEADER_BYTES
+            || mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+            return;
+        }
+        int count = mapped.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[Short.toUnsignedInt(mapped.getShort())];
+            mapped.get(name);
+            long checksum = mapped.getLong();
+            int width = mapped.getInt();
+            int height = mapped.getInt();
+            ByteBuffer pixels = mapped.slice();
+            pixels.limit(byteCount(width, height));
+            mapped.position(mapped.position() + pixels.limit());
+            entries.put(new String(name, StandardCharsets.UTF_8),
+                new Entry(checksum, width, height, pixels));
+        }
+    }
+
+    /**
+     * @param width
+     *            The width of a sprite.
+     * @param height
+     *            The height of a sprite.
+     * @return The amount of bytes of the pixels of the sprite.
+     */
+    private static int byteCount(int width, int height) {
+        return Math.multiplyExact(Math.multiplyExact(width, height), Integer.BYTES);
+    }
+
+    /**
+     * @return The file of this cache.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return <code>true</code> iff sprites were added since this cache was
+     *         opened or saved.
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Reads the pixels of a sprite.
+     *
+     * @param resource
+     *            The resource path of the sprite.
+     * @param checksum
+     *            The checksum of the image file of the sprite.
+     * @return The pixels of the sprite, or <code>null</code> if they are not
+     *         in the cache or were decoded from another file.
+     */
+    BufferedImage read(String resource, long checksum) {
+        Entry entry = entries.get(resource);
+        if (entry == null || entry.checksum != checksum) {
+            return null;
+        }
+        BufferedImage image = new BufferedImage(entry.width, entry.height,
+            BufferedImage.TYPE_INT_ARGB);
+        int[] target = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        entry.pixels.duplicate().asIntBuffer().get(target);
+        return image;
+    }
+
+    /**
+     * Adds the pixels of a sprite to this cache, replacing those decoded from
+     * another file.
+     *
+     * @param resource
+     *            The resource path of the sprite.
+     * @param checksum
+     *            The checksum of the image file of the sprite.
+     * @param image
+     *            The image decoded from the file.
+     */
+    void write(String resource, long checksum, BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        ByteBuffer pixels = ByteBuffer.allocate(byteCount(width, height));
+        pixels.asIntBuffer().put(image.getRGB(0, 0, width, height, null, 0, width));
+        entries.put(resource, new Entry(checksum, width, height, pixels));
+        dirty = true;
+    }
+
+    /**
+     * Writes all sprites of this cache to its file, replacing the file at once
+     * so a cache being read from is never partially written. The sprites read
+     * from the old file are copied out of it first, so this cache no longer
+     * refers to the mapping of a file that is being replaced, which not all
+     * platforms allow.
+     *
+     * @throws IOException
+     *             When the file could not be written.
+     */
+    public synchronized void save() throws IOException {
+        dirty = false;
+        entries.replaceAll((resource, entry) -> entry.onHeap());
+        Map<String, Entry> sorted = new TreeMap<>(entries);
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, "sprites", ".tmp");
+        try {
+            write(temporary, sorted);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes sprites to a file in the format of a cache.
+     *
+     * @param target
+     *            The file to write to, which exists.
+     * @param sprites
+     *            The sprites, by resource path.
+     * @throws IOException
+     *             When the file could not be written.
+     */
+    private static void write(Path target, Map<String, Entry> sprites) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(sprites.size()).flip();
+            writeFully(channel, header);
+            for (Map.Entry<String, Entry> sprite : sprites.entrySet()) {
+                writeFully(channel, sprite.getValue().header(sprite.getKey()));
+                writeFully(channel, sprite.getValue().pixels.duplicate());
+            }
+        }
+    }
+
+    /**
+     * Writes all remaining bytes of a buffer to a channel.
+     *
+     * @param channel
+     *            The channel to write to.
+     * @param buffer
+     *            The bytes to write.
+     * @throws IOException
+     *             When the bytes could not be written.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * The pixels of a sprite and the checksum of the file they came from.
+     */
+    private static final class Entry {
+
+        /**
+         * The checksum of the image file.
+         */
+        private final long checksum;
+
+        /**
+         * The width of the sprite.
+         */
+        private final int width;
+
+        /**
+         * The height of the sprite.
+         */
+        private final int height;
+
+        /**
+         * The ARGB pixels, row by row, from position 0.
+         */
+        private final ByteBuffer pixels;
+
+        /**
+         * Creates a new entry.
+         *
+         * @param checksum
+         *            The checksum of the image file.
+         * @param width
+         *            The width of the sprite.
+         * @param height
+         *            The height of the sprite.
+         * @param pixels
+         *            The ARGB pixels, row by row, from position 0.
+         */
+        Entry(long checksum, int width, int height, ByteBuffer pixels) {
+            this.checksum = checksum;
+            this.width = width;
+            this.height = height;
+            this.pixels = pixels;
+        }
+
+        /**
+         * @return This entry, or a copy of it if its pixels are in a mapped
+         *         file rather than on the heap.
+         */
+        private Entry onHeap() {
+            if (!pixels.isDirect()) {
+                return this;
+            }
+            ByteBuffer copy = ByteBuffer.allocate(pixels.limit());
+            copy.put(pixels.duplicate()).flip();
+            return new Entry(checksum, width, height, copy);
+        }
+
+        /**
+         * Encodes everything but the pixels of this entry.
+         *
+         * @param resource
+         *            The resource path of the sprite.
+         * @return The encoded entry, ready to be written.
+         */
+        private ByteBuffer header(String resource) {
+            byte[] name = resource.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer header = ByteBuffer.allocate(Short.BYTES + name.length
+                + Long.BYTES + Integer.BYTES * 2);
+            header.putShort((short) name.length).put(name).putLong(checksum)
+                .putInt(width).putInt(height).flip();
+            return header;
+        }
+    }
+}
@@ -3,15 +3,32 @@ package nl.tudelft.jpacman.sprite;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
 
 import javax.imageio.ImageIO;
 
+import com.google.common.io.ByteStreams;
+
 /**
  * Utility to load {@link Sprite}s.
+ * <p>
+ * A store may be shared by threads building games at the same time. Every
+ * resource is loaded once: a thread asking for a sprite that is still being
+ * loaded by another thread waits for that load rather than starting its own.
+ * Sprites can be preloaded in parallel, and the time every sprite took to load
+ * is kept. Optionally, decoded sprites are kept in a {@link SpriteCache}, so
+ * their images need not be decoded again on later starts.
  *
  * @author Jeroen Roosen 
  */
@@ -19,15 +36,62 @@ public class SpriteStore {
 
     /**
      * We only need to load images once, so we keep track
-     * of them in a hash map.
+     * of them, loaded or being loaded, in a hash map.
      */
-    private final Map<String, Sprite> spriteMap;
+    private final Map<String, CompletableFuture<Sprite>> spriteMap;
 
     /**
-     * Create a new sprite store.
+     * The time every sprite took to load, in nanoseconds.
+     */
+    private final Map<String, Long> loadNanos = new ConcurrentHashMap<>();
+
+    /**
+     * The clock timing the animations of this store.
+     */
+    private final AnimationClock clock;
+
+    /**
+     * The cache of decoded sprites, or <code>null</code> if there is none.
+     */
+    private volatile SpriteCache cache;
+
+    /**
+     * Create a new sprite store, with animations timed by the
+     * {@link AnimationClock#shared()} clock.
      */
     public SpriteStore() {
-        spriteMap = new HashMap<>();
+        this(AnimationClock.shared());
+    }
+
+    /**
+     * Create a new sprite store.
+     *
+     * @param clock
+     *            The clock timing the animations of this store.
+     */
+    public SpriteStore(AnimationClock clock) {
+        assert clock != null;
+        spriteMap = new ConcurrentHashMap<>();
+        this.clock = clock;
+    }
+
+    /**
+     * Makes this store read sprites it did not load yet from a cache, if
+     * they were decoded from the same image files, and add the sprites it
+     * does decode to it. The cache must be saved by the caller.
+     *
+     * @param spriteCache
+     *            The cache, or <code>null</code> to decode all sprites.
+     */
+    public void setCache(SpriteCache spriteCache) {
+        this.cache = spriteCache;
+    }
+
+    /**
+     * @return The clock timing the animations of this store.
+     */
+    public AnimationClock getAnimationClock() {
+        return clock;
     }
 
     /**
@@ -42,16 +106,93 @@ public class SpriteStore {
      *             When the resource could not be loaded.
      */
     public Sprite loadSprite(String resource) throws IOException {
-        Sprite result = spriteMap.get(resource);
-        if (result == null) {
-            result = loadSpriteFromResource(resource);
-            spriteMap.put(resource, result);
+        try {
+            return request(resource, Runnable::run).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
         }
-        return result;
     }
 
     /**
-     * Loads a sprite from a resource on the class path.
+     * Starts loading sprites that were not loaded yet, in parallel.
+     *
+     * @param resources
+     *            The resource paths.
+     * @param executor
+     *            The executor to load the sprites on.
+     * @return A future that completes once all sprites are loaded, or
+     *         completes exceptionally if any of them could not be loaded.
+     */
+    public CompletableFuture<Void> preload(Collection<String> resources, Executor executor) {
+        assert resources != null;
+        assert executor != null;
+        return CompletableFuture.allOf(resources.stream()
+            .map(resource -> request(resource, executor))
+            .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Returns the sprite of a resource, loading it on the given executor if
+     * it was neither loaded nor being loaded. A failed load is forgotten, so
+     * it is tried again next time.
+     *
+     * @param resource
+     *            The resource path.
+     * @param executor
+     *            The executor to load the sprite on.
+     * @return The sprite, once loaded.
+     */
+    private CompletableFuture<Sprite> request(String resource, Executor executor) {
+        CompletableFuture<Sprite> created = new CompletableFuture<>();
+        CompletableFuture<Sprite> future = spriteMap.computeIfAbsent(resource, key -> created);
+        if (future == created) {
+            executor.execute(() -> load(resource, created));
+        }
+        return future;
+    }
+
+    /**
+     * Loads a sprite and completes its future. The load time is recorded
+     * first, so it is known to whoever waits for the sprite.
+     *
+     * @param resource
+     *            The resource path.
+     * @param future
+     *            The future of the sprite.
+     */
+    private void load(String resource, CompletableFuture<Sprite> future) {
+        long start = System.nanoTime();
+        try {
+            Sprite sprite = loadSpriteFromResource(resource);
+            loadNanos.put(resource, System.nanoTime() - start);
+            future.complete(sprite);
+        } catch (IOException e) {
+            spriteMap.remove(resource, future);
+            future.completeExceptionally(new UncheckedIOException(e));
+        } catch (RuntimeException e) {
+            spriteMap.remove(resource, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * @return The time every sprite loaded so far took to load, in
+     *         nanoseconds, by resource path.
+     */
+    public Map<String, Long> getLoadNanos() {
+        return Collections.unmodifiableMap(loadNanos);
+    }
+
+    /**
+     * Loads a sprite from a resource on the class path, decoding it into an
+     * image that can be drawn on the screen quickly.
      *
      * @param resource
      *            The resource path.
@@ -68,13 +209,44 @@ public class SpriteStore {
             if (input == null) {
                 throw new IOException("Unable to load " + resource + ", resource does not exist.");
             }
-            BufferedImage image = ImageIO.read(input);
-            return new ImageSprite(image);
+            SpriteCache spriteCache = cache;
+            if (spriteCache == null) {
+                return ImageSprite.compatibleCopyOf(ImageIO.read(input));
+            }
+            return ImageSprite.compatibleCopyOf(readThrough(spriteCache, resource, input));
         }
     }
 
     /**
-     * Creates a new {@link AnimatedSprite} from a base image.
+     * Reads the pixels of a sprite from a cache if they were decoded from
+     * the same image file, or decodes them and adds them to the cache.
+     *
+     * @param spriteCache
+     *            The cache.
+     * @param resource
+     *            The resource path.
+     * @param input
+     *            The image file of the resource.
+     * @return The pixels of the sprite.
+     * @throws IOException
+     *             When the resource could not be read.
+     */
+    private static BufferedImage readThrough(SpriteCache spriteCache, String resource,
+                                             InputStream input) throws IOException {
+        byte[] file = ByteStreams.toByteArray(input);
+        CRC32 checksum = new CRC32();
+        checksum.update(file, 0, file.length);
+        BufferedImage image = spriteCache.read(resource, checksum.getValue());
+        if (image == null) {
+            image = ImageIO.read(new ByteArrayInputStream(file));
+            spriteCache.write(resource, checksum.getValue(), image);
+        }
+        return image;
+    }
+
+    /**
+     * Creates a new {@link AnimatedSprite} from a base image, which is not
+     * animating.
      *
      * @param baseImage
      *            The base image to convert into an animation.
@@ -88,6 +260,26 @@ public class SpriteStore {
      */
     public AnimatedSprite createAnimatedSprite(Sprite baseImage, int frames,
                                                int delay, boolean loop) {
+        return createAnimatedSprite(baseImage, frames, delay, loop, false);
+    }
+
+    /**
+     * Creates a new {@link AnimatedSprite} from a base image.
+     *
+     * @param baseImage
+     *            The base image to convert into an animation.
+     * @param frames
+     *            The amount of frames of the animation.
+     * @param delay
+     *            The delay between frames.
+     * @param loop
+     *            Whether this sprite is a looping animation or not.
+     * @param animating
+     *            Whether this sprite is animating from the start.
+     * @return The animated sprite.
+     */
+    public AnimatedSprite createAnimatedSprite(Sprite baseImage, int frames,
+                                               int delay, boolean loop, boolean animating) {
         assert baseImage != null;
         assert frames > 0;
 
@@ -99,7 +291,7 @@ public class SpriteStore {
                 baseImage.getHeight());
         }
 
-        return new AnimatedSprite(animation, delay, loop);
+        return new AnimatedSprite(animation, delay, loop, animating, clock);
     }
 
 }
@@ -1,18 +1,41 @@
 package nl.tudelft.jpacman.ui;
 
+import java.awt.BorderLayout;
+import java.awt.Canvas;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.swing.JPanel;
 
 import nl.tudelft.jpacman.board.Board;
-import nl.tudelft.jpacman.board.Square;
-import nl.tudelft.jpacman.board.Unit;
 import nl.tudelft.jpacman.game.Game;
+import nl.tudelft.jpacman.level.FrameSnapshot;
+import nl.tudelft.jpacman.sprite.Sprite;
 
 /**
- * Panel displaying a game.
+ * Panel displaying a game. The units are drawn from the latest
+ * {@link FrameSnapshot} of the level, which is only ever touched on the event
+ * dispatch thread, so drawing never contends with the units moving. The
+ * squares themselves never change, so they are drawn once into a background
+ * image, which is only redrawn when the panel is resized or the board changes.
+ * <p>
+ * Between two frames, only the squares a unit was on in either frame can
+ * change: a unit entered or left them, ate the pellet on them, or is
+ * animating. Only those squares are repainted, grouping squares that touch
+ * into a single range, so a board with few units costs little to display
+ * however far apart the units are.
+ * <p>
+ * Optionally, the panel renders actively instead: every frame is drawn in
+ * full on a canvas with its own {@link BufferStrategy} and shown at once,
+ * bypassing the repaint manager of Swing.
  *
  * @author Jeroen Roosen 
  *
@@ -35,11 +58,54 @@ class BoardPanel extends JPanel {
      */
     private static final int SQUARE_SIZE = 16;
 
+    /**
+     * The amount of buffers to render actively with.
+     */
+    private static final int ACTIVE_BUFFERS = 2;
+
     /**
      * The game to display.
      */
     private final Game game;
 
+    /**
+     * The snapshot being displayed.
+     */
+    private FrameSnapshot frame;
+
+    /**
+     * The squares of {@link #backgroundBoard} drawn at the size of this panel,
+     * or <code>null</code> if they were not drawn yet.
+     */
+    private transient BufferedImage background;
+
+    /**
+     * The board drawn on the {@link #background}.
+     */
+    private transient Board backgroundBoard;
+
+    /**
+     * The squares of the units in the snapshot being displayed.
+     */
+    private int[] shownSquares = new int[0];
+
+    /**
+     * The squares of the units in the snapshot about to be displayed.
+     */
+    private int[] nextSquares = new int[0];
+
+    /**
+     * The amount of units in the snapshot being displayed, or -1 if the
+     * panel was never painted.
+     */
+    private int shownUnits = -1;
+
+    /**
+     * The canvas to render on actively, or <code>null</code> if the panel
+     * is painted by Swing.
+     */
+    private transient Canvas canvas;
+
     /**
      * Creates a new board panel that will display the provided game.
      *
@@ -59,62 +125,325 @@ class BoardPanel extends JPanel {
         Dimension size = new Dimension(w, h);
         setMinimumSize(size);
         setPreferredSize(size);
+        frame = game.getLevel().getFrames().acquire();
+    }
+
+    /**
+     * Displays the latest snapshot of the level. Must be called on the event
+     * dispatch thread.
+     *
+     * @return The snapshot now being displayed.
+     */
+    FrameSnapshot nextFrame() {
+        FrameSnapshot next = game.getLevel().getFrames().acquire();
+        frame = next;
+        Board board = game.getLevel().getBoard();
+        readUnitSquares(next);
+        if (canvas != null) {
+            renderActively(board, next);
+        } else if (board != backgroundBoard || next.getUnitCount() != shownUnits) {
+            paintImmediately(0, 0, getWidth(), getHeight());
+        } else {
+            for (Rectangle cells
+                : dirtyCells(shownSquares, nextSquares, shownUnits, board.getHeight())) {
+                repaintCells(board, cells);
+            }
+        }
+        int[] shown = shownSquares;
+        shownSquares = nextSquares;
+        nextSquares = shown;
+        shownUnits = next.getUnitCount();
+        return next;
+    }
+
+    /**
+     * Makes this panel render actively on a canvas of its own from now on.
+     * Must be called on the event dispatch thread.
+     */
+    void useActiveRendering() {
+        if (canvas != null) {
+            return;
+        }
+        canvas = new Canvas();
+        canvas.setIgnoreRepaint(true);
+        canvas.setBackground(BACKGROUND_COLOR);
+        setLayout(new BorderLayout());
+        add(canvas, BorderLayout.CENTER);
+        revalidate();
+    }
+
+    /**
+     * Renders a snapshot in full on the canvas and shows it, once the canvas
+     * is displayed.
+     *
+     * @param board
+     *            The board to render.
+     * @param next
+     *            The snapshot to render.
+     */
+    private void renderActively(Board board, FrameSnapshot next) {
+        if (!canvas.isDisplayable()) {
+            return;
+        }
+        BufferStrategy strategy = canvas.getBufferStrategy();
+        if (strategy == null) {
+            canvas.createBufferStrategy(ACTIVE_BUFFERS);
+            strategy = canvas.getBufferStrategy();
+        }
+        do {
+            do {
+                Graphics graphics = strategy.getDrawGraphics();
+                try {
+                    render(board, next, graphics, canvas.getSize());
+                } finally {
+                    graphics.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    /**
+     * Finds the ranges of squares holding every square the units were on in
+     * one snapshot and are on in the next, which has as many units. Squares
+     * that touch, also diagonally, share a range, so units far apart get
+     * ranges of their own.
+     *
+     * @param before
+     *            The squares of the units in the first snapshot.
+     * @param after
+     *            The squares of the units in the next snapshot.
+     * @param units
+     *            The amount of units.
+     * @param height
+     *            The height of the board, in squares.
+     * @return The ranges of squares, as columns and rows, none of which touch
+     *         each other.
+     */
+    static List<Rectangle> dirtyCells(int[] before, int[] after, int units, int height) {
+        List<Rectangle> ranges = new ArrayList<>();
+        for (int unit = 0; unit < units; unit++) {
+            include(ranges, before[unit], height);
+            include(ranges, after[unit], height);
+        }
+        return ranges;
+    }
+
+    /**
+     * Adds a square to ranges of squares, merging all ranges it touches, and
+     * those they then touch, into one.
+     *
+     * @param ranges
+     *            The ranges of squares, as columns and rows, none of which
+     *            touch each other.
+     * @param square
+     *            The index of the square.
+     * @param height
+     *            The height of the board, in squares.
+     */
+    private static void include(List<Rectangle> ranges, int square, int height) {
+        Rectangle merged = new Rectangle(square / height, square % height, 1, 1);
+        int i = 0;
+        while (i < ranges.size()) {
+            Rectangle range = ranges.get(i);
+            Rectangle around = new Rectangle(range.x - 1, range.y - 1,
+                range.width + 2, range.height + 2);
+            if (around.intersects(merged)) {
+                merged = merged.union(range);
+                ranges.remove(i);
+                i = 0;
+            } else {
+                i++;
+            }
+        }
+        ranges.add(merged);
+    }
+
+    /**
+     * Repaints a range of squares in a single pass.
+     *
+     * @param board
+     *            The board displayed.
+     * @param cells
+     *            The range of squares, as columns and rows.
+     */
+    private void repaintCells(Board board, Rectangle cells) {
+        if (cells.isEmpty()) {
+            return;
+        }
+        int cellW = getWidth() / board.getWidth();
+        int cellH = getHeight() / board.getHeight();
+        paintImmediately(cells.x * cellW, cells.y * cellH,
+            cells.width * cellW, cells.height * cellH);
+    }
+
+    /**
+     * Reads the squares of the units in a snapshot, which may change once the
+     * next snapshot is acquired.
+     *
+     * @param snapshot
+     *            The snapshot about to be displayed.
+     */
+    private void readUnitSquares(FrameSnapshot snapshot) {
+        int units = snapshot.getUnitCount();
+        if (nextSquares.length < units) {
+            nextSquares = new int[units];
+        }
+        for (int unit = 0; unit < units; unit++) {
+            nextSquares[unit] = snapshot.getUnitSquare(unit);
+        }
     }
 
     @Override
     public void paint(Graphics g) {
         assert g != null;
-        render(game.getLevel().getBoard(), g, getSize());
+        render(game.getLevel().getBoard(), frame, g, getSize());
     }
 
     /**
-     * Renders the board on the given graphics context to the given dimensions.
+     * Renders the board and a snapshot of its units on the given graphics
+     * context to the given dimensions.
      *
      * @param board
      *            The board to render.
+     * @param snapshot
+     *            The units to render.
      * @param graphics
      *            The graphics context to draw on.
      * @param window
      *            The dimensions to scale the rendered board to.
      */
-    private void render(Board board, Graphics graphics, Dimension window) {
+    private void render(Board board, FrameSnapshot snapshot, Graphics graphics,
+                        Dimension window) {
         int cellW = window.width / board.getWidth();
         int cellH = window.height / board.getHeight();
 
+        graphics.drawImage(backgroundOf(board, window, cellW, cellH), 0, 0, null);
+        if (cellW == 0 || cellH == 0) {
+            return;
+        }
+        Rectangle clip = graphics.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(window);
+        }
+        Rectangle cells = new Rectangle(clip.x / cellW, clip.y / cellH,
+            (clip.x + clip.width - 1) / cellW - clip.x / cellW + 1,
+            (clip.y + clip.height - 1) / cellH - clip.y / cellH + 1);
+        cells = cells.intersection(new Rectangle(board.getWidth(), board.getHeight()));
+        renderPellets(snapshot, graphics, cells, cellW, cellH);
+        renderUnits(snapshot, graphics, cells, cellW, cellH);
+    }
+
+    /**
+     * Returns the background of the board at the given dimensions, drawing it
+     * if it was not drawn at these dimensions before.
+     *
+     * @param board
+     *            The board to render.
+     * @param window
+     *            The dimensions of the background.
+     * @param cellW
+     *            The width of a square (in pixels.)
+     * @param cellH
+     *            The height of a square (in pixels.)
+     * @return The background.
+     */
+    private BufferedImage backgroundOf(Board board, Dimension window, int cellW, int cellH) {
+        if (background != null && backgroundBoard == board
+            && background.getWidth() == window.width
+            && background.getHeight() == window.height) {
+            return background;
+        }
+        BufferedImage image = newImage(Math.max(1, window.width), Math.max(1, window.height));
+        Graphics graphics = image.createGraphics();
         graphics.setColor(BACKGROUND_COLOR);
         graphics.fillRect(0, 0, window.width, window.height);
-
         for (int y = 0; y < board.getHeight(); y++) {
             for (int x = 0; x < board.getWidth(); x++) {
-                int cellX = x * cellW;
-                int cellY = y * cellH;
-                Square square = board.squareAt(x, y);
-                render(square, graphics, cellX, cellY, cellW, cellH);
+                board.squareAt(x, y).getSprite()
+                    .draw(graphics, x * cellW, y * cellH, cellW, cellH);
             }
         }
+        graphics.dispose();
+        background = image;
+        backgroundBoard = board;
+        return image;
     }
 
     /**
-     * Renders a single square on the given graphics context on the specified
-     * rectangle.
+     * Creates an opaque image that can be drawn on this panel quickly.
      *
-     * @param square
-     *            The square to render.
-     * @param graphics
-     *            The graphics context to draw on.
-     * @param x
-     *            The x position to start drawing.
-     * @param y
-     *            The y position to start drawing.
      * @param width
-     *            The width of this square (in pixels.)
+     *            The width of the image.
      * @param height
-     *            The height of this square (in pixels.)
+     *            The height of the image.
+     * @return The new image.
      */
-    private void render(Square square, Graphics graphics, int x, int y, int width, int height) {
-        square.getSprite().draw(graphics, x, y, width, height);
-        for (Unit unit : square.getOccupants()) {
-            unit.getSprite().draw(graphics, x, y, width, height);
+    private BufferedImage newImage(int width, int height) {
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        if (configuration == null) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        return configuration.createCompatibleImage(width, height);
+    }
+
+    /**
+     * Renders the pellets of a snapshot within a range of squares.
+     *
+     * @param snapshot
+     *            The snapshot to render.
+     * @param graphics
+     *            The graphics context to draw on.
+     * @param cells
+     *            The range of squares to render.
+     * @param cellW
+     *            The width of a square (in pixels.)
+     * @param cellH
+     *            The height of a square (in pixels.)
+     */
+    private void renderPellets(FrameSnapshot snapshot, Graphics graphics, Rectangle cells,
+                               int cellW, int cellH) {
+        Sprite pellet = snapshot.getPelletSprite();
+        if (pellet == null) {
+            return;
+        }
+        int height = snapshot.getHeight();
+        for (int x = cells.x; x < cells.x + cells.width; x++) {
+            for (int y = cells.y; y < cells.y + cells.height; y++) {
+                if (snapshot.hasPellet(x * height + y)) {
+                    pellet.draw(graphics, x * cellW, y * cellH, cellW, cellH);
+                }
+            }
+        }
+    }
+
+    /**
+     * Renders the units other than pellets of a snapshot within a range of
+     * squares.
+     *
+     * @param snapshot
+     *            The snapshot to render.
+     * @param graphics
+     *            The graphics context to draw on.
+     * @param cells
+     *            The range of squares to render.
+     * @param cellW
+     *            The width of a square (in pixels.)
+     * @param cellH
+     *            The height of a square (in pixels.)
+     */
+    private void renderUnits(FrameSnapshot snapshot, Graphics graphics, Rectangle cells,
+                             int cellW, int cellH) {
+        int height = snapshot.getHeight();
+        for (int unit = 0; unit < snapshot.getUnitCount(); unit++) {
+            int index = snapshot.getUnitSquare(unit);
+            int x = index / height;
+            int y = index % height;
+            if (cells.contains(x, y)) {
+                snapshot.getUnitSprite(unit).draw(graphics, x * cellW, y * cellH,
+                    cellW, cellH);
+            }
         }
     }
 }
@@ -0,0 +1,323 @@
+package nl.tudelft.jpacman.ui;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.level.FrameSnapshot;
+import nl.tudelft.jpacman.sprite.AnimatedSprite;
+import nl.tudelft.jpacman.sprite.Sprite;
+
+/**
+ * Renders a board and snapshots of its units into a frame buffer of ARGB
+ * pixels, without a screen and without going through the graphics pipeline
+ * of AWT for every frame, for instance to record the episodes of a headless
+ * simulation.
+ * <p>
+ * Every sprite is drawn once, at the size of a square, into a tile of pixels
+ * that is then copied into the frame buffer wherever the sprite is shown.
+ * Animated sprites are resolved to the frame they show at the time of their
+ * clock, so each frame of an animation gets a tile of its own. The squares of
+ * the board are drawn once into a background, which every frame starts from.
+ * <p>
+ * The pixels of a frame are stored row by row, and are always opaque. A
+ * renderer is meant to be used by a single thread.
+ */
+public final class FrameBufferRenderer {
+
+    /**
+     * The colour of the background of the board, opaque black.
+     */
+    private static final int BACKGROUND_COLOR = 0xFF000000;
+
+    /**
+     * The shift of the alpha channel of a pixel.
+     */
+    private static final int ALPHA_SHIFT = 24;
+
+    /**
+     * The alpha of an opaque pixel.
+     */
+    private static final int OPAQUE = 0xFF;
+
+    /**
+     * The shifts of the red, green and blue channels of a pixel.
+     */
+    private static final int[] CHANNEL_SHIFTS = {16, 8, 0};
+
+    /**
+     * The board rendered.
+     */
+    private final Board board;
+
+    /**
+     * The width and height of a square, in pixels.
+     */
+    private final int tileSize;
+
+    /**
+     * The width of a frame, in pixels.
+     */
+    private final int width;
+
+    /**
+     * The height of a frame, in pixels.
+     */
+    private final int height;
+
+    /**
+     * The squares of the board, drawn once.
+     */
+    private final int[] background;
+
+    /**
+     * The frame rendered last.
+     */
+    private final int[] pixels;
+
+    /**
+     * The tile of every sprite drawn so far.
+     */
+    private final Map<Sprite, Tile> tiles = new IdentityHashMap<>();
+
+    /**
+     * Creates a renderer for a board.
+     *
+     * @param board
+     *            The board to render.
+     * @param tileSize
+     *            The width and height of a square, in pixels.
+     */
+    public FrameBufferRenderer(Board board, int tileSize) {
+        assert board != null;
+        assert tileSize > 0;
+        this.board = board;
+        this.tileSize = tileSize;
+        this.width = board.getWidth() * tileSize;
+        this.height = board.getHeight() * tileSize;
+        this.background = new int[width * height];
+        this.pixels = new int[width * height];
+        drawBackground();
+    }
+
+    /**
+     * Draws the squares of the board onto the background.
+     */
+    private void drawBackground() {
+        Arrays.fill(background, BACKGROUND_COLOR);
+        int squares = board.getWidth() * board.getHeight();
+        for (int index = 0; index < squares; index++) {
+            Sprite sprite = board.squareWithIndex(index).getSprite();
+            blit(tileOf(sprite), index, background);
+        }
+    }
+
+    /**
+     * @return The width of a frame, in pixels.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return The height of a frame, in pixels.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Renders a snapshot into the frame buffer of this renderer.
+     *
+     * @param snapshot
+     *            A snapshot of the units on the board.
+     * @return The frame buffer, which is overwritten by the next frame
+     *         rendered.
+     */
+    @SuppressFBWarnings(
+        value = "EI_EXPOSE_REP",
+        justification = "the frame buffer is reused on purpose, to render without allocating"
+    )
+    public int[] render(FrameSnapshot snapshot) {
+        render(snapshot, pixels);
+        return pixels;
+    }
+
+    /**
+     * Renders a snapshot into a frame buffer.
+     *
+     * @param snapshot
+     *            A snapshot of the units on the board.
+     * @param target
+     *            The frame buffer, of at least {@link #getWidth()} times
+     *            {@link #getHeight()} pixels.
+     */
+    public void render(FrameSnapshot snapshot, int[] target) {
+        assert snapshot.getWidth() == board.getWidth();
+        assert snapshot.getHeight() == board.getHeight();
+        assert target.length >= width * height;
+
+        System.arraycopy(background, 0, target, 0, background.length);
+        Sprite pellet = snapshot.getPelletSprite();
+        if (pellet != null) {
+            Tile pelletTile = tileOf(pellet);
+            int squares = board.getWidth() * board.getHeight();
+            for (int index = 0; index < squares; index++) {
+                if (snapshot.hasPellet(index)) {
+                    blit(pelletTile, index, target);
+                }
+            }
+        }
+        for (int unit = 0; unit < snapshot.getUnitCount(); unit++) {
+            blit(tileOf(snapshot.getUnitSprite(unit)), snapshot.getUnitSquare(unit), target);
+        }
+    }
+
+    /**
+     * Returns the tile of a sprite, or of the frame an animated sprite shows
+     * now, drawing it if it was not drawn before.
+     *
+     * @param sprite
+     *            The sprite.
+     * @return The tile of the sprite.
+     */
+    private Tile tileOf(Sprite sprite) {
+        Sprite shown = sprite;
+        while (shown instanceof AnimatedSprite) {
+            shown = ((AnimatedSprite) shown).getFrame();
+        }
+        Tile tile = tiles.get(shown);
+        if (tile == null) {
+            tile = new Tile(shown, tileSize);
+            tiles.put(shown, tile);
+        }
+        return tile;
+    }
+
+    /**
+     * Draws a tile over a square of a frame buffer.
+     *
+     * @param tile
+     *            The tile to draw.
+     * @param square
+     *            The index of the square, see
+     *            {@link nl.tudelft.jpacman.board.Square#getIndex()}.
+     * @param target
+     *            The frame buffer.
+     */
+    private void blit(Tile tile, int square, int[] target) {
+        if (tile.empty) {
+            return;
+        }
+        int boardHeight = board.getHeight();
+        int offset = square % boardHeight * tileSize * width + square / boardHeight * tileSize;
+        for (int row = 0; row < tileSize; row++) {
+            int from = row * tileSize;
+            int to = offset + row * width;
+            if (tile.opaque) {
+                System.arraycopy(tile.pixels, from, target, to, tileSize);
+            } else {
+                blend(tile.pixels, from, target, to, tileSize);
+            }
+        }
+    }
+
+    /**
+     * Draws a row of pixels that may be transparent over a row of opaque
+     * pixels.
+     *
+     * @param source
+     *            The pixels to draw.
+     * @param from
+     *            The first pixel to draw.
+     * @param target
+     *            The pixels to draw over.
+     * @param to
+     *            The first pixel to draw over.
+     * @param length
+     *            The amount of pixels.
+     */
+    private static void blend(int[] source, int from, int[] target, int to, int length) {
+        for (int i = 0; i < length; i++) {
+            int pixel = source[from + i];
+            int alpha = pixel >>> ALPHA_SHIFT;
+            if (alpha == OPAQUE) {
+                target[to + i] = pixel;
+            } else if (alpha != 0) {
+                target[to + i] = mix(pixel, target[to + i], alpha);
+            }
+        }
+    }
+
+    /**
+     * Draws a translucent pixel over an opaque one.
+     *
+     * @param pixel
+     *            The pixel to draw.
+     * @param under
+     *            The pixel to draw over.
+     * @param alpha
+     *            The alpha of the pixel to draw.
+     * @return The opaque pixel that results.
+     */
+    private static int mix(int pixel, int under, int alpha) {
+        int result = BACKGROUND_COLOR;
+        for (int shift : CHANNEL_SHIFTS) {
+            int over = pixel >>> shift & OPAQUE;
+            int below = under >>> shift & OPAQUE;
+            result |= (over * alpha + below * (OPAQUE - alpha) + OPAQUE / 2) / OPAQUE << shift;
+        }
+        return result;
+    }
+
+    /**
+     * The pixels of a sprite drawn at the size of a square.
+     */
+    private static final class Tile {
+
+        /**
+         * The ARGB pixels, row by row.
+         */
+        private final int[] pixels;
+
+        /**
+         * <code>true</code> iff all pixels are opaque.
+         */
+        private final boolean opaque;
+
+        /**
+         * <code>true</code> iff all pixels are transparent.
+         */
+        private final boolean empty;
+
+        /**
+         * Draws a sprite into a new tile.
+         *
+         * @param sprite
+         *            The sprite to draw.
+         * @param size
+         *            The width and height of the tile.
+         */
+        Tile(Sprite sprite, int size) {
+            BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+            Graphics graphics = image.createGraphics();
+            sprite.draw(graphics, 0, 0, size, size);
+            graphics.dispose();
+            pixels = image.getRGB(0, 0, size, size, null, 0, size);
+            boolean allOpaque = true;
+            boolean allTransparent = true;
+            for (int pixel : pixels) {
+                int alpha = pixel >>> ALPHA_SHIFT;
+                allOpaque &= alpha == OPAQUE;
+                allTransparent &= alpha == 0;
+            }
+            opaque = allOpaque;
+            empty = allTransparent;
+        }
+    }
+}
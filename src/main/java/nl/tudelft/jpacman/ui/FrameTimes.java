@@ -0,0 +1,132 @@
+package nl.tudelft.jpacman.ui;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the frames of a user interface take to draw. The times
+ * are kept in a histogram with a bucket per whole millisecond, so recording a
+ * frame costs the same however long the game runs. Frames that were not drawn
+ * at all because drawing fell behind are counted as skipped.
+ */
+public final class FrameTimes {
+
+    /**
+     * The amount of buckets of the histogram. The last bucket holds every
+     * frame that took at least this many milliseconds minus one.
+     */
+    public static final int BUCKETS = 100;
+
+    /**
+     * The amount of frames that took every whole amount of milliseconds.
+     */
+    private final long[] histogram = new long[BUCKETS];
+
+    /**
+     * The amount of frames drawn.
+     */
+    private long frameCount;
+
+    /**
+     * The amount of frames skipped.
+     */
+    private long skippedFrames;
+
+    /**
+     * The total time spent drawing frames, in nanoseconds.
+     */
+    private long totalNanos;
+
+    /**
+     * The longest time a single frame took, in nanoseconds.
+     */
+    private long maxNanos;
+
+    /**
+     * Records a frame that was drawn.
+     *
+     * @param nanos
+     *            The time the frame took to draw, in nanoseconds.
+     */
+    synchronized void record(long nanos) {
+        assert nanos >= 0L;
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        histogram[(int) Math.min(millis, BUCKETS - 1)]++;
+        frameCount++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * Records frames that were skipped because drawing fell behind.
+     *
+     * @param frames
+     *            The amount of frames skipped.
+     */
+    synchronized void skip(long frames) {
+        assert frames > 0L;
+        skippedFrames += frames;
+    }
+
+    /**
+     * @return The amount of frames drawn.
+     */
+    public synchronized long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * @return The amount of frames skipped because drawing fell behind.
+     */
+    public synchronized long getSkippedFrames() {
+        return skippedFrames;
+    }
+
+    /**
+     * @return The average time a frame took to draw, in nanoseconds, or 0 if
+     *         no frames were drawn yet.
+     */
+    public synchronized long getAverageNanos() {
+        if (frameCount == 0L) {
+            return 0L;
+        }
+        return totalNanos / frameCount;
+    }
+
+    /**
+     * @return The longest time a single frame took to draw, in nanoseconds.
+     */
+    public synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return A copy of the histogram: the amount of frames that took every
+     *         whole amount of milliseconds to draw, the last element counting
+     *         all frames that took longer.
+     */
+    public synchronized long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * Returns the time within which a part of the frames were drawn.
+     *
+     * @param fraction
+     *            The part of the frames, between 0 and 1.
+     * @return The time, rounded down to whole milliseconds, within which at
+     *         least the given part of the frames were drawn, or 0 if no frames
+     *         were drawn yet.
+     */
+    public synchronized int getPercentileMillis(double fraction) {
+        assert fraction >= 0.0 && fraction <= 1.0;
+        long wanted = (long) Math.ceil(fraction * frameCount);
+        long seen = 0L;
+        for (int millis = 0; millis < BUCKETS; millis++) {
+            seen += histogram[millis];
+            if (seen >= wanted) {
+                return millis;
+            }
+        }
+        return BUCKETS - 1;
+    }
+}
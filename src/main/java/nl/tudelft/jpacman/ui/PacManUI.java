@@ -3,15 +3,14 @@ package nl.tudelft.jpacman.ui;
 import java.awt.BorderLayout;
 import java.awt.Container;
 import java.util.Map;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.WindowConstants;
 
 import nl.tudelft.jpacman.game.Game;
+import nl.tudelft.jpacman.level.FrameSnapshot;
+import nl.tudelft.jpacman.sprite.AnimationClock;
 import nl.tudelft.jpacman.ui.ScorePanel.ScoreFormatter;
 
 /**
@@ -36,10 +35,9 @@ public class PacManUI extends JFrame {
     private static final long serialVersionUID = 1L;
 
     /**
-     * The desired frame rate interval for the graphics in milliseconds, 40
-     * being 25 fps.
+     * The default frame rate of the graphics, in frames per second.
      */
-    private static final int FRAME_INTERVAL = 40;
+    public static final int DEFAULT_FPS = 25;
 
     /**
      * The panel displaying the player scores.
@@ -51,6 +49,16 @@ public class PacManUI extends JFrame {
      */
     private final BoardPanel boardPanel;
 
+    /**
+     * The times the frames took to draw.
+     */
+    private final transient FrameTimes frameTimes = new FrameTimes();
+
+    /**
+     * The thread drawing the frames.
+     */
+    private final transient RenderLoop renderLoop;
+
     /**
      * Creates a new UI for a JPacman game.
      *
@@ -68,10 +76,37 @@ public class PacManUI extends JFrame {
     public PacManUI(final Game game, final Map<String, Action> buttons,
                     final Map<Integer, Action> keyMappings,
                     ScoreFormatter scoreFormatter) {
+        this(game, buttons, keyMappings, scoreFormatter, DEFAULT_FPS, false);
+    }
+
+    /**
+     * Creates a new UI for a JPacman game.
+     *
+     * @param game
+     *            The game to play.
+     * @param buttons
+     *            The map of caption-to-action entries that will appear as
+     *            buttons on the interface.
+     * @param keyMappings
+     *            The map of keyCode-to-action entries that will be added as key
+     *            listeners to the interface.
+     * @param scoreFormatter
+     *            The formatter used to display the current score.
+     * @param targetFps
+     *            The amount of frames to draw every second.
+     * @param activeRendering
+     *            <code>true</code> iff the board is rendered actively rather
+     *            than painted by Swing.
+     */
+    public PacManUI(final Game game, final Map<String, Action> buttons,
+                    final Map<Integer, Action> keyMappings,
+                    ScoreFormatter scoreFormatter, int targetFps,
+                    boolean activeRendering) {
     	super("JPacman ");
         assert game != null;
         assert buttons != null;
         assert keyMappings != null;
+        assert targetFps > 0;
 
         setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
 
@@ -86,6 +121,10 @@ public class PacManUI extends JFrame {
         }
 
         boardPanel = new BoardPanel(game);
+        if (activeRendering) {
+            boardPanel.useActiveRendering();
+        }
+        renderLoop = new RenderLoop(this::showFrame, targetFps, frameTimes);
 
         Container contentPanel = getContentPane();
         contentPanel.setLayout(new BorderLayout());
@@ -97,20 +136,37 @@ public class PacManUI extends JFrame {
     }
 
     /**
-     * Starts the "engine", the thread that redraws the interface at set
-     * intervals.
+     * Starts the "engine", the thread that redraws the interface at the
+     * target frame rate.
      */
     public void start() {
         setVisible(true);
-        ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor();
-        service.scheduleAtFixedRate(this::nextFrame, 0, FRAME_INTERVAL, TimeUnit.MILLISECONDS);
+        renderLoop.start();
+    }
+
+    /**
+     * Stops redrawing the interface and disposes of it.
+     */
+    @Override
+    public void dispose() {
+        renderLoop.stop();
+        super.dispose();
+    }
+
+    /**
+     * @return The times the frames took to draw since the interface started.
+     */
+    public FrameTimes getFrameTimes() {
+        return frameTimes;
     }
 
     /**
-     * Draws the next frame, i.e. refreshes the scores and game.
+     * Draws the latest snapshot of the game, i.e. refreshes the scores and
+     * game, with the animations at the time the frame started.
      */
-    private void nextFrame() {
-        boardPanel.repaint();
-        scorePanel.refresh();
+    private void showFrame() {
+        AnimationClock.shared().sample();
+        FrameSnapshot frame = boardPanel.nextFrame();
+        scorePanel.refresh(frame);
     }
 }
@@ -44,6 +44,16 @@ public class PacManUiBuilder {
      */
     private ScoreFormatter scoreFormatter = null;
 
+    /**
+     * The amount of frames to draw every second.
+     */
+    private int targetFps = PacManUI.DEFAULT_FPS;
+
+    /**
+     * <code>true</code> iff the board is rendered actively.
+     */
+    private boolean activeRendering;
+
     /**
      * Creates a new Pac-Man UI builder without any mapped keys or buttons.
      */
@@ -67,7 +77,8 @@ public class PacManUiBuilder {
             addStartButton(game);
             addStopButton(game);
         }
-        return new PacManUI(game, buttons, keyMappings, scoreFormatter);
+        return new PacManUI(game, buttons, keyMappings, scoreFormatter, targetFps,
+            activeRendering);
     }
 
     /**
@@ -156,4 +167,30 @@ public class PacManUiBuilder {
         this.scoreFormatter = scoreFormatter;
         return this;
     }
+
+    /**
+     * Sets the frame rate of the UI, which is {@value PacManUI#DEFAULT_FPS}
+     * frames per second by default. Frames that cannot be drawn in time are
+     * skipped.
+     *
+     * @param fps
+     *            The amount of frames to draw every second.
+     * @return The builder.
+     */
+    public PacManUiBuilder withTargetFps(int fps) {
+        assert fps > 0;
+        this.targetFps = fps;
+        return this;
+    }
+
+    /**
+     * Renders the board actively, with a buffer strategy of its own, rather
+     * than having Swing paint it.
+     *
+     * @return The builder.
+     */
+    public PacManUiBuilder withActiveRendering() {
+        this.activeRendering = true;
+        return this;
+    }
 }
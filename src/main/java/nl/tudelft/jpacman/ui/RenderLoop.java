@@ -0,0 +1,121 @@
+package nl.tudelft.jpacman.ui;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * The thread that draws the frames of a user interface at a target rate.
+ * <p>
+ * Every frame is drawn on the event dispatch thread, and the loop waits for
+ * it to be drawn before planning the next one, so frames never pile up in the
+ * event queue when drawing is slow. A frame that took longer than a frame
+ * period makes the loop skip the frames it missed instead of drawing them in
+ * a burst to catch up; as every frame shows the latest state of the game,
+ * nothing is lost by skipping one. The time each frame took is recorded in a
+ * {@link FrameTimes}.
+ */
+final class RenderLoop implements Runnable {
+
+    /**
+     * Draws a single frame.
+     */
+    private final Runnable frame;
+
+    /**
+     * The time between the start of two frames, in nanoseconds.
+     */
+    private final long period;
+
+    /**
+     * The times measured.
+     */
+    private final FrameTimes times;
+
+    /**
+     * The thread running this loop, <code>null</code> when not running.
+     */
+    private volatile Thread thread;
+
+    /**
+     * Creates a new render loop, which does nothing until started.
+     *
+     * @param frame
+     *            Draws a single frame, invoked on the event dispatch thread.
+     * @param targetFps
+     *            The amount of frames to draw every second.
+     * @param times
+     *            The statistics to record the frame times in.
+     */
+    RenderLoop(Runnable frame, int targetFps, FrameTimes times) {
+        assert frame != null;
+        assert targetFps > 0;
+        assert times != null;
+        this.frame = frame;
+        this.period = TimeUnit.SECONDS.toNanos(1L) / targetFps;
+        this.times = times;
+    }
+
+    /**
+     * Starts drawing frames on a new thread, if not started yet.
+     */
+    synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        Thread newThread = new Thread(this, "JPacman render loop");
+        newThread.setDaemon(true);
+        thread = newThread;
+        newThread.start();
+    }
+
+    /**
+     * Stops drawing frames. The frame being drawn, if any, is finished.
+     */
+    synchronized void stop() {
+        Thread running = thread;
+        if (running != null) {
+            thread = null;
+            running.interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        long due = System.nanoTime();
+        while (thread == Thread.currentThread()) {
+            long start = System.nanoTime();
+            if (!drawFrame()) {
+                return;
+            }
+            long end = System.nanoTime();
+            times.record(end - start);
+            due += period;
+            if (end > due) {
+                long missed = (end - due) / period + 1L;
+                times.skip(missed);
+                due += missed * period;
+            }
+            LockSupport.parkNanos(due - end);
+        }
+    }
+
+    /**
+     * Draws a frame on the event dispatch thread and waits for it.
+     *
+     * @return <code>false</code> iff the loop was interrupted.
+     */
+    private boolean drawFrame() {
+        try {
+            SwingUtilities.invokeAndWait(frame);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Unable to draw frame.", e.getCause());
+        }
+    }
+}
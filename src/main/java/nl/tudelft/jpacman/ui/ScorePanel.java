@@ -1,18 +1,21 @@
 package nl.tudelft.jpacman.ui;
 
 import java.awt.GridLayout;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
+import nl.tudelft.jpacman.level.FrameSnapshot;
 import nl.tudelft.jpacman.level.Player;
 
 /**
  * A panel consisting of a column for each player, with the numbered players on
- * top and their respective scores underneath.
+ * top and their respective scores underneath. The scores are taken from the
+ * latest {@link FrameSnapshot} of the level, and only reformatted when they
+ * change.
  *
  * @author Jeroen Roosen 
  *
@@ -25,15 +28,30 @@ public class ScorePanel extends JPanel {
     private static final long serialVersionUID = 1L;
 
     /**
-     * The map of players and the labels their scores are on.
+     * The players, in the order of the snapshots.
      */
-    private final Map<Player, JLabel> scoreLabels;
+    private final List<Player> players;
+
+    /**
+     * The labels the scores of the players are on.
+     */
+    private final List<JLabel> scoreLabels;
+
+    /**
+     * The scores on the labels, or -1 if nothing was shown yet.
+     */
+    private final int[] shownScores;
+
+    /**
+     * Whether the players were shown alive.
+     */
+    private final boolean[] shownAlive;
 
     /**
      * The default way in which the score is shown.
      */
     public static final ScoreFormatter DEFAULT_SCORE_FORMATTER =
-        (Player player) -> String.format("Score: %3d", player.getScore());
+        (Player player, int score) -> String.format("Score: %3d", score);
 
     /**
      * The way to format the score information.
@@ -55,26 +73,40 @@ public class ScorePanel extends JPanel {
         for (int i = 1; i <= players.size(); i++) {
             add(new JLabel("Player " + i, JLabel.CENTER));
         }
-        scoreLabels = new LinkedHashMap<>();
-        for (Player player : players) {
+        this.players = new ArrayList<>(players);
+        scoreLabels = new ArrayList<>();
+        for (int i = 0; i < players.size(); i++) {
             JLabel scoreLabel = new JLabel("0", JLabel.CENTER);
-            scoreLabels.put(player, scoreLabel);
+            scoreLabels.add(scoreLabel);
             add(scoreLabel);
         }
+        shownScores = new int[players.size()];
+        Arrays.fill(shownScores, -1);
+        shownAlive = new boolean[players.size()];
     }
 
     /**
-     * Refreshes the scores of the players.
+     * Refreshes the scores of the players that changed since the last
+     * refresh.
+     *
+     * @param frame
+     *            The snapshot holding the scores.
      */
-    protected void refresh() {
-        for (Map.Entry<Player, JLabel> entry : scoreLabels.entrySet()) {
-            Player player = entry.getKey();
-            String score = "";
-            if (!player.isAlive()) {
-                score = "You died. ";
+    protected void refresh(FrameSnapshot frame) {
+        int count = Math.min(players.size(), frame.getPlayerCount());
+        for (int i = 0; i < count; i++) {
+            int points = frame.getScore(i);
+            boolean alive = frame.isAlive(i);
+            if (points != shownScores[i] || alive != shownAlive[i]) {
+                shownScores[i] = points;
+                shownAlive[i] = alive;
+                String score = "";
+                if (!alive) {
+                    score = "You died. ";
+                }
+                score += scoreFormatter.format(players.get(i), points);
+                scoreLabels.get(i).setText(score);
             }
-            score += scoreFormatter.format(player);
-            entry.getValue().setText(score);
         }
     }
 
@@ -84,11 +116,14 @@ public class ScorePanel extends JPanel {
     public interface ScoreFormatter {
 
         /**
-         * Format the score of a given player.
-         * @param player The player and its score
+         * Format the score of a given player. The score is that of the
+         * snapshot being displayed, which may differ from the current score
+         * of the player.
+         * @param player The player whose score it is
+         * @param score The score to format
          * @return Formatted score.
          */
-        String format(Player player);
+        String format(Player player, int score);
     }
 
     /**
@@ -98,5 +133,6 @@ public class ScorePanel extends JPanel {
     public void setScoreFormatter(ScoreFormatter scoreFormatter) {
         assert scoreFormatter != null;
         this.scoreFormatter = scoreFormatter;
+        Arrays.fill(shownScores, -1);
     }
 }